@@ -0,0 +1,150 @@
+package accommodation.booking.service.benchmark;
+
+import accommodation.booking.service.benchmark.BenchmarkDataset.AvailabilityQuery;
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.repository.AccommodationDailyOccupancyRepository;
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.availability.InMemoryAvailabilityService;
+import java.lang.reflect.Proxy;
+import java.sql.Types;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Availability check of one candidate stay, as issued on every booking create and update.
+ * Compares the in-memory interval index with the SQL strategies run against PostgreSQL. The
+ * in-memory strategy also reads the accommodation's occupancy version by primary key before
+ * each answer, which {@code inMemoryIndex} leaves out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+    private static final int QUERY_COUNT = 4096;
+
+    @Benchmark
+    public int inMemoryIndex(Index index) {
+        AvailabilityQuery query = index.next();
+        return index.service.findIndexedMaxOccupancy(
+                query.accommodationId(), query.checkInDate(), query.checkOutDate(), null);
+    }
+
+    @Benchmark
+    public Integer bookingScan(Database database) {
+        return database.query(database.bookingScanSql, true);
+    }
+
+    @Benchmark
+    public Integer dailyLedger(Database database) {
+        return database.query(database.ledgerSql, true);
+    }
+
+    @Benchmark
+    public Integer stayRange(Database database) {
+        return database.query(BookingRepository.STAY_MAX_OCCUPANCY_SQL, false);
+    }
+
+    @State(Scope.Thread)
+    public static class Index {
+        @Param({"10000", "100000", "1000000"})
+        int bookings;
+
+        InMemoryAvailabilityService service;
+        private AvailabilityQuery[] queries;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkDataset dataset = BenchmarkDataset.generate(bookings);
+            Map<Long, List<BookingSpan>> spans = dataset.activeSpansByAccommodation();
+            BookingRepository repository = (BookingRepository) Proxy.newProxyInstance(
+                    BookingRepository.class.getClassLoader(),
+                    new Class<?>[] {BookingRepository.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("findActiveSpans")) {
+                            return spans.getOrDefault((Long) args[0], List.of());
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+            service = new InMemoryAvailabilityService(repository, null, null, Clock.systemUTC());
+            queries = dataset.availabilityQueries(QUERY_COUNT);
+            // Load every accommodation up front so iterations measure lookups only
+            for (long id = 1; id <= dataset.accommodationCount(); id++) {
+                service.findIndexedMaxOccupancy(id, BenchmarkDataset.HORIZON_START,
+                        BenchmarkDataset.HORIZON_START, null);
+            }
+        }
+
+        AvailabilityQuery next() {
+            return queries[cursor++ & (QUERY_COUNT - 1)];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        @Param({"10000", "100000", "1000000"})
+        int bookings;
+
+        String bookingScanSql;
+        String ledgerSql;
+        private BenchmarkDatabase database;
+        private NamedParameterJdbcTemplate jdbcTemplate;
+        private AvailabilityQuery[] queries;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchmarkDataset dataset = BenchmarkDataset.generate(bookings);
+            database = BenchmarkDatabase.start(dataset);
+            jdbcTemplate = database.jdbcTemplate();
+            queries = dataset.availabilityQueries(QUERY_COUNT);
+            bookingScanSql = BenchmarkDatabase.repositoryQuery(
+                    BookingRepository.class, "findMaxOccupancy");
+            ledgerSql = BenchmarkDatabase.repositoryQuery(
+                    AccommodationDailyOccupancyRepository.class, "findMaxOccupancy");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            database.close();
+        }
+
+        synchronized AvailabilityQuery next() {
+            return queries[cursor++ & (QUERY_COUNT - 1)];
+        }
+
+        Integer query(String sql, boolean withStatuses) {
+            AvailabilityQuery query = next();
+            MapSqlParameterSource parameters = new MapSqlParameterSource()
+                    .addValue("accommodationId", query.accommodationId())
+                    .addValue("checkInDate", query.checkInDate())
+                    .addValue("checkOutDate", query.checkOutDate())
+                    .addValue("excludeBookingId", null, Types.BIGINT);
+            if (withStatuses) {
+                parameters.addValue("canceledStatus", Booking.BookingStatus.CANCELED.name())
+                        .addValue("expiredStatus", Booking.BookingStatus.EXPIRED.name());
+            }
+            return jdbcTemplate.queryForObject(sql, parameters, Integer.class);
+        }
+    }
+}
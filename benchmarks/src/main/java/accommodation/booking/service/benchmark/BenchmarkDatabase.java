@@ -0,0 +1,118 @@
+package accommodation.booking.service.benchmark;
+
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.repository.AccommodationDailyOccupancyRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import liquibase.integration.spring.SpringLiquibase;
+import org.postgresql.PGConnection;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Embedded PostgreSQL migrated with the application's own Liquibase changelog
+ * and bulk-loaded with a {@link BenchmarkDataset} through COPY.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+    private static final String CHANGELOG = "classpath:db/changelog/db.changelog-master.yaml";
+    private static final int COPY_CHUNK = 50_000;
+
+    private final EmbeddedPostgres postgres;
+    private final HikariDataSource dataSource;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private BenchmarkDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(postgres.getJdbcUrl("postgres", "postgres"));
+        this.dataSource = new HikariDataSource(config);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    static BenchmarkDatabase start(BenchmarkDataset dataset) throws Exception {
+        BenchmarkDatabase database = new BenchmarkDatabase(EmbeddedPostgres.builder().start());
+        database.migrate();
+        database.load(dataset);
+        return database;
+    }
+
+    NamedParameterJdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    /**
+     * Returns the SQL shipped in a repository's {@code @Query}, so benchmarks always
+     * measure the statement the application actually runs.
+     */
+    static String repositoryQuery(Class<?> repository, String methodName) {
+        Method method = Arrays.stream(repository.getMethods())
+                .filter(candidate -> candidate.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No method " + methodName + " on " + repository.getSimpleName()));
+        return method.getAnnotation(Query.class).value();
+    }
+
+    @Override
+    public void close() throws IOException {
+        dataSource.close();
+        postgres.close();
+    }
+
+    private void migrate() throws Exception {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(CHANGELOG);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+
+    private void load(BenchmarkDataset dataset) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            StringBuilder accommodations = new StringBuilder();
+            for (int i = 0; i < dataset.accommodationCount(); i++) {
+                var accommodation = dataset.accommodation(i);
+                accommodations.append(accommodation.getId()).append(',')
+                        .append(accommodation.getType()).append(',')
+                        .append(accommodation.getLocation()).append(',')
+                        .append(accommodation.getSize()).append(',')
+                        .append(accommodation.getDailyRate()).append(',')
+                        .append(accommodation.getAvailability()).append(",false,0\n");
+            }
+            pgConnection.getCopyAPI().copyIn("COPY accommodations (id, type, location, size, "
+                    + "daily_rate, availability, is_deleted, version) FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(accommodations.toString()));
+
+            StringBuilder bookings = new StringBuilder();
+            for (int i = 0; i < dataset.bookingCount(); i++) {
+                bookings.append(i + 1).append(',')
+                        .append(dataset.checkInDateOf(i)).append(',')
+                        .append(dataset.checkOutDateOf(i)).append(',')
+                        .append(dataset.accommodationIdOf(i)).append(",1,false,")
+                        .append(dataset.statusOf(i)).append(",0\n");
+                if ((i + 1) % COPY_CHUNK == 0 || i == dataset.bookingCount() - 1) {
+                    pgConnection.getCopyAPI().copyIn("COPY bookings (id, check_in_date, "
+                            + "check_out_date, accommodation_id, user_id, is_deleted, status, "
+                            + "version) FROM STDIN WITH (FORMAT csv)",
+                            new StringReader(bookings.toString()));
+                    bookings.setLength(0);
+                }
+            }
+        }
+        jdbcTemplate.update(repositoryQuery(
+                AccommodationDailyOccupancyRepository.class, "rebuildAll"), Map.of(
+                "canceledStatus", Booking.BookingStatus.CANCELED.name(),
+                "expiredStatus", Booking.BookingStatus.EXPIRED.name()));
+        jdbcTemplate.getJdbcTemplate().execute("VACUUM ANALYZE");
+    }
+}
@@ -0,0 +1,178 @@
+package accommodation.booking.service.benchmark;
+
+import accommodation.booking.service.dto.accommodation.AccommodationRequestDto;
+import accommodation.booking.service.dto.booking.BookingRequestDto;
+import accommodation.booking.service.model.Accommodation;
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.model.User;
+import accommodation.booking.service.service.availability.BookingSpan;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic booking data: stays of 1-14 nights spread over one year,
+ * about 200 bookings per accommodation and one in five bookings cancelled or expired.
+ */
+public final class BenchmarkDataset {
+    public static final LocalDate HORIZON_START = LocalDate.of(2027, 1, 1);
+    public static final int HORIZON_DAYS = 365;
+    private static final int MAX_NIGHTS = 14;
+    private static final int BOOKINGS_PER_ACCOMMODATION = 200;
+    private static final long SEED = 20270101L;
+    private static final Booking.BookingStatus[] STATUSES = {
+            Booking.BookingStatus.PENDING,
+            Booking.BookingStatus.CONFIRMED,
+            Booking.BookingStatus.CONFIRMED,
+            Booking.BookingStatus.CONFIRMED,
+            Booking.BookingStatus.CANCELED
+    };
+    private static final String[] LOCATIONS = {"Kyiv", "Lviv", "Odesa", "Berlin", "Lisbon"};
+
+    private final int accommodationCount;
+    private final long[] bookingAccommodationIds;
+    private final LocalDate[] checkInDates;
+    private final LocalDate[] checkOutDates;
+    private final Booking.BookingStatus[] statuses;
+    private final BigDecimal[] dailyRates;
+    private final int[] availabilities;
+
+    private BenchmarkDataset(int bookingCount) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        accommodationCount = Math.max(1, bookingCount / BOOKINGS_PER_ACCOMMODATION);
+        dailyRates = new BigDecimal[accommodationCount];
+        availabilities = new int[accommodationCount];
+        for (int i = 0; i < accommodationCount; i++) {
+            dailyRates[i] = BigDecimal.valueOf(random.nextInt(2_000, 40_000), 2);
+            availabilities[i] = random.nextInt(5, 21);
+        }
+        bookingAccommodationIds = new long[bookingCount];
+        checkInDates = new LocalDate[bookingCount];
+        checkOutDates = new LocalDate[bookingCount];
+        statuses = new Booking.BookingStatus[bookingCount];
+        for (int i = 0; i < bookingCount; i++) {
+            bookingAccommodationIds[i] = random.nextInt(accommodationCount) + 1L;
+            checkInDates[i] = HORIZON_START.plusDays(random.nextInt(HORIZON_DAYS));
+            checkOutDates[i] = checkInDates[i].plusDays(random.nextInt(1, MAX_NIGHTS + 1));
+            statuses[i] = random.nextInt(10) == 0
+                    ? Booking.BookingStatus.EXPIRED
+                    : STATUSES[random.nextInt(STATUSES.length)];
+        }
+    }
+
+    public static BenchmarkDataset generate(int bookingCount) {
+        return new BenchmarkDataset(bookingCount);
+    }
+
+    public int bookingCount() {
+        return statuses.length;
+    }
+
+    public int accommodationCount() {
+        return accommodationCount;
+    }
+
+    public long accommodationIdOf(int booking) {
+        return bookingAccommodationIds[booking];
+    }
+
+    public LocalDate checkInDateOf(int booking) {
+        return checkInDates[booking];
+    }
+
+    public LocalDate checkOutDateOf(int booking) {
+        return checkOutDates[booking];
+    }
+
+    public Booking.BookingStatus statusOf(int booking) {
+        return statuses[booking];
+    }
+
+    public Map<Long, List<BookingSpan>> activeSpansByAccommodation() {
+        Map<Long, List<BookingSpan>> spans = new HashMap<>();
+        for (int i = 0; i < statuses.length; i++) {
+            if (BookingSpan.isCounted(statuses[i])) {
+                spans.computeIfAbsent(bookingAccommodationIds[i], id -> new ArrayList<>())
+                        .add(new BookingSpan(i + 1L, bookingAccommodationIds[i],
+                                checkInDates[i], checkOutDates[i]));
+            }
+        }
+        return spans;
+    }
+
+    public Accommodation accommodation(int index) {
+        Accommodation accommodation = new Accommodation(index + 1L);
+        accommodation.setType(Accommodation.AccommodationType.values()[
+                index % Accommodation.AccommodationType.values().length]);
+        accommodation.setLocation(LOCATIONS[index % LOCATIONS.length]);
+        accommodation.setSize(index % 3 == 0 ? "Studio" : "Two bedroom");
+        accommodation.setAmenities(new ArrayList<>(List.of("WiFi", "Kitchen", "Parking")));
+        accommodation.setDailyRate(dailyRates[index]);
+        accommodation.setAvailability(availabilities[index]);
+        accommodation.setVersion(0L);
+        return accommodation;
+    }
+
+    public AccommodationRequestDto accommodationRequest(int index) {
+        AccommodationRequestDto requestDto = new AccommodationRequestDto();
+        requestDto.setType(Accommodation.AccommodationType.CONDO);
+        requestDto.setLocation(LOCATIONS[(index + 1) % LOCATIONS.length]);
+        requestDto.setSize("Penthouse");
+        requestDto.setAmenities(new ArrayList<>(List.of("WiFi", "Pool")));
+        requestDto.setDailyRate(dailyRates[index].add(BigDecimal.TEN));
+        requestDto.setAvailability(availabilities[index] + 1);
+        return requestDto;
+    }
+
+    public List<Booking> bookings(List<Accommodation> accommodations) {
+        User user = new User();
+        user.setId(1L);
+        List<Booking> bookings = new ArrayList<>(statuses.length);
+        for (int i = 0; i < statuses.length; i++) {
+            Booking booking = new Booking();
+            booking.setId(i + 1L);
+            booking.setAccommodation(accommodations.get((int) bookingAccommodationIds[i] - 1));
+            booking.setUser(user);
+            booking.setCheckInDate(checkInDates[i]);
+            booking.setCheckOutDate(checkOutDates[i]);
+            booking.setStatus(statuses[i]);
+            booking.setVersion(0L);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    public BookingRequestDto bookingRequest(int booking) {
+        BookingRequestDto requestDto = new BookingRequestDto();
+        requestDto.setAccommodationId(bookingAccommodationIds[booking]);
+        requestDto.setCheckInDate(checkInDates[booking]);
+        requestDto.setCheckOutDate(checkOutDates[booking]);
+        return requestDto;
+    }
+
+    /**
+     * Availability checks as the booking path issues them: a random accommodation
+     * and a stay of up to two weeks inside the booked horizon.
+     */
+    public AvailabilityQuery[] availabilityQueries(int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        AvailabilityQuery[] queries = new AvailabilityQuery[count];
+        for (int i = 0; i < count; i++) {
+            LocalDate checkIn = HORIZON_START.plusDays(random.nextInt(HORIZON_DAYS));
+            queries[i] = new AvailabilityQuery(
+                    random.nextInt(accommodationCount) + 1L,
+                    checkIn,
+                    checkIn.plusDays(random.nextInt(1, MAX_NIGHTS + 1)));
+        }
+        return queries;
+    }
+
+    public record AvailabilityQuery(Long accommodationId,
+                                    LocalDate checkInDate,
+                                    LocalDate checkOutDate) {
+    }
+}
@@ -0,0 +1,122 @@
+package accommodation.booking.service.benchmark;
+
+import accommodation.booking.service.dto.accommodation.AccommodationRequestDto;
+import accommodation.booking.service.dto.accommodation.AccommodationResponseDto;
+import accommodation.booking.service.dto.booking.BookingRequestDto;
+import accommodation.booking.service.dto.booking.BookingResponseDto;
+import accommodation.booking.service.mapper.AccommodationMapper;
+import accommodation.booking.service.mapper.BookingMapper;
+import accommodation.booking.service.mapper.impl.AccommodationMapperImpl;
+import accommodation.booking.service.mapper.impl.BookingMapperImpl;
+import accommodation.booking.service.model.Accommodation;
+import accommodation.booking.service.model.Booking;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MapStruct conversions on the booking and accommodation endpoints. The list benchmarks
+ * map a full page of {@code bookings} entities, as a manager listing does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+    @Param({"10000", "1000000"})
+    int bookings;
+
+    private final BookingMapper bookingMapper = new BookingMapperImpl();
+    private final AccommodationMapper accommodationMapper = new AccommodationMapperImpl();
+    private List<Booking> bookingModels;
+    private List<Accommodation> accommodationModels;
+    private BookingRequestDto[] bookingRequests;
+    private AccommodationRequestDto[] accommodationRequests;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataset dataset = BenchmarkDataset.generate(bookings);
+        accommodationModels = IntStream.range(0, dataset.accommodationCount())
+                .mapToObj(dataset::accommodation)
+                .toList();
+        bookingModels = dataset.bookings(accommodationModels);
+        bookingRequests = IntStream.range(0, bookings)
+                .mapToObj(dataset::bookingRequest)
+                .toArray(BookingRequestDto[]::new);
+        accommodationRequests = IntStream.range(0, dataset.accommodationCount())
+                .mapToObj(dataset::accommodationRequest)
+                .toArray(AccommodationRequestDto[]::new);
+    }
+
+    @Benchmark
+    public BookingResponseDto bookingIntoDto() {
+        return bookingMapper.intoDto(bookingModels.get(nextIndex(bookingModels.size())));
+    }
+
+    @Benchmark
+    public Booking bookingIntoModel() {
+        return bookingMapper.intoModel(bookingRequests[nextIndex(bookingRequests.length)]);
+    }
+
+    @Benchmark
+    public Booking bookingUpdateModelFromDto() {
+        int index = nextIndex(bookingRequests.length);
+        Booking booking = bookingModels.get(index);
+        bookingMapper.updateModelFromDto(booking, bookingRequests[index]);
+        return booking;
+    }
+
+    @Benchmark
+    public AccommodationResponseDto accommodationIntoDto() {
+        return accommodationMapper.intoDto(
+                accommodationModels.get(nextIndex(accommodationModels.size())));
+    }
+
+    @Benchmark
+    public Accommodation accommodationIntoModel() {
+        return accommodationMapper.intoModel(
+                accommodationRequests[nextIndex(accommodationRequests.length)]);
+    }
+
+    @Benchmark
+    public Accommodation accommodationUpdateModelFromDto() {
+        int index = nextIndex(accommodationRequests.length);
+        Accommodation accommodation = accommodationModels.get(index);
+        accommodationMapper.updateModelFromDto(accommodationRequests[index], accommodation);
+        return accommodation;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<BookingResponseDto> bookingListIntoDto() {
+        List<BookingResponseDto> responses = new ArrayList<>(bookingModels.size());
+        for (Booking booking : bookingModels) {
+            responses.add(bookingMapper.intoDto(booking));
+        }
+        return responses;
+    }
+
+    private int nextIndex(int size) {
+        int index = cursor++;
+        if (cursor >= size) {
+            cursor = 0;
+        }
+        return index % size;
+    }
+}
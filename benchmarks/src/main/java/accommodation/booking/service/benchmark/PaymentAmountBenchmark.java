@@ -0,0 +1,54 @@
+package accommodation.booking.service.benchmark;
+
+import accommodation.booking.service.model.Accommodation;
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.service.payment.util.PaymentServiceImplUtil;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Amount calculation run when a checkout session is opened for a booking.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentAmountBenchmark {
+    @Param({"10000", "1000000"})
+    int bookings;
+
+    private Booking[] bookingModels;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataset dataset = BenchmarkDataset.generate(bookings);
+        List<Accommodation> accommodations = IntStream.range(0, dataset.accommodationCount())
+                .mapToObj(dataset::accommodation)
+                .toList();
+        bookingModels = dataset.bookings(accommodations).toArray(Booking[]::new);
+    }
+
+    @Benchmark
+    public BigDecimal calculateAmountToPay() {
+        Booking booking = bookingModels[cursor];
+        cursor = cursor + 1 == bookingModels.length ? 0 : cursor + 1;
+        return PaymentServiceImplUtil.calculateAmountToPay(booking);
+    }
+}
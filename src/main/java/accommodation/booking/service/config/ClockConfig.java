@@ -0,0 +1,24 @@
+package accommodation.booking.service.config;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.validation.ValidationConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ClockConfig {
+
+    // Checkout times and "today" are read in the zone the accommodations are in
+    @Bean
+    public Clock clock(@Value("${booking.time-zone:UTC}") ZoneId timeZone) {
+        return Clock.system(timeZone);
+    }
+
+    // @FutureOrPresent on booking dates compares against the same "today"
+    @Bean
+    public ValidationConfigurationCustomizer validationClock(Clock clock) {
+        return configuration -> configuration.clockProvider(() -> clock);
+    }
+}
@@ -0,0 +1,61 @@
+package accommodation.booking.service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+
+@Component(ConflictRetryListener.BEAN_NAME)
+@RequiredArgsConstructor
+public class ConflictRetryListener implements RetryListener {
+    public static final String BEAN_NAME = "conflictRetryListener";
+    public static final String CONFLICTS_METRIC = "booking.write.conflicts";
+    public static final String OUTCOMES_METRIC = "booking.write.retries";
+    private static final String UNKNOWN_OPERATION = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public <T, E extends Throwable> void onError(
+            RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+
+        if (throwable instanceof OptimisticLockingFailureException) {
+            meterRegistry.counter(CONFLICTS_METRIC, "operation", operation(context)).increment();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(
+            RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+
+        if (context.getRetryCount() == 0) {
+            return;
+        }
+        String outcome;
+        if (throwable == null) {
+            outcome = "recovered";
+        } else if (throwable instanceof OptimisticLockingFailureException) {
+            outcome = "exhausted";
+        } else {
+            return;
+        }
+        meterRegistry.counter(OUTCOMES_METRIC,
+                "operation", operation(context), "outcome", outcome).increment();
+    }
+
+    private String operation(RetryContext context) {
+        Object name = context.getAttribute(RetryContext.NAME);
+        if (name == null) {
+            return UNKNOWN_OPERATION;
+        }
+        String signature = name.toString();
+        int argsStart = signature.indexOf('(');
+        String qualifiedName = argsStart < 0 ? signature : signature.substring(0, argsStart);
+        int methodStart = qualifiedName.lastIndexOf('.');
+        int classStart = qualifiedName.lastIndexOf('.', methodStart - 1);
+        return methodStart < 0 ? qualifiedName : qualifiedName.substring(classStart + 1);
+    }
+}
@@ -1,6 +1,7 @@
 package accommodation.booking.service.config;
 
 import java.util.Properties;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -10,20 +11,29 @@ import org.springframework.mail.javamail.JavaMailSenderImpl;
 public class MailConfig {
 
     @Bean
-    public JavaMailSender javaMailSender() {
+    public JavaMailSender javaMailSender(
+            @Value("${mail.smtp.host:smtp.gmail.com}") String host,
+            @Value("${mail.smtp.port:587}") int port,
+            @Value("${mail.smtp.username:}") String username,
+            @Value("${mail.smtp.password:}") String password,
+            @Value("${mail.smtp.timeout-ms:5000}") int timeoutMillis) {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-        mailSender.setHost("smtp.gmail.com");
-        mailSender.setPort(587);
-        mailSender.setUsername("your-email@gmail.com");
-        mailSender.setPassword("your-app-specific-password");
+        mailSender.setHost(host);
+        mailSender.setPort(port);
+        boolean authenticated = !username.isBlank();
+        if (authenticated) {
+            mailSender.setUsername(username);
+            mailSender.setPassword(password);
+        }
 
         Properties props = mailSender.getJavaMailProperties();
         props.put("mail.transport.protocol", "smtp");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.debug", "true");
+        props.put("mail.smtp.auth", String.valueOf(authenticated));
+        props.put("mail.smtp.starttls.enable", String.valueOf(authenticated));
+        props.put("mail.smtp.connectiontimeout", String.valueOf(timeoutMillis));
+        props.put("mail.smtp.timeout", String.valueOf(timeoutMillis));
+        props.put("mail.smtp.writetimeout", String.valueOf(timeoutMillis));
 
         return mailSender;
     }
 }
-
@@ -0,0 +1,17 @@
+package accommodation.booking.service.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MaintenanceJobConfig {
+
+    // Jobs mostly wait on Postgres and Stripe; parallelism is capped by the job runner
+    @Bean(destroyMethod = "close")
+    public ExecutorService maintenanceJobExecutor() {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("maintenance-job-", 0).factory());
+    }
+}
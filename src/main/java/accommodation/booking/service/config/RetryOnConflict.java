@@ -0,0 +1,30 @@
+package accommodation.booking.service.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+/**
+ * Re-runs a transactional write when it loses an optimistic version check.
+ * The retry advice wraps the transaction, so every attempt reloads fresh state.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = OptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${booking.retry.max-attempts:4}",
+        backoff = @Backoff(
+                delayExpression = "${booking.retry.initial-delay-ms:25}",
+                maxDelayExpression = "${booking.retry.max-delay-ms:400}",
+                multiplierExpression = "${booking.retry.multiplier:2}",
+                random = true),
+        listeners = ConflictRetryListener.BEAN_NAME
+)
+public @interface RetryOnConflict {
+}
@@ -42,6 +42,8 @@ public class SecurityConfig {
                                 antMatcher("/auth/**"),
                                 antMatcher("/swagger-ui/**"),
                                 antMatcher("/v3/api-docs/**"),
+                                antMatcher("/actuator/health"),
+                                antMatcher(HttpMethod.POST, "/payments/webhook"),
                                 antMatcher(HttpMethod.GET, "/accommodations/**"))
                         .permitAll()
                         .anyRequest()
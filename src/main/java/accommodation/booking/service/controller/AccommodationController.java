@@ -1,14 +1,18 @@
 package accommodation.booking.service.controller;
 
+import accommodation.booking.service.dto.accommodation.AccommodationCalendarDto;
 import accommodation.booking.service.dto.accommodation.AccommodationRequestDto;
 import accommodation.booking.service.dto.accommodation.AccommodationResponseDto;
 import accommodation.booking.service.service.accommodation.AccommodationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -44,12 +49,33 @@ public class AccommodationController {
         return accommodationService.getAccommodationById(id);
     }
 
+    @GetMapping("/{id}/calendar")
+    @Operation(summary = "Returns remaining capacity per day of a month for an accommodation.")
+    public AccommodationCalendarDto getAvailabilityCalendar(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+
+        return accommodationService.getAvailabilityCalendar(id, month);
+    }
+
     @GetMapping
     @Operation(summary = "Provides a list of available accommodations.")
     public Page<AccommodationResponseDto> getAllAccommodations(Pageable pageable) {
         return accommodationService.getAllAccommodations(pageable);
     }
 
+    @GetMapping("/available")
+    @Operation(summary = "Lists accommodations with a free unit for the whole date range.")
+    public Page<AccommodationResponseDto> getAvailableAccommodations(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(defaultValue = "1") int guests,
+            Pageable pageable) {
+
+        return accommodationService.getAvailableAccommodations(
+                checkIn, checkOut, guests, pageable);
+    }
+
     @PreAuthorize("hasRole('MANAGER')")
     @PutMapping("/{id}")
     @Operation(summary = "Updates all details of a specific accommodation.")
@@ -67,4 +93,12 @@ public class AccommodationController {
     public void deleteAccommodation(@PathVariable Long id) {
         accommodationService.deleteAccommodation(id);
     }
+
+    @PreAuthorize("hasRole('MANAGER')")
+    @PostMapping("/occupancy/rebuild")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Rebuilds the daily occupancy read model from bookings to repair drift.")
+    public void rebuildOccupancy(@RequestParam(required = false) Long accommodationId) {
+        accommodationService.rebuildOccupancy(accommodationId);
+    }
 }
@@ -1,14 +1,17 @@
 package accommodation.booking.service.controller;
 
+import accommodation.booking.service.dto.booking.BookingBatchRequestDto;
 import accommodation.booking.service.dto.booking.BookingRequestDto;
 import accommodation.booking.service.dto.booking.BookingResponseDto;
 import accommodation.booking.service.dto.booking.BookingStatusPatchRequestDto;
 import accommodation.booking.service.model.Booking;
 import accommodation.booking.service.model.User;
 import accommodation.booking.service.service.booking.BookingService;
+import accommodation.booking.service.service.idempotency.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -22,6 +25,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -32,16 +36,36 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    private static final String CREATE_BOOKING_OPERATION = "create-booking";
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
 
     @PreAuthorize("isAuthenticated()")
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Permits the creation of new accommodation bookings.")
-    public BookingResponseDto createBooking(@RequestBody @Valid BookingRequestDto requestDto,
-                                            Authentication authentication) {
+    public BookingResponseDto createBooking(
+            @RequestBody @Valid BookingRequestDto requestDto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false)
+            String idempotencyKey,
+            Authentication authentication) {
+
+        User currentUser = (User) authentication.getPrincipal();
+        return idempotencyService.executeInTransaction(idempotencyKey, CREATE_BOOKING_OPERATION,
+                currentUser.getId(), requestDto, BookingResponseDto.class,
+                () -> bookingService.createBooking(requestDto, currentUser));
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Creates several bookings at once; either all are made or none.")
+    public List<BookingResponseDto> createBookings(
+            @RequestBody @Valid BookingBatchRequestDto requestDto,
+            Authentication authentication) {
+
         User currentUser = (User) authentication.getPrincipal();
-        return bookingService.createBooking(requestDto, currentUser);
+        return bookingService.createBookings(requestDto, currentUser);
     }
 
     @PreAuthorize("hasRole('MANAGER')")
@@ -3,7 +3,9 @@ package accommodation.booking.service.controller;
 import accommodation.booking.service.dto.payment.PaymentRequestDto;
 import accommodation.booking.service.dto.payment.PaymentResponseDto;
 import accommodation.booking.service.model.User;
+import accommodation.booking.service.service.idempotency.IdempotencyService;
 import accommodation.booking.service.service.payment.PaymentService;
+import accommodation.booking.service.service.payment.StripeWebhookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -26,7 +29,10 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/payments")
 @RequiredArgsConstructor
 public class PaymentController {
+    private static final String INITIATE_PAYMENT_OPERATION = "initiate-payment";
     private final PaymentService paymentService;
+    private final StripeWebhookService stripeWebhookService;
+    private final IdempotencyService idempotencyService;
 
     @PreAuthorize("isAuthenticated()")
     @GetMapping
@@ -51,10 +57,16 @@ public class PaymentController {
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Initiates a payment session for a booking.")
     public PaymentResponseDto initiatePayment(
-            @RequestBody PaymentRequestDto requestDto, Authentication authentication) {
+            @RequestBody PaymentRequestDto requestDto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false)
+            String idempotencyKey,
+            Authentication authentication) {
 
         User currentUser = (User) authentication.getPrincipal();
-        return paymentService.initiatePayment(requestDto.getBookingId(), currentUser);
+        return idempotencyService.execute(idempotencyKey, INITIATE_PAYMENT_OPERATION,
+                currentUser.getId(), requestDto, PaymentResponseDto.class,
+                () -> paymentService.initiatePayment(
+                        requestDto.getBookingId(), currentUser, idempotencyKey));
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -79,4 +91,12 @@ public class PaymentController {
     public String handlePaymentCancel(@RequestParam("session_id") String sessionId) {
         return paymentService.handlePaymentCancel(sessionId);
     }
+
+    @PostMapping("/webhook")
+    @Operation(summary = "Receives checkout session events from Stripe.")
+    public void handleWebhook(
+            @RequestBody String payload,
+            @RequestHeader("Stripe-Signature") String signatureHeader) {
+        stripeWebhookService.receiveEvent(payload, signatureHeader);
+    }
 }
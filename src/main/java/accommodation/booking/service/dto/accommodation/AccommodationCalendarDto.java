@@ -0,0 +1,12 @@
+package accommodation.booking.service.dto.accommodation;
+
+import java.time.YearMonth;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class AccommodationCalendarDto {
+    private Long accommodationId;
+    private YearMonth month;
+    private List<DayAvailabilityDto> days;
+}
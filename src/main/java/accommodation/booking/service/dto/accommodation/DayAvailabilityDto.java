@@ -0,0 +1,10 @@
+package accommodation.booking.service.dto.accommodation;
+
+import java.time.LocalDate;
+import lombok.Data;
+
+@Data
+public class DayAvailabilityDto {
+    private LocalDate date;
+    private int remaining;
+}
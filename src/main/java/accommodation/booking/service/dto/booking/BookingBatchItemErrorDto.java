@@ -0,0 +1,12 @@
+package accommodation.booking.service.dto.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BookingBatchItemErrorDto {
+    private int index;
+    private Long accommodationId;
+    private String reason;
+}
@@ -0,0 +1,15 @@
+package accommodation.booking.service.dto.booking;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BookingBatchRequestDto {
+    @NotEmpty(message = "At least one booking is required.")
+    @Size(max = 100, message = "A batch cannot contain more than 100 bookings.")
+    private List<@Valid @NotNull BookingRequestDto> bookings;
+}
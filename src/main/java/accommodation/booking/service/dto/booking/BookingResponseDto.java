@@ -1,6 +1,7 @@
 package accommodation.booking.service.dto.booking;
 
 import accommodation.booking.service.model.Booking;
+import java.time.Instant;
 import java.time.LocalDate;
 import lombok.Data;
 
@@ -12,5 +13,6 @@ public class BookingResponseDto {
     private LocalDate checkInDate;
     private LocalDate checkOutDate;
     private Booking.BookingStatus status;
+    private Instant expiresAt;
 }
 
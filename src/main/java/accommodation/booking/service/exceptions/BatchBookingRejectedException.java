@@ -0,0 +1,15 @@
+package accommodation.booking.service.exceptions;
+
+import accommodation.booking.service.dto.booking.BookingBatchItemErrorDto;
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class BatchBookingRejectedException extends RuntimeException {
+    private final List<BookingBatchItemErrorDto> errors;
+
+    public BatchBookingRejectedException(String message, List<BookingBatchItemErrorDto> errors) {
+        super(message);
+        this.errors = errors;
+    }
+}
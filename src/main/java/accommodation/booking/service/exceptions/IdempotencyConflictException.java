@@ -0,0 +1,7 @@
+package accommodation.booking.service.exceptions;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package accommodation.booking.service.exceptions;
+
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * Thrown by a notification channel that sent only part of a batch. The failed positions
+ * index the batch handed to the channel; every other notification of it was sent.
+ */
+@Getter
+public class NotificationDeliveryException extends RuntimeException {
+    private final Set<Integer> failedPositions;
+
+    public NotificationDeliveryException(String message, Set<Integer> failedPositions,
+                                         Throwable cause) {
+        super(message, cause);
+        this.failedPositions = failedPositions;
+    }
+}
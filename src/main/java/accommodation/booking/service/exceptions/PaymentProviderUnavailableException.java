@@ -0,0 +1,7 @@
+package accommodation.booking.service.exceptions;
+
+public class PaymentProviderUnavailableException extends RuntimeException {
+    public PaymentProviderUnavailableException(String message) {
+        super(message);
+    }
+}
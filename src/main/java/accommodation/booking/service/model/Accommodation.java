@@ -9,6 +9,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.util.List;
 import lombok.Getter;
@@ -19,7 +20,7 @@ import org.hibernate.annotations.SQLRestriction;
 
 @Entity
 @Table(name = "accommodations")
-@SQLDelete(sql = "UPDATE accommodations SET is_deleted = true WHERE id = ?")
+@SQLDelete(sql = "UPDATE accommodations SET is_deleted = true WHERE id = ? AND version = ?")
 @SQLRestriction(value = "is_deleted = false")
 @Getter
 @Setter
@@ -48,6 +49,10 @@ public class Accommodation {
     @Column(nullable = false)
     private boolean isDeleted = false;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public enum AccommodationType {
         HOUSE,
         APARTMENT,
@@ -0,0 +1,39 @@
+package accommodation.booking.service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "accommodation_daily_occupancy")
+@Getter
+@Setter
+@NoArgsConstructor
+public class AccommodationDailyOccupancy {
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private int bookedCount;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Column(name = "accommodation_id", nullable = false)
+        private Long accommodationId;
+
+        @Column(nullable = false)
+        private LocalDate day;
+    }
+}
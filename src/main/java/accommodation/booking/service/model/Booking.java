@@ -11,6 +11,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.Instant;
 import java.time.LocalDate;
 import lombok.Getter;
 import lombok.Setter;
@@ -19,7 +21,7 @@ import org.hibernate.annotations.SQLRestriction;
 
 @Entity
 @Table(name = "bookings")
-@SQLDelete(sql = "UPDATE bookings SET is_deleted = true WHERE id = ?")
+@SQLDelete(sql = "UPDATE bookings SET is_deleted = true WHERE id = ? AND version = ?")
 @SQLRestriction(value = "is_deleted = false")
 @Getter
 @Setter
@@ -45,9 +47,15 @@ public class Booking {
     @Column(nullable = false)
     private boolean isDeleted = false;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    private Instant expiresAt;
+
     public enum BookingStatus {
         PENDING,
         CONFIRMED,
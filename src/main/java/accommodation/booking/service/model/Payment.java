@@ -12,6 +12,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
+import java.time.Instant;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.SQLDelete;
@@ -35,10 +36,10 @@ public class Payment {
     @JoinColumn(name = "booking_id", nullable = false)
     private Booking booking;
 
-    @Column(nullable = false, length = 500)
+    @Column(length = 500)
     private String sessionUrl;
 
-    @Column(unique = true, nullable = false)
+    @Column(unique = true)
     private String sessionId;
 
     @Column(nullable = false)
@@ -47,7 +48,10 @@ public class Payment {
     @Column(nullable = false)
     private BigDecimal amountToPay;
 
+    private Instant expiresAt;
+
     public enum PaymentStatus {
+        INITIATING,
         PENDING,
         PAID,
         EXPIRED
@@ -0,0 +1,48 @@
+package accommodation.booking.service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "stripe_events")
+@Getter
+@Setter
+@NoArgsConstructor
+public class StripeEvent {
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EventStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant receivedAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public enum EventStatus {
+        RECEIVED,
+        PROCESSING,
+        PROCESSED,
+        FAILED
+    }
+}
@@ -0,0 +1,157 @@
+package accommodation.booking.service.repository;
+
+import accommodation.booking.service.model.AccommodationDailyOccupancy;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AccommodationDailyOccupancyRepository
+        extends JpaRepository<AccommodationDailyOccupancy, AccommodationDailyOccupancy.Key> {
+    List<AccommodationDailyOccupancy> findAllByIdAccommodationIdAndIdDayBetween(
+            Long accommodationId, LocalDate fromDate, LocalDate toDate);
+
+    @Query(value = """
+        SELECT COALESCE(MAX(o.booked_count
+            - CASE WHEN o.day BETWEEN b.check_in_date AND b.check_out_date THEN 1 ELSE 0 END),
+            0) as max_occupancy
+        FROM accommodation_daily_occupancy o
+        LEFT JOIN bookings b
+            ON b.id = :excludeBookingId
+            AND b.accommodation_id = o.accommodation_id
+            AND b.is_deleted = false
+            AND b.status NOT IN (:canceledStatus, :expiredStatus)
+        WHERE o.accommodation_id = :accommodationId
+            AND o.day BETWEEN :checkInDate AND :checkOutDate""",
+            nativeQuery = true)
+    int findMaxOccupancy(
+            @Param("accommodationId") Long accommodationId,
+            @Param("checkInDate") LocalDate checkInDate,
+            @Param("checkOutDate") LocalDate checkOutDate,
+            @Param("excludeBookingId") Long excludeBookingId,
+            @Param("canceledStatus") String canceledStatus,
+            @Param("expiredStatus") String expiredStatus);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO accommodation_daily_occupancy (accommodation_id, day, booked_count)
+        SELECT :accommodationId, CAST(g.day AS DATE), :delta
+        FROM generate_series(:fromDate, :toDate, interval '1 day') g(day)
+        ON CONFLICT (accommodation_id, day)
+        DO UPDATE SET booked_count = accommodation_daily_occupancy.booked_count + :delta""",
+            nativeQuery = true)
+    int addToRange(
+            @Param("accommodationId") Long accommodationId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("delta") int delta);
+
+    // Applies both ranges in one statement, in day order, so a booking moving to earlier dates
+    // locks its days in the same order as releases do
+    @Modifying
+    @Query(value = """
+        INSERT INTO accommodation_daily_occupancy (accommodation_id, day, booked_count)
+        SELECT :accommodationId, changes.day, SUM(changes.delta)
+        FROM (
+            SELECT CAST(g.day AS DATE) AS day, -1 AS delta
+            FROM generate_series(:fromDate, :toDate, interval '1 day') g(day)
+            UNION ALL
+            SELECT CAST(g.day AS DATE), 1
+            FROM generate_series(:newFromDate, :newToDate, interval '1 day') g(day)) changes
+        GROUP BY changes.day
+        HAVING SUM(changes.delta) <> 0
+        ORDER BY changes.day
+        ON CONFLICT (accommodation_id, day)
+        DO UPDATE SET booked_count =
+            accommodation_daily_occupancy.booked_count + EXCLUDED.booked_count""",
+            nativeQuery = true)
+    int moveRange(
+            @Param("accommodationId") Long accommodationId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("newFromDate") LocalDate newFromDate,
+            @Param("newToDate") LocalDate newToDate);
+
+    // Locks in key order, so parallel releases and booking writers cannot deadlock
+    @Query(value = """
+        SELECT COUNT(*)
+        FROM (
+            SELECT 1
+            FROM accommodation_daily_occupancy o
+            WHERE (o.accommodation_id, o.day) IN (
+                SELECT b.accommodation_id, CAST(g.day AS DATE)
+                FROM bookings b
+                CROSS JOIN LATERAL generate_series(
+                    b.check_in_date, b.check_out_date, interval '1 day') g(day)
+                WHERE b.id IN (:bookingIds))
+            ORDER BY o.accommodation_id, o.day
+            FOR UPDATE) locked""",
+            nativeQuery = true)
+    long lockBookingDays(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Modifying
+    @Query(value = """
+        UPDATE accommodation_daily_occupancy o
+        SET booked_count = o.booked_count - released.booking_count
+        FROM (
+            SELECT b.accommodation_id, CAST(g.day AS DATE) AS day, COUNT(*) AS booking_count
+            FROM bookings b
+            CROSS JOIN LATERAL generate_series(
+                b.check_in_date, b.check_out_date, interval '1 day') g(day)
+            WHERE b.id IN (:bookingIds)
+            GROUP BY b.accommodation_id, CAST(g.day AS DATE)) released
+        WHERE o.accommodation_id = released.accommodation_id
+            AND o.day = released.day""",
+            nativeQuery = true)
+    int subtractBookings(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM accommodation_daily_occupancy WHERE accommodation_id = :id",
+            nativeQuery = true)
+    int deleteByAccommodationId(@Param("id") Long accommodationId);
+
+    @Modifying
+    @Query(value = "DELETE FROM accommodation_daily_occupancy", nativeQuery = true)
+    int deleteAllRows();
+
+    // Blocks writers until the transaction ends, readers are not affected
+    @Modifying
+    @Query(value = "LOCK TABLE accommodation_daily_occupancy IN SHARE ROW EXCLUSIVE MODE",
+            nativeQuery = true)
+    void lockTable();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO accommodation_daily_occupancy (accommodation_id, day, booked_count)
+        SELECT b.accommodation_id, CAST(g.day AS DATE), COUNT(*)
+        FROM bookings b
+        CROSS JOIN LATERAL generate_series(
+            b.check_in_date, b.check_out_date, interval '1 day') g(day)
+        WHERE b.accommodation_id = :id
+            AND b.is_deleted = false
+            AND b.status NOT IN (:canceledStatus, :expiredStatus)
+        GROUP BY b.accommodation_id, CAST(g.day AS DATE)""",
+            nativeQuery = true)
+    int rebuildForAccommodation(
+            @Param("id") Long accommodationId,
+            @Param("canceledStatus") String canceledStatus,
+            @Param("expiredStatus") String expiredStatus);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO accommodation_daily_occupancy (accommodation_id, day, booked_count)
+        SELECT b.accommodation_id, CAST(g.day AS DATE), COUNT(*)
+        FROM bookings b
+        CROSS JOIN LATERAL generate_series(
+            b.check_in_date, b.check_out_date, interval '1 day') g(day)
+        WHERE b.is_deleted = false
+            AND b.status NOT IN (:canceledStatus, :expiredStatus)
+        GROUP BY b.accommodation_id, CAST(g.day AS DATE)""",
+            nativeQuery = true)
+    int rebuildAll(
+            @Param("canceledStatus") String canceledStatus,
+            @Param("expiredStatus") String expiredStatus);
+}
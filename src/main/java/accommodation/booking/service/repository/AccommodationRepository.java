@@ -1,11 +1,15 @@
 package accommodation.booking.service.repository;
 
 import accommodation.booking.service.model.Accommodation;
+import java.time.LocalDate;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface AccommodationRepository extends JpaRepository<Accommodation, Long> {
     @EntityGraph(attributePaths = "amenities")
@@ -13,4 +17,40 @@ public interface AccommodationRepository extends JpaRepository<Accommodation, Lo
 
     @EntityGraph(attributePaths = "amenities")
     Page<Accommodation> findAll(Pageable pageable);
+
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:accommodationId)", nativeQuery = true)
+    int acquireBookingLock(@Param("accommodationId") Long accommodationId);
+
+    @Query(value = "SELECT occupancy_version FROM accommodations WHERE id = :accommodationId",
+            nativeQuery = true)
+    long findOccupancyVersion(@Param("accommodationId") Long accommodationId);
+
+    @Modifying
+    @Query(value = """
+        UPDATE accommodations SET occupancy_version = occupancy_version + 1
+        WHERE id = :accommodationId""",
+            nativeQuery = true)
+    int incrementOccupancyVersion(@Param("accommodationId") Long accommodationId);
+
+    // Rows are locked in id order, as single increments are taken at commit
+    @Modifying
+    @Query(value = """
+        UPDATE accommodations SET occupancy_version = occupancy_version + 1
+        WHERE id IN (SELECT id FROM accommodations ORDER BY id FOR UPDATE)""",
+            nativeQuery = true)
+    int incrementAllOccupancyVersions();
+
+    @Query("SELECT a "
+            + "FROM Accommodation a "
+            + "WHERE a.availability >= :units "
+            + "AND NOT EXISTS ("
+            + "SELECT 1 FROM AccommodationDailyOccupancy o "
+            + "WHERE o.id.accommodationId = a.id "
+            + "AND o.id.day BETWEEN :checkInDate AND :checkOutDate "
+            + "AND o.bookedCount > a.availability - :units)")
+    Page<Accommodation> findAvailable(
+            @Param("checkInDate") LocalDate checkInDate,
+            @Param("checkOutDate") LocalDate checkOutDate,
+            @Param("units") int units,
+            Pageable pageable);
 }
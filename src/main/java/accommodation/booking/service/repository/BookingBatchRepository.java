@@ -0,0 +1,8 @@
+package accommodation.booking.service.repository;
+
+import accommodation.booking.service.model.Booking;
+import java.util.List;
+
+public interface BookingBatchRepository {
+    List<Booking> insertAll(List<Booking> bookings);
+}
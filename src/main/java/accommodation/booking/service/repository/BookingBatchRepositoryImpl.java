@@ -0,0 +1,64 @@
+package accommodation.booking.service.repository;
+
+import accommodation.booking.service.model.Booking;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+/**
+ * Bookings use IDENTITY keys, which disables Hibernate insert batching,
+ * so group bookings are written as a single JDBC batch instead.
+ */
+@RequiredArgsConstructor
+public class BookingBatchRepositoryImpl implements BookingBatchRepository {
+    private static final String INSERT_SQL = """
+        INSERT INTO bookings (check_in_date, check_out_date, accommodation_id, user_id,
+            status, expires_at, is_deleted, version)
+        VALUES (?, ?, ?, ?, ?, ?, false, 0)""";
+    private static final String ID_COLUMN = "id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Booking> insertAll(List<Booking> bookings) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] {ID_COLUMN}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i)
+                            throws SQLException {
+                        Booking booking = bookings.get(i);
+                        statement.setDate(1, Date.valueOf(booking.getCheckInDate()));
+                        statement.setDate(2, Date.valueOf(booking.getCheckOutDate()));
+                        statement.setLong(3, booking.getAccommodation().getId());
+                        statement.setLong(4, booking.getUser().getId());
+                        statement.setString(5, booking.getStatus().name());
+                        statement.setTimestamp(6, booking.getExpiresAt() == null
+                                ? null : Timestamp.from(booking.getExpiresAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            booking.setId(((Number) keys.get(i).get(ID_COLUMN)).longValue());
+            booking.setVersion(0L);
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,19 @@
+package accommodation.booking.service.repository;
+
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.job.IdRange;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingExpirationRepository {
+    Optional<IdRange> findDueIdRange(LocalDate checkOutCutoff);
+
+    List<BookingSpan> expireChunk(LocalDate checkOutCutoff, long afterId, long upToId, int limit);
+
+    List<BookingSpan> expireAllById(Collection<Long> bookingIds, LocalDate checkOutCutoff);
+
+    List<BookingSpan> findActiveCheckouts(
+            LocalDate afterDate, long afterId, LocalDate toDate, int limit);
+}
@@ -0,0 +1,103 @@
+package accommodation.booking.service.repository;
+
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.job.IdRange;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Expires bookings in one statement per chunk. The chunk is the next {@code limit} active
+ * bookings by id after {@code afterId}, up to {@code upToId}, so each call costs the same
+ * however many bookings the table holds, and the returned spans carry what the
+ * availability index needs.
+ */
+@RequiredArgsConstructor
+public class BookingExpirationRepositoryImpl implements BookingExpirationRepository {
+    private static final String DUE_ID_RANGE_SQL = """
+        SELECT MIN(id) AS from_id, MAX(id) AS to_id
+        FROM bookings
+        WHERE check_out_date <= ?
+            AND status NOT IN ('CANCELED', 'EXPIRED')
+            AND is_deleted = false""";
+    private static final String EXPIRE_CHUNK_SQL = """
+        WITH chunk AS (
+            SELECT id
+            FROM bookings
+            WHERE id > ? AND id <= ?
+                AND check_out_date <= ?
+                AND status NOT IN ('CANCELED', 'EXPIRED')
+                AND is_deleted = false
+            ORDER BY id
+            LIMIT ?)
+        UPDATE bookings b
+        SET status = 'EXPIRED', expires_at = NULL, version = b.version + 1
+        FROM chunk
+        WHERE b.id = chunk.id
+            AND b.status NOT IN ('CANCELED', 'EXPIRED')
+        RETURNING b.id, b.accommodation_id, b.check_in_date, b.check_out_date""";
+    private static final String EXPIRE_BY_ID_SQL = """
+        UPDATE bookings
+        SET status = 'EXPIRED', expires_at = NULL, version = version + 1
+        WHERE id = ANY(?)
+            AND check_out_date <= ?
+            AND status NOT IN ('CANCELED', 'EXPIRED')
+            AND is_deleted = false
+        RETURNING id, accommodation_id, check_in_date, check_out_date""";
+    private static final String ACTIVE_CHECKOUTS_SQL = """
+        SELECT id, accommodation_id, check_in_date, check_out_date
+        FROM bookings
+        WHERE (check_out_date, id) > (?, ?)
+            AND check_out_date <= ?
+            AND status NOT IN ('CANCELED', 'EXPIRED')
+            AND is_deleted = false
+        ORDER BY check_out_date, id
+        LIMIT ?""";
+    private static final RowMapper<BookingSpan> SPAN_ROW_MAPPER = (resultSet, rowNum) ->
+            new BookingSpan(
+                    resultSet.getLong("id"),
+                    resultSet.getLong("accommodation_id"),
+                    resultSet.getDate("check_in_date").toLocalDate(),
+                    resultSet.getDate("check_out_date").toLocalDate());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<IdRange> findDueIdRange(LocalDate checkOutCutoff) {
+        return jdbcTemplate.query(DUE_ID_RANGE_SQL,
+                (resultSet, rowNum) -> resultSet.getObject("from_id") == null
+                        ? null
+                        : new IdRange(resultSet.getLong("from_id"), resultSet.getLong("to_id")),
+                Date.valueOf(checkOutCutoff))
+                .stream()
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+
+    @Override
+    public List<BookingSpan> expireChunk(
+            LocalDate checkOutCutoff, long afterId, long upToId, int limit) {
+        return jdbcTemplate.query(EXPIRE_CHUNK_SQL, SPAN_ROW_MAPPER,
+                afterId, upToId, Date.valueOf(checkOutCutoff), limit);
+    }
+
+    @Override
+    public List<BookingSpan> expireAllById(
+            Collection<Long> bookingIds, LocalDate checkOutCutoff) {
+        return jdbcTemplate.query(EXPIRE_BY_ID_SQL, SPAN_ROW_MAPPER,
+                bookingIds.toArray(Long[]::new), Date.valueOf(checkOutCutoff));
+    }
+
+    @Override
+    public List<BookingSpan> findActiveCheckouts(
+            LocalDate afterDate, long afterId, LocalDate toDate, int limit) {
+        return jdbcTemplate.query(ACTIVE_CHECKOUTS_SQL, SPAN_ROW_MAPPER,
+                Date.valueOf(afterDate), afterId, Date.valueOf(toDate), limit);
+    }
+}
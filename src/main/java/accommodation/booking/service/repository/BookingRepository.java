@@ -1,7 +1,10 @@
 package accommodation.booking.service.repository;
 
 import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.service.availability.BookingSpan;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -11,7 +14,45 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository
+        extends JpaRepository<Booking, Long>, BookingBatchRepository,
+        BookingExpirationRepository {
+    // Status and deletion filters are literals so the planner can match the partial GiST index
+    String STAY_MAX_OCCUPANCY_SQL = """
+        WITH overlapping AS (
+            SELECT b.stay
+            FROM bookings b
+            WHERE b.accommodation_id = :accommodationId
+                AND b.stay && daterange(
+                    CAST(:checkInDate AS date), CAST(:checkOutDate AS date), '[]')
+                AND b.status NOT IN ('CANCELED', 'EXPIRED')
+                AND b.is_deleted = false
+                AND (CAST(:excludeBookingId AS bigint) IS NULL OR b.id <> :excludeBookingId)
+        )
+        SELECT CAST(COALESCE(MAX(occupancy), 0) AS integer)
+        FROM (
+            SELECT SUM(delta) OVER (ORDER BY day, delta ROWS UNBOUNDED PRECEDING) AS occupancy
+            FROM (
+                SELECT GREATEST(lower(stay), CAST(:checkInDate AS date)) AS day, 1 AS delta
+                FROM overlapping
+                UNION ALL
+                SELECT upper(stay), -1
+                FROM overlapping
+            ) events
+        ) sweep""";
+
+    String STAY_DAILY_OCCUPANCY_SQL = """
+        SELECT CAST(COUNT(b.id) AS integer)
+        FROM generate_series(
+            CAST(:fromDate AS date), CAST(:toDate AS date), interval '1 day') g(day)
+        LEFT JOIN bookings b
+            ON b.accommodation_id = :accommodationId
+            AND b.stay @> CAST(g.day AS date)
+            AND b.status NOT IN ('CANCELED', 'EXPIRED')
+            AND b.is_deleted = false
+        GROUP BY g.day
+        ORDER BY g.day""";
+
     @Query(value = """
         SELECT COALESCE(MAX(daily_count), 0) as max_occupancy
         FROM (
@@ -34,8 +75,29 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("canceledStatus") String canceledStatus,
             @Param("expiredStatus") String expiredStatus);
 
-    List<Booking> findAllByCheckOutDateLessThanEqualAndStatusNot(
-            LocalDate tomorrow, Booking.BookingStatus bookingStatus);
+    @Query(value = STAY_MAX_OCCUPANCY_SQL, nativeQuery = true)
+    int findMaxOccupancyByStay(
+            @Param("accommodationId") Long accommodationId,
+            @Param("checkInDate") LocalDate checkInDate,
+            @Param("checkOutDate") LocalDate checkOutDate,
+            @Param("excludeBookingId") Long excludeBookingId);
+
+    @Query(value = STAY_DAILY_OCCUPANCY_SQL, nativeQuery = true)
+    List<Integer> findDailyOccupancyByStay(
+            @Param("accommodationId") Long accommodationId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT new accommodation.booking.service.service.availability.BookingSpan("
+            + "b.id, b.accommodation.id, b.checkInDate, b.checkOutDate) "
+            + "FROM Booking b "
+            + "WHERE b.accommodation.id = :accommodationId "
+            + "AND b.status NOT IN :inactiveStatuses "
+            + "AND b.checkOutDate >= :fromDate")
+    List<BookingSpan> findActiveSpans(
+            @Param("accommodationId") Long accommodationId,
+            @Param("inactiveStatuses") Collection<Booking.BookingStatus> inactiveStatuses,
+            @Param("fromDate") LocalDate fromDate);
 
     @Query("SELECT b "
             + "FROM Booking b "
@@ -55,4 +117,17 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     @EntityGraph(attributePaths = "accommodation")
     Optional<Booking> findBookingByIdAndUserId(Long bookingId, Long userId);
+
+    @EntityGraph(attributePaths = "accommodation")
+    List<Booking> findAllByStatusAndExpiresAtIsNotNull(Booking.BookingStatus status);
+
+    @Query("SELECT b.id "
+            + "FROM Booking b "
+            + "WHERE b.accommodation.id = :accommodationId "
+            + "AND b.status = :status "
+            + "AND b.expiresAt <= :now")
+    List<Long> findLapsedHoldIds(
+            @Param("accommodationId") Long accommodationId,
+            @Param("status") Booking.BookingStatus status,
+            @Param("now") Instant now);
 }
@@ -0,0 +1,81 @@
+package accommodation.booking.service.repository;
+
+import accommodation.booking.service.model.IdempotencyKey;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    Optional<IdempotencyKey> findByUserIdAndOperationAndKey(
+            Long userId, String operation, String key);
+
+    // A lapsed completed record is taken over. A lapsed IN_PROGRESS one only when asked to,
+    // that is when its request cannot commit any more once the claim has moved on
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO idempotency_keys (user_id, operation, idempotency_key, request_hash,
+            status, created_at, expires_at)
+        VALUES (:userId, :operation, :key, :requestHash, 'IN_PROGRESS', :now, :expiresAt)
+        ON CONFLICT (user_id, operation, idempotency_key) DO UPDATE
+        SET request_hash = EXCLUDED.request_hash, status = 'IN_PROGRESS',
+            response_body = NULL, created_at = EXCLUDED.created_at,
+            expires_at = EXCLUDED.expires_at
+        WHERE idempotency_keys.expires_at <= :now
+            AND (idempotency_keys.status = 'COMPLETED' OR :takeOverInProgress)""",
+            nativeQuery = true)
+    int claim(
+            @Param("userId") Long userId,
+            @Param("operation") String operation,
+            @Param("key") String key,
+            @Param("requestHash") String requestHash,
+            @Param("now") Instant now,
+            @Param("expiresAt") Instant expiresAt,
+            @Param("takeOverInProgress") boolean takeOverInProgress);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = :status, k.responseBody = :responseBody, "
+            + "k.expiresAt = :expiresAt "
+            + "WHERE k.userId = :userId AND k.operation = :operation AND k.key = :key "
+            + "AND k.createdAt = :claimedAt")
+    int complete(
+            @Param("userId") Long userId,
+            @Param("operation") String operation,
+            @Param("key") String key,
+            @Param("claimedAt") Instant claimedAt,
+            @Param("status") IdempotencyKey.KeyStatus status,
+            @Param("responseBody") String responseBody,
+            @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k "
+            + "WHERE k.userId = :userId AND k.operation = :operation AND k.key = :key "
+            + "AND k.createdAt = :claimedAt AND k.status = :status")
+    int release(
+            @Param("userId") Long userId,
+            @Param("operation") String operation,
+            @Param("key") String key,
+            @Param("claimedAt") Instant claimedAt,
+            @Param("status") IdempotencyKey.KeyStatus status);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE FROM idempotency_keys
+        WHERE id IN (
+            SELECT id FROM idempotency_keys
+            WHERE expires_at <= :now
+                AND (status = 'COMPLETED' OR created_at <= :inProgressBefore)
+            LIMIT :limit)""",
+            nativeQuery = true)
+    int deleteExpired(
+            @Param("now") Instant now,
+            @Param("inProgressBefore") Instant inProgressBefore,
+            @Param("limit") int limit);
+}
@@ -0,0 +1,64 @@
+package accommodation.booking.service.repository;
+
+import accommodation.booking.service.model.OutboxNotification;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, Long> {
+    // Must run in the caller's transaction: the row locks are what keep relays apart
+    @Query(value = """
+        SELECT * FROM notification_outbox
+        WHERE delivered_at IS NULL AND failed_at IS NULL
+            AND (claimed_until IS NULL OR claimed_until <= :now)
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED""",
+            nativeQuery = true)
+    List<OutboxNotification> lockUnclaimed(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxNotification n SET n.claimedUntil = :claimedUntil WHERE n.id IN :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("claimedUntil") Instant claimedUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxNotification n SET n.deliveredAt = :deliveredAt WHERE n.id IN :ids")
+    int markDelivered(@Param("ids") List<Long> ids, @Param("deliveredAt") Instant deliveredAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE OutboxNotification n SET n.claimedUntil = :retryAt
+        WHERE n.id IN :ids AND n.deliveredAt IS NULL""")
+    int release(@Param("ids") List<Long> ids, @Param("retryAt") Instant retryAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE OutboxNotification n SET n.claimedUntil = :retryAt, n.attempts = n.attempts + 1
+        WHERE n.id IN :ids AND n.deliveredAt IS NULL""")
+    int retry(@Param("ids") List<Long> ids, @Param("retryAt") Instant retryAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE OutboxNotification n SET n.failedAt = :failedAt
+        WHERE n.id IN :ids AND n.deliveredAt IS NULL AND n.attempts >= :maxAttempts""")
+    int park(@Param("ids") List<Long> ids, @Param("maxAttempts") int maxAttempts,
+             @Param("failedAt") Instant failedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE FROM notification_outbox
+        WHERE id IN (SELECT id FROM notification_outbox
+            WHERE delivered_at IS NOT NULL AND delivered_at <= :before
+            LIMIT :limit)""",
+            nativeQuery = true)
+    int deleteDelivered(@Param("before") Instant before, @Param("limit") int limit);
+}
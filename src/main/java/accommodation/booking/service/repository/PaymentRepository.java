@@ -2,13 +2,16 @@ package accommodation.booking.service.repository;
 
 import accommodation.booking.service.model.Booking;
 import accommodation.booking.service.model.Payment;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Page<Payment> findAllByBookingUserId(Long userId, Pageable pageable);
@@ -21,7 +24,59 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByBookingUserIdAndStatus(Long userId, Payment.PaymentStatus status);
 
-    List<Payment> findAllByStatus(Payment.PaymentStatus paymentStatus);
+    // Status is a literal so the partial index on pending payments applies to every plan
+    @Query(value = """
+        SELECT * FROM payments
+        WHERE status = 'PENDING' AND expires_at < :now AND is_deleted = false
+        ORDER BY expires_at""",
+            nativeQuery = true)
+    List<Payment> findExpiredPending(@Param("now") Instant now);
+
+    @Query(value = """
+        SELECT * FROM payments
+        WHERE status = 'INITIATING' AND expires_at < :now AND is_deleted = false
+        ORDER BY expires_at""",
+            nativeQuery = true)
+    List<Payment> findStaleInitiating(@Param("now") Instant now);
+
+    @Query(value = """
+        SELECT * FROM payments
+        WHERE status = 'PENDING' AND is_deleted = false
+        ORDER BY random()
+        LIMIT :limit""",
+            nativeQuery = true)
+    List<Payment> findPendingSample(@Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :newStatus "
+            + "WHERE p.id = :paymentId AND p.status = :currentStatus")
+    int updateStatus(
+            @Param("paymentId") Long paymentId,
+            @Param("currentStatus") Payment.PaymentStatus currentStatus,
+            @Param("newStatus") Payment.PaymentStatus newStatus);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.expiresAt = :expiresAt "
+            + "WHERE p.id = :paymentId AND p.status = :status")
+    int updateExpiresAt(
+            @Param("paymentId") Long paymentId,
+            @Param("status") Payment.PaymentStatus status,
+            @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :newStatus, p.sessionId = :sessionId, "
+            + "p.sessionUrl = :sessionUrl, p.expiresAt = :expiresAt "
+            + "WHERE p.id = :paymentId AND p.status = :currentStatus")
+    int updateSession(
+            @Param("paymentId") Long paymentId,
+            @Param("currentStatus") Payment.PaymentStatus currentStatus,
+            @Param("newStatus") Payment.PaymentStatus newStatus,
+            @Param("sessionId") String sessionId,
+            @Param("sessionUrl") String sessionUrl,
+            @Param("expiresAt") Instant expiresAt);
 
     @Query("SELECT p "
             + "FROM Payment p "
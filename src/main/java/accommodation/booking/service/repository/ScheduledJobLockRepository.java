@@ -0,0 +1,44 @@
+package accommodation.booking.service.repository;
+
+import accommodation.booking.service.model.ScheduledJobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Leases on scheduled jobs, so that only one replica runs a job at a time. Lease times
+ * come from the database clock, which keeps replicas with skewed clocks consistent.
+ */
+public interface ScheduledJobLockRepository extends JpaRepository<ScheduledJobLock, String> {
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO scheduled_job_lock (job_name, locked_by, locked_at, locked_until)
+        VALUES (:jobName, :owner, now(), now() + make_interval(secs => :leaseSeconds))
+        ON CONFLICT (job_name) DO UPDATE
+        SET locked_by = EXCLUDED.locked_by,
+            locked_at = EXCLUDED.locked_at,
+            locked_until = EXCLUDED.locked_until
+        WHERE scheduled_job_lock.locked_until <= now()
+            OR scheduled_job_lock.locked_by = EXCLUDED.locked_by""",
+            nativeQuery = true)
+    int tryAcquire(
+            @Param("jobName") String jobName,
+            @Param("owner") String owner,
+            @Param("leaseSeconds") double leaseSeconds);
+
+    // Keeps the lease until at least locked_at + holdSeconds so other replicas skip this run
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE scheduled_job_lock
+        SET locked_until = GREATEST(now(), locked_at + make_interval(secs => :holdSeconds))
+        WHERE job_name = :jobName AND locked_by = :owner""",
+            nativeQuery = true)
+    int release(
+            @Param("jobName") String jobName,
+            @Param("owner") String owner,
+            @Param("holdSeconds") double holdSeconds);
+}
@@ -0,0 +1,57 @@
+package accommodation.booking.service.repository;
+
+import accommodation.booking.service.model.StripeEvent;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface StripeEventRepository extends JpaRepository<StripeEvent, String> {
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO stripe_events (id, type, payload, status, attempts, received_at, updated_at)
+        VALUES (:id, :type, :payload, 'RECEIVED', 0, now(), now())
+        ON CONFLICT (id) DO NOTHING""",
+            nativeQuery = true)
+    int insertIfAbsent(
+            @Param("id") String id,
+            @Param("type") String type,
+            @Param("payload") String payload);
+
+    // A PROCESSING claim older than staleSeconds is taken over: its worker is assumed lost
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE stripe_events
+        SET status = 'PROCESSING', attempts = attempts + 1, updated_at = now()
+        WHERE id = :id
+            AND (status = 'RECEIVED'
+                OR (status = 'PROCESSING'
+                    AND updated_at < now() - make_interval(secs => :staleSeconds)))""",
+            nativeQuery = true)
+    int claim(@Param("id") String id, @Param("staleSeconds") double staleSeconds);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StripeEvent e SET e.status = :status, e.updatedAt = :updatedAt "
+            + "WHERE e.id = :id")
+    int updateStatus(
+            @Param("id") String id,
+            @Param("status") StripeEvent.EventStatus status,
+            @Param("updatedAt") Instant updatedAt);
+
+    @Query(value = """
+        SELECT id FROM stripe_events
+        WHERE status IN ('RECEIVED', 'PROCESSING')
+            AND updated_at < now() - make_interval(secs => :ageSeconds)
+        ORDER BY updated_at
+        LIMIT :limit""",
+            nativeQuery = true)
+    List<String> findRedeliverable(
+            @Param("ageSeconds") double ageSeconds,
+            @Param("limit") int limit);
+}
@@ -1,7 +1,10 @@
 package accommodation.booking.service.service.accommodation;
 
+import accommodation.booking.service.dto.accommodation.AccommodationCalendarDto;
 import accommodation.booking.service.dto.accommodation.AccommodationRequestDto;
 import accommodation.booking.service.dto.accommodation.AccommodationResponseDto;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -12,7 +15,14 @@ public interface AccommodationService {
 
     Page<AccommodationResponseDto> getAllAccommodations(Pageable pageable);
 
+    Page<AccommodationResponseDto> getAvailableAccommodations(
+            LocalDate checkInDate, LocalDate checkOutDate, int guests, Pageable pageable);
+
+    AccommodationCalendarDto getAvailabilityCalendar(Long id, YearMonth month);
+
     AccommodationResponseDto updateAccommodation(Long id, AccommodationRequestDto requestDto);
 
     void deleteAccommodation(Long id);
+
+    void rebuildOccupancy(Long accommodationId);
 }
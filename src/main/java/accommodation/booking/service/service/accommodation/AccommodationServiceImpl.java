@@ -1,12 +1,18 @@
 package accommodation.booking.service.service.accommodation;
 
+import accommodation.booking.service.config.RetryOnConflict;
+import accommodation.booking.service.dto.accommodation.AccommodationCalendarDto;
 import accommodation.booking.service.dto.accommodation.AccommodationRequestDto;
 import accommodation.booking.service.dto.accommodation.AccommodationResponseDto;
 import accommodation.booking.service.mapper.AccommodationMapper;
 import accommodation.booking.service.model.Accommodation;
 import accommodation.booking.service.repository.AccommodationRepository;
+import accommodation.booking.service.service.availability.AvailabilityCalendarService;
+import accommodation.booking.service.service.availability.AvailabilityService;
 import accommodation.booking.service.service.notification.AccommodationNotificationUtil;
 import jakarta.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -19,6 +25,8 @@ public class AccommodationServiceImpl implements AccommodationService {
     private final AccommodationRepository accommodationRepository;
     private final AccommodationMapper accommodationMapper;
     private final AccommodationNotificationUtil accommodationNotificationUtil;
+    private final AvailabilityService availabilityService;
+    private final AvailabilityCalendarService availabilityCalendarService;
 
     @Transactional
     @Override
@@ -41,6 +49,29 @@ public class AccommodationServiceImpl implements AccommodationService {
                 .map(accommodationMapper::intoDto);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Page<AccommodationResponseDto> getAvailableAccommodations(
+            LocalDate checkInDate, LocalDate checkOutDate, int guests, Pageable pageable) {
+
+        if (checkInDate.isAfter(checkOutDate)) {
+            throw new IllegalArgumentException("Check-in date must be before check-out date.");
+        }
+        if (guests < 1) {
+            throw new IllegalArgumentException("Number of guests must be at least 1.");
+        }
+        return accommodationRepository.findAvailable(checkInDate, checkOutDate, guests, pageable)
+                .map(accommodationMapper::intoDto);
+    }
+
+    @Override
+    public AccommodationCalendarDto getAvailabilityCalendar(Long id, YearMonth month) {
+        Accommodation accommodation = retrieveAccommodationById(id);
+        return availabilityCalendarService.getCalendar(accommodation, month);
+    }
+
+    @RetryOnConflict
+    @Transactional
     @Override
     public AccommodationResponseDto updateAccommodation(
             Long id, AccommodationRequestDto requestDto) {
@@ -51,11 +82,21 @@ public class AccommodationServiceImpl implements AccommodationService {
         return accommodationMapper.intoDto(updatedAccommodation);
     }
 
+    @RetryOnConflict
+    @Transactional
     @Override
     public void deleteAccommodation(Long id) {
         accommodationRepository.deleteById(id);
     }
 
+    @Override
+    public void rebuildOccupancy(Long accommodationId) {
+        if (accommodationId != null) {
+            retrieveAccommodationById(accommodationId);
+        }
+        availabilityService.rebuild(accommodationId);
+    }
+
     private Accommodation retrieveAccommodationById(Long id) {
         return accommodationRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(
@@ -0,0 +1,57 @@
+package accommodation.booking.service.service.availability;
+
+import accommodation.booking.service.dto.accommodation.AccommodationCalendarDto;
+import accommodation.booking.service.dto.accommodation.DayAvailabilityDto;
+import accommodation.booking.service.model.Accommodation;
+import accommodation.booking.service.model.AccommodationDailyOccupancy;
+import accommodation.booking.service.repository.AccommodationDailyOccupancyRepository;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class AvailabilityCalendarService {
+    private final AccommodationDailyOccupancyRepository occupancyRepository;
+    private final CalendarTileCache calendarTileCache;
+
+    public AccommodationCalendarDto getCalendar(Accommodation accommodation, YearMonth month) {
+        int[] bookedCounts = bookedCountsFor(accommodation.getId(), month);
+        int availability = accommodation.getAvailability() == null
+                ? 0 : accommodation.getAvailability();
+
+        List<DayAvailabilityDto> days = new ArrayList<>(bookedCounts.length);
+        for (int i = 0; i < bookedCounts.length; i++) {
+            DayAvailabilityDto day = new DayAvailabilityDto();
+            day.setDate(month.atDay(i + 1));
+            day.setRemaining(Math.max(availability - bookedCounts[i], 0));
+            days.add(day);
+        }
+        AccommodationCalendarDto calendar = new AccommodationCalendarDto();
+        calendar.setAccommodationId(accommodation.getId());
+        calendar.setMonth(month);
+        calendar.setDays(days);
+        return calendar;
+    }
+
+    private int[] bookedCountsFor(Long accommodationId, YearMonth month) {
+        int[] cached = calendarTileCache.get(accommodationId, month);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = calendarTileCache.generation();
+        LocalDate firstDay = month.atDay(1);
+        int[] bookedCounts = new int[month.lengthOfMonth()];
+        List<AccommodationDailyOccupancy> rows = occupancyRepository
+                .findAllByIdAccommodationIdAndIdDayBetween(
+                        accommodationId, firstDay, month.atEndOfMonth());
+        for (AccommodationDailyOccupancy row : rows) {
+            bookedCounts[row.getId().getDay().getDayOfMonth() - 1] = row.getBookedCount();
+        }
+        calendarTileCache.put(accommodationId, month, bookedCounts, generation);
+        return bookedCounts;
+    }
+}
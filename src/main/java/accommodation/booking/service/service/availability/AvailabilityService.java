@@ -0,0 +1,23 @@
+package accommodation.booking.service.service.availability;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AvailabilityService {
+    int findMaxOccupancy(Long accommodationId,
+                         LocalDate checkInDate,
+                         LocalDate checkOutDate,
+                         Long excludeBookingId);
+
+    int[] findDailyOccupancy(Long accommodationId, LocalDate fromDate, LocalDate toDate);
+
+    void recordChange(BookingSpan previous, BookingSpan current);
+
+    /**
+     * Releases bookings that have already left the active statuses in bulk.
+     * The spans must still match the stored check-in and check-out dates.
+     */
+    void releaseAll(List<BookingSpan> spans);
+
+    void rebuild(Long accommodationId);
+}
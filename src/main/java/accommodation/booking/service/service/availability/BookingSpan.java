@@ -0,0 +1,27 @@
+package accommodation.booking.service.service.availability;
+
+import accommodation.booking.service.model.Booking;
+import java.time.LocalDate;
+
+public record BookingSpan(
+        Long bookingId,
+        Long accommodationId,
+        LocalDate checkInDate,
+        LocalDate checkOutDate) {
+
+    public static BookingSpan of(Booking booking) {
+        if (booking == null || !isCounted(booking.getStatus())) {
+            return null;
+        }
+        return new BookingSpan(
+                booking.getId(),
+                booking.getAccommodation().getId(),
+                booking.getCheckInDate(),
+                booking.getCheckOutDate());
+    }
+
+    public static boolean isCounted(Booking.BookingStatus status) {
+        return status != Booking.BookingStatus.CANCELED
+                && status != Booking.BookingStatus.EXPIRED;
+    }
+}
@@ -0,0 +1,87 @@
+package accommodation.booking.service.service.availability;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Month tiles of booked counts per accommodation. Evictions only reach this node, so every
+ * tile also expires after {@code booking.calendar.cache.ttl-seconds} to bound how long a
+ * change made on another replica can go unseen.
+ */
+@Component
+public class CalendarTileCache {
+    private final int maxTiles;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<TileKey, Tile> tiles;
+    private long generation;
+
+    public CalendarTileCache(@Value("${booking.calendar.cache.max-tiles:10000}") int maxTiles,
+                             @Value("${booking.calendar.cache.ttl-seconds:30}") long ttlSeconds,
+                             Clock clock) {
+        this.maxTiles = maxTiles;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.clock = clock;
+        this.tiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, Tile> eldest) {
+                return size() > CalendarTileCache.this.maxTiles;
+            }
+        };
+    }
+
+    public synchronized int[] get(Long accommodationId, YearMonth month) {
+        TileKey key = new TileKey(accommodationId, month);
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+            return null;
+        }
+        if (clock.millis() >= tile.expiresAt()) {
+            tiles.remove(key);
+            return null;
+        }
+        return tile.bookedCounts();
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(Long accommodationId, YearMonth month,
+                                 int[] bookedCounts, long readGeneration) {
+        // Drop tiles read before a concurrent invalidation so stale counts never get cached
+        if (readGeneration == generation) {
+            tiles.put(new TileKey(accommodationId, month),
+                    new Tile(bookedCounts, clock.millis() + ttlMillis));
+        }
+    }
+
+    public synchronized void evict(Long accommodationId, LocalDate fromDate, LocalDate toDate) {
+        generation++;
+        YearMonth last = YearMonth.from(toDate);
+        for (YearMonth month = YearMonth.from(fromDate);
+                !month.isAfter(last); month = month.plusMonths(1)) {
+            tiles.remove(new TileKey(accommodationId, month));
+        }
+    }
+
+    public synchronized void evictAccommodation(Long accommodationId) {
+        generation++;
+        if (accommodationId == null) {
+            tiles.clear();
+        } else {
+            tiles.keySet().removeIf(key -> key.accommodationId().equals(accommodationId));
+        }
+    }
+
+    private record TileKey(Long accommodationId, YearMonth month) {
+    }
+
+    private record Tile(int[] bookedCounts, long expiresAt) {
+    }
+}
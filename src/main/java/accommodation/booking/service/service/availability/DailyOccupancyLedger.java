@@ -0,0 +1,92 @@
+package accommodation.booking.service.service.availability;
+
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.repository.AccommodationDailyOccupancyRepository;
+import accommodation.booking.service.util.TransactionHooks;
+import java.util.List;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+public class DailyOccupancyLedger {
+    private static final Logger logger = LoggerFactory.getLogger(DailyOccupancyLedger.class);
+    private final AccommodationDailyOccupancyRepository occupancyRepository;
+    private final CalendarTileCache calendarTileCache;
+    private final InventoryLockManager inventoryLockManager;
+
+    @Transactional
+    public void apply(BookingSpan previous, BookingSpan current) {
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        if (previous != null && current != null
+                && previous.accommodationId().equals(current.accommodationId())) {
+            occupancyRepository.moveRange(previous.accommodationId(),
+                    previous.checkInDate(), previous.checkOutDate(),
+                    current.checkInDate(), current.checkOutDate());
+            evictAfterCommit(previous);
+            evictAfterCommit(current);
+            return;
+        }
+        // Rows are locked in key order, as releaseAll does, whichever span comes first
+        if (previous != null && current != null
+                && previous.accommodationId() > current.accommodationId()) {
+            addToRange(current, 1);
+            addToRange(previous, -1);
+            return;
+        }
+        addToRange(previous, -1);
+        addToRange(current, 1);
+    }
+
+    @Transactional
+    public void releaseAll(List<BookingSpan> spans) {
+        if (spans.isEmpty()) {
+            return;
+        }
+        List<Long> bookingIds = spans.stream().map(BookingSpan::bookingId).toList();
+        occupancyRepository.lockBookingDays(bookingIds);
+        occupancyRepository.subtractBookings(bookingIds);
+        spans.forEach(this::evictAfterCommit);
+    }
+
+    @Transactional
+    public void rebuild(Long accommodationId) {
+        String canceled = Booking.BookingStatus.CANCELED.name();
+        String expired = Booking.BookingStatus.EXPIRED.name();
+        int rows;
+        // Booking writers upsert rows while holding the inventory lock, so a concurrent insert
+        // could otherwise land between the delete and the rebuild and break its unique key
+        if (accommodationId == null) {
+            occupancyRepository.lockTable();
+            occupancyRepository.deleteAllRows();
+            rows = occupancyRepository.rebuildAll(canceled, expired);
+        } else {
+            inventoryLockManager.lockForTransaction(accommodationId);
+            occupancyRepository.deleteByAccommodationId(accommodationId);
+            rows = occupancyRepository.rebuildForAccommodation(accommodationId, canceled, expired);
+        }
+        TransactionHooks.afterCommit(
+                () -> calendarTileCache.evictAccommodation(accommodationId));
+        logger.info("Rebuilt daily occupancy for Accommodation ID={}: {} day rows written.",
+                accommodationId == null ? "ALL" : accommodationId, rows);
+    }
+
+    private void addToRange(BookingSpan span, int delta) {
+        if (span != null) {
+            occupancyRepository.addToRange(span.accommodationId(),
+                    span.checkInDate(), span.checkOutDate(), delta);
+            evictAfterCommit(span);
+        }
+    }
+
+    private void evictAfterCommit(BookingSpan span) {
+        TransactionHooks.afterCommit(() -> calendarTileCache.evict(
+                span.accommodationId(), span.checkInDate(), span.checkOutDate()));
+    }
+}
@@ -0,0 +1,48 @@
+package accommodation.booking.service.service.availability;
+
+import accommodation.booking.service.repository.BookingRepository;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "booking.availability.strategy", havingValue = "daterange")
+@RequiredArgsConstructor
+public class DateRangeAvailabilityService implements AvailabilityService {
+    private final BookingRepository bookingRepository;
+    private final DailyOccupancyLedger dailyOccupancyLedger;
+
+    @Override
+    public int findMaxOccupancy(Long accommodationId,
+                                LocalDate checkInDate,
+                                LocalDate checkOutDate,
+                                Long excludeBookingId) {
+        return bookingRepository.findMaxOccupancyByStay(
+                accommodationId, checkInDate, checkOutDate, excludeBookingId);
+    }
+
+    @Override
+    public int[] findDailyOccupancy(Long accommodationId, LocalDate fromDate, LocalDate toDate) {
+        return bookingRepository.findDailyOccupancyByStay(accommodationId, fromDate, toDate)
+                .stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Override
+    public void recordChange(BookingSpan previous, BookingSpan current) {
+        dailyOccupancyLedger.apply(previous, current);
+    }
+
+    @Override
+    public void releaseAll(List<BookingSpan> spans) {
+        dailyOccupancyLedger.releaseAll(spans);
+    }
+
+    @Override
+    public void rebuild(Long accommodationId) {
+        dailyOccupancyLedger.rebuild(accommodationId);
+    }
+}
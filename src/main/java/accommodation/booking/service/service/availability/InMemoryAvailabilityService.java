@@ -0,0 +1,262 @@
+package accommodation.booking.service.service.availability;
+
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.repository.AccommodationRepository;
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.util.TransactionHooks;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Answers from a per-node occupancy tree, without reading the bookings. Every transaction
+ * that changes an accommodation's occupancy increments {@code accommodations.occupancy_version}
+ * as it commits, and each check reads that version first, under the inventory lock. A tree
+ * whose version is behind was changed on another node and is reloaded from the database. A
+ * node applies its own committed changes to the tree, and moves it to the new version, only
+ * if nobody else changed the accommodation in between.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.availability.strategy", havingValue = "in-memory")
+@RequiredArgsConstructor
+public class InMemoryAvailabilityService implements AvailabilityService {
+    private static final List<Booking.BookingStatus> INACTIVE_STATUSES =
+            List.of(Booking.BookingStatus.CANCELED, Booking.BookingStatus.EXPIRED);
+    private static final long UNKNOWN_VERSION = -1;
+    private final BookingRepository bookingRepository;
+    private final AccommodationRepository accommodationRepository;
+    private final DailyOccupancyLedger dailyOccupancyLedger;
+    private final Clock clock;
+    private final Map<Long, AccommodationOccupancy> occupancies = new ConcurrentHashMap<>();
+
+    @Override
+    public int findMaxOccupancy(Long accommodationId,
+                                LocalDate checkInDate,
+                                LocalDate checkOutDate,
+                                Long excludeBookingId) {
+        long version = accommodationRepository.findOccupancyVersion(accommodationId);
+        AccommodationOccupancy occupancy = occupancyOf(accommodationId);
+        occupancy.lock.lock();
+        try {
+            loadIfStale(accommodationId, occupancy, version);
+            return occupancy.maxOccupancy(checkInDate, checkOutDate, excludeBookingId);
+        } finally {
+            occupancy.lock.unlock();
+        }
+    }
+
+    /**
+     * Answers from this node's index alone, without checking that it is current.
+     */
+    public int findIndexedMaxOccupancy(Long accommodationId,
+                                       LocalDate checkInDate,
+                                       LocalDate checkOutDate,
+                                       Long excludeBookingId) {
+        AccommodationOccupancy occupancy = occupancyOf(accommodationId);
+        occupancy.lock.lock();
+        try {
+            if (!occupancy.loaded) {
+                loadIfStale(accommodationId, occupancy, UNKNOWN_VERSION);
+            }
+            return occupancy.maxOccupancy(checkInDate, checkOutDate, excludeBookingId);
+        } finally {
+            occupancy.lock.unlock();
+        }
+    }
+
+    @Override
+    public int[] findDailyOccupancy(Long accommodationId, LocalDate fromDate, LocalDate toDate) {
+        long version = accommodationRepository.findOccupancyVersion(accommodationId);
+        int[] counts = new int[(int) ChronoUnit.DAYS.between(fromDate, toDate) + 1];
+        AccommodationOccupancy occupancy = occupancyOf(accommodationId);
+        occupancy.lock.lock();
+        try {
+            loadIfStale(accommodationId, occupancy, version);
+            for (int i = 0; i < counts.length; i++) {
+                LocalDate day = fromDate.plusDays(i);
+                counts[i] = occupancy.tree.max(day, day);
+            }
+        } finally {
+            occupancy.lock.unlock();
+        }
+        return counts;
+    }
+
+    @Override
+    public void recordChange(BookingSpan previous, BookingSpan current) {
+        if (previous == null && current == null) {
+            return;
+        }
+        dailyOccupancyLedger.apply(previous, current);
+        if (previous != null) {
+            record(previous.accommodationId(), occupancy -> occupancy.remove(previous));
+        }
+        if (current != null) {
+            record(current.accommodationId(), occupancy -> occupancy.put(current));
+        }
+    }
+
+    @Override
+    public void releaseAll(List<BookingSpan> spans) {
+        if (spans.isEmpty()) {
+            return;
+        }
+        dailyOccupancyLedger.releaseAll(spans);
+        spans.forEach(span -> record(span.accommodationId(), occupancy -> occupancy.remove(span)));
+    }
+
+    @Override
+    public void rebuild(Long accommodationId) {
+        dailyOccupancyLedger.rebuild(accommodationId);
+        if (accommodationId != null) {
+            record(accommodationId, AccommodationOccupancy::unload);
+            return;
+        }
+        accommodationRepository.incrementAllOccupancyVersions();
+        TransactionHooks.afterCommit(occupancies::clear);
+    }
+
+    private void record(Long accommodationId, Consumer<AccommodationOccupancy> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accommodationRepository.incrementOccupancyVersion(accommodationId);
+            apply(accommodationId, accommodationRepository.findOccupancyVersion(accommodationId),
+                    List.of(change));
+            return;
+        }
+        PendingChanges pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingChanges.class::isInstance)
+                .map(PendingChanges.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    PendingChanges created = new PendingChanges();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        pending.changes.computeIfAbsent(accommodationId, id -> new ArrayList<>()).add(change);
+    }
+
+    private void apply(Long accommodationId, long version,
+                       List<Consumer<AccommodationOccupancy>> changes) {
+        AccommodationOccupancy occupancy = occupancyOf(accommodationId);
+        occupancy.lock.lock();
+        try {
+            // Anything but the version just before ours means another node got in between
+            if (occupancy.loaded && occupancy.version == version - 1) {
+                changes.forEach(change -> change.accept(occupancy));
+                occupancy.version = version;
+            } else {
+                occupancy.unload();
+            }
+        } finally {
+            occupancy.lock.unlock();
+        }
+    }
+
+    private AccommodationOccupancy occupancyOf(Long accommodationId) {
+        return occupancies.computeIfAbsent(accommodationId, id -> new AccommodationOccupancy());
+    }
+
+    private void loadIfStale(Long accommodationId, AccommodationOccupancy occupancy,
+                             long version) {
+        if (occupancy.loaded && occupancy.version == version) {
+            return;
+        }
+        occupancy.unload();
+        bookingRepository.findActiveSpans(accommodationId, INACTIVE_STATUSES, LocalDate.now(clock))
+                .forEach(occupancy::put);
+        occupancy.version = version;
+        occupancy.loaded = true;
+    }
+
+    /**
+     * Changes recorded by one transaction. The versions are incremented as it commits, in
+     * accommodation id order so that concurrent commits cannot deadlock, and the changes are
+     * applied to the trees once it has committed.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+        private final Map<Long, List<Consumer<AccommodationOccupancy>>> changes = new TreeMap<>();
+        private final Map<Long, Long> versions = new HashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            changes.keySet().forEach(accommodationId -> {
+                accommodationRepository.incrementOccupancyVersion(accommodationId);
+                versions.put(accommodationId,
+                        accommodationRepository.findOccupancyVersion(accommodationId));
+            });
+        }
+
+        @Override
+        public void afterCommit() {
+            changes.forEach((accommodationId, accommodationChanges) ->
+                    apply(accommodationId, versions.get(accommodationId), accommodationChanges));
+        }
+    }
+
+    private static final class AccommodationOccupancy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, BookingSpan> spans = new HashMap<>();
+        private OccupancyTree tree = new OccupancyTree();
+        private long version = UNKNOWN_VERSION;
+        private boolean loaded;
+
+        private void unload() {
+            spans.clear();
+            tree = new OccupancyTree();
+            version = UNKNOWN_VERSION;
+            loaded = false;
+        }
+
+        private void put(BookingSpan span) {
+            BookingSpan replaced = spans.put(span.bookingId(), span);
+            if (replaced != null) {
+                tree.add(replaced.checkInDate(), replaced.checkOutDate(), -1);
+            }
+            tree.add(span.checkInDate(), span.checkOutDate(), 1);
+        }
+
+        private void remove(BookingSpan span) {
+            BookingSpan removed = spans.remove(span.bookingId());
+            if (removed != null) {
+                tree.add(removed.checkInDate(), removed.checkOutDate(), -1);
+            }
+        }
+
+        private int maxOccupancy(LocalDate from, LocalDate to, Long excludeBookingId) {
+            BookingSpan excluded = excludeBookingId == null ? null : spans.get(excludeBookingId);
+            if (excluded == null
+                    || excluded.checkOutDate().isBefore(from)
+                    || excluded.checkInDate().isAfter(to)) {
+                return tree.max(from, to);
+            }
+            // The excluded booking adds exactly one unit on its own days, so the maximum
+            // without it is the larger of the untouched edges and the overlap minus one
+            LocalDate overlapFrom = max(from, excluded.checkInDate());
+            LocalDate overlapTo = min(to, excluded.checkOutDate());
+            int result = tree.max(overlapFrom, overlapTo) - 1;
+            result = Math.max(result, tree.max(from, overlapFrom.minusDays(1)));
+            return Math.max(result, tree.max(overlapTo.plusDays(1), to));
+        }
+
+        private static LocalDate max(LocalDate first, LocalDate second) {
+            return first.isAfter(second) ? first : second;
+        }
+
+        private static LocalDate min(LocalDate first, LocalDate second) {
+            return first.isBefore(second) ? first : second;
+        }
+    }
+}
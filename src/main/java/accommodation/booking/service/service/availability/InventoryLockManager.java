@@ -0,0 +1,75 @@
+package accommodation.booking.service.service.availability;
+
+import accommodation.booking.service.exceptions.AccommodationNotAvailableException;
+import accommodation.booking.service.repository.AccommodationRepository;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class InventoryLockManager {
+    private final AccommodationRepository accommodationRepository;
+    private final long timeoutMillis;
+    private final Map<Long, LockHolder> locks = new ConcurrentHashMap<>();
+
+    public InventoryLockManager(AccommodationRepository accommodationRepository,
+                                @Value("${booking.lock.timeout-ms:5000}") long timeoutMillis) {
+        this.accommodationRepository = accommodationRepository;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void lockForTransaction(Long accommodationId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException(
+                    "Inventory locks can only be taken inside a transaction.");
+        }
+        LockHolder holder = acquireLocal(accommodationId);
+        // Released after commit callbacks, so in-memory indexes are updated before the next writer
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        releaseLocal(accommodationId, holder);
+                    }
+                });
+        accommodationRepository.acquireBookingLock(accommodationId);
+    }
+
+    private LockHolder acquireLocal(Long accommodationId) {
+        LockHolder holder = locks.compute(accommodationId, (id, existing) -> {
+            LockHolder current = existing == null ? new LockHolder() : existing;
+            current.users++;
+            return current;
+        });
+        try {
+            if (holder.lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return holder;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        release(accommodationId);
+        throw new AccommodationNotAvailableException("Accommodation ID " + accommodationId
+                + " is being booked by another request. Please try again.");
+    }
+
+    private void releaseLocal(Long accommodationId, LockHolder holder) {
+        holder.lock.unlock();
+        release(accommodationId);
+    }
+
+    private void release(Long accommodationId) {
+        locks.computeIfPresent(accommodationId,
+                (id, holder) -> --holder.users == 0 ? null : holder);
+    }
+
+    private static final class LockHolder {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+}
@@ -0,0 +1,103 @@
+package accommodation.booking.service.service.availability;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Sparse segment tree over epoch days holding the number of active bookings per day.
+ * Supports range increment and range maximum in O(log n); nodes are allocated lazily,
+ * so memory grows with the number of distinct booking boundaries, not with the calendar.
+ */
+public final class OccupancyTree {
+    private static final int DOMAIN_SIZE = 1 << 17;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NONE = 0;
+
+    private int[] left = new int[INITIAL_CAPACITY];
+    private int[] right = new int[INITIAL_CAPACITY];
+    private int[] max = new int[INITIAL_CAPACITY];
+    private int[] tag = new int[INITIAL_CAPACITY];
+    private int size = 1;
+    private final int root = allocate();
+
+    public void add(LocalDate fromDate, LocalDate toDate, int delta) {
+        addRange(root, 0, DOMAIN_SIZE - 1, toDay(fromDate), toDay(toDate), delta);
+    }
+
+    public int max(LocalDate fromDate, LocalDate toDate) {
+        int from = toDay(fromDate);
+        int to = toDay(toDate);
+        if (from > to) {
+            return 0;
+        }
+        return queryMax(root, 0, DOMAIN_SIZE - 1, from, to);
+    }
+
+    private void addRange(int node, int lo, int hi, int from, int to, int delta) {
+        if (from > hi || to < lo) {
+            return;
+        }
+        if (from <= lo && hi <= to) {
+            tag[node] += delta;
+            max[node] += delta;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (from <= mid) {
+            if (left[node] == NONE) {
+                int child = allocate();
+                left[node] = child;
+            }
+            addRange(left[node], lo, mid, from, to, delta);
+        }
+        if (to > mid) {
+            if (right[node] == NONE) {
+                int child = allocate();
+                right[node] = child;
+            }
+            addRange(right[node], mid + 1, hi, from, to, delta);
+        }
+        max[node] = tag[node] + Math.max(valueOf(left[node]), valueOf(right[node]));
+    }
+
+    private int queryMax(int node, int lo, int hi, int from, int to) {
+        if (node == NONE) {
+            return 0;
+        }
+        if (from <= lo && hi <= to) {
+            return max[node];
+        }
+        int mid = (lo + hi) >>> 1;
+        int result = 0;
+        if (from <= mid) {
+            result = queryMax(left[node], lo, mid, from, to);
+        }
+        if (to > mid) {
+            result = Math.max(result, queryMax(right[node], mid + 1, hi, from, to));
+        }
+        return tag[node] + result;
+    }
+
+    private int valueOf(int node) {
+        return node == NONE ? 0 : max[node];
+    }
+
+    private int allocate() {
+        if (size == left.length) {
+            int capacity = left.length * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            max = Arrays.copyOf(max, capacity);
+            tag = Arrays.copyOf(tag, capacity);
+        }
+        return size++;
+    }
+
+    private static int toDay(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day < 0 || day >= DOMAIN_SIZE) {
+            throw new IllegalArgumentException("Date is outside the supported range: " + date);
+        }
+        return (int) day;
+    }
+}
@@ -0,0 +1,59 @@
+package accommodation.booking.service.service.availability;
+
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.repository.AccommodationDailyOccupancyRepository;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "booking.availability.strategy",
+        havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RepositoryAvailabilityService implements AvailabilityService {
+    private final AccommodationDailyOccupancyRepository occupancyRepository;
+    private final DailyOccupancyLedger dailyOccupancyLedger;
+
+    @Override
+    public int findMaxOccupancy(Long accommodationId,
+                                LocalDate checkInDate,
+                                LocalDate checkOutDate,
+                                Long excludeBookingId) {
+        return occupancyRepository.findMaxOccupancy(
+                accommodationId,
+                checkInDate,
+                checkOutDate,
+                excludeBookingId,
+                Booking.BookingStatus.CANCELED.name(),
+                Booking.BookingStatus.EXPIRED.name()
+        );
+    }
+
+    @Override
+    public int[] findDailyOccupancy(Long accommodationId, LocalDate fromDate, LocalDate toDate) {
+        int[] counts = new int[(int) ChronoUnit.DAYS.between(fromDate, toDate) + 1];
+        occupancyRepository.findAllByIdAccommodationIdAndIdDayBetween(
+                        accommodationId, fromDate, toDate)
+                .forEach(row -> counts[(int) ChronoUnit.DAYS.between(
+                        fromDate, row.getId().getDay())] = row.getBookedCount());
+        return counts;
+    }
+
+    @Override
+    public void recordChange(BookingSpan previous, BookingSpan current) {
+        dailyOccupancyLedger.apply(previous, current);
+    }
+
+    @Override
+    public void releaseAll(List<BookingSpan> spans) {
+        dailyOccupancyLedger.releaseAll(spans);
+    }
+
+    @Override
+    public void rebuild(Long accommodationId) {
+        dailyOccupancyLedger.rebuild(accommodationId);
+    }
+}
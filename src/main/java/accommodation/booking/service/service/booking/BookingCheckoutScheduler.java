@@ -0,0 +1,167 @@
+package accommodation.booking.service.service.booking;
+
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import accommodation.booking.service.util.TimingWheel;
+import accommodation.booking.service.util.TransactionHooks;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Expires each booking at its own checkout time instead of in a nightly batch. Upcoming
+ * checkouts are loaded a window of days at a time into a timing wheel. Deadlines are spread
+ * by booking id over {@code booking.checkout.spread-minutes} after the checkout time, so a
+ * day's checkouts do not hit the database and the notification channel all at once.
+ */
+@Service
+public class BookingCheckoutScheduler {
+    public static final String WINDOW_JOB_NAME = "booking-checkout-window";
+    public static final String EXPIRY_JOB_NAME = "booking-checkout-expiry";
+    private static final Logger logger = LoggerFactory.getLogger(BookingCheckoutScheduler.class);
+    private static final int WHEEL_SIZE = 4096;
+    private static final long SPREAD_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private final BookingRepository bookingRepository;
+    private final BookingExpirationService bookingExpirationService;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final Clock clock;
+    private final LocalTime checkoutTime;
+    private final Duration spread;
+    private final int lookaheadDays;
+    private final int chunkSize;
+    private final Duration windowRefresh;
+    private final TimingWheel<Long> timingWheel;
+    private volatile LocalDate loadedThrough;
+
+    public BookingCheckoutScheduler(BookingRepository bookingRepository,
+                                    BookingExpirationService bookingExpirationService,
+                                    MaintenanceJobRunner maintenanceJobRunner,
+                                    Clock clock,
+                                    @Value("${booking.checkout.time:11:00}") String checkoutTime,
+                                    @Value("${booking.checkout.spread-minutes:60}")
+                                    long spreadMinutes,
+                                    @Value("${booking.checkout.lookahead-days:1}")
+                                    int lookaheadDays,
+                                    @Value("${booking.checkout.tick-ms:1000}") long tickMillis,
+                                    @Value("${booking.expiration.chunk-size:500}") int chunkSize,
+                                    @Value("${booking.checkout.window-refresh-ms:3600000}")
+                                    long windowRefreshMillis) {
+        this.bookingRepository = bookingRepository;
+        this.bookingExpirationService = bookingExpirationService;
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.clock = clock;
+        this.checkoutTime = LocalTime.parse(checkoutTime);
+        this.spread = Duration.ofMinutes(spreadMinutes);
+        this.lookaheadDays = lookaheadDays;
+        this.chunkSize = chunkSize;
+        this.windowRefresh = Duration.ofMillis(windowRefreshMillis);
+        this.timingWheel = new TimingWheel<>(
+                Duration.ofMillis(tickMillis), WHEEL_SIZE, clock.instant());
+    }
+
+    /**
+     * Schedules the checkout of a booking created or changed after its day was loaded.
+     * Later days are picked up when their window is loaded.
+     */
+    public void track(BookingSpan span) {
+        LocalDate loaded = loadedThrough;
+        if (span == null || loaded == null || span.checkOutDate().isAfter(loaded)) {
+            return;
+        }
+        Instant deadline = deadlineOf(span);
+        TransactionHooks.afterCommit(() -> timingWheel.schedule(span.bookingId(), deadline));
+    }
+
+    @Scheduled(fixedRateString = "${booking.checkout.window-refresh-ms:3600000}")
+    public void refreshWindow() {
+        maintenanceJobRunner.launchExclusive(
+                BookingExpirationService.JOB_NAME, windowRefresh, this::sweepOverdue);
+        maintenanceJobRunner.launch(WINDOW_JOB_NAME, this::loadWindow);
+    }
+
+    @Scheduled(fixedRateString = "${booking.checkout.tick-ms:1000}")
+    public void expireDueCheckouts() {
+        if (timingWheel.size() > 0) {
+            maintenanceJobRunner.launch(EXPIRY_JOB_NAME, this::expireDue);
+        }
+    }
+
+    /**
+     * Expires checkouts whose spread has fully passed: missed while the service was down,
+     * booked on another replica after this one loaded its window, or whose expiry failed.
+     * Only one replica sweeps per refresh interval.
+     */
+    public int sweepOverdue() {
+        return bookingExpirationService.expireDueBookings(
+                lastDueCheckOutDate(clock.instant().minus(spread)));
+    }
+
+    /**
+     * Loads the checkouts of the days not yet in the wheel. Every replica keeps its own
+     * wheel; expiring by id is idempotent, so a booking due on several of them expires once.
+     */
+    public int loadWindow() {
+        Instant now = clock.instant();
+        LocalDate dueThrough = lastDueCheckOutDate(now);
+        LocalDate loadFrom = loadedThrough == null ? dueThrough : loadedThrough;
+        LocalDate loadTo = dueThrough.plusDays(lookaheadDays);
+        if (!loadTo.isAfter(loadFrom)) {
+            return 0;
+        }
+        // Published before reading, so bookings created meanwhile are tracked rather than lost
+        loadedThrough = loadTo;
+        int loadedCount = 0;
+        LocalDate afterDate = loadFrom;
+        long afterId = Long.MAX_VALUE;
+        List<BookingSpan> checkouts;
+        do {
+            checkouts = bookingRepository.findActiveCheckouts(
+                    afterDate, afterId, loadTo, chunkSize);
+            for (BookingSpan checkout : checkouts) {
+                timingWheel.schedule(checkout.bookingId(), deadlineOf(checkout));
+                afterDate = checkout.checkOutDate();
+                afterId = checkout.bookingId();
+            }
+            loadedCount += checkouts.size();
+        } while (checkouts.size() == chunkSize);
+        logger.info("Scheduled {} checkouts through {}.", loadedCount, loadTo);
+        return loadedCount;
+    }
+
+    public int expireDue() {
+        Instant now = clock.instant();
+        List<Long> dueIds = timingWheel.advance(now);
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+        LocalDate checkOutCutoff = lastDueCheckOutDate(now);
+        return maintenanceJobRunner.runChunks(EXPIRY_JOB_NAME, dueIds,
+                bookingIds -> bookingExpirationService.expireBookings(bookingIds, checkOutCutoff));
+    }
+
+    private Instant deadlineOf(BookingSpan span) {
+        Instant checkout = span.checkOutDate().atTime(checkoutTime)
+                .atZone(clock.getZone())
+                .toInstant();
+        long spreadMillis = spread.toMillis();
+        return spreadMillis == 0 ? checkout : checkout.plusMillis(
+                Math.floorMod(span.bookingId() * SPREAD_MULTIPLIER, spreadMillis));
+    }
+
+    private LocalDate lastDueCheckOutDate(Instant instant) {
+        LocalDateTime dateTime = LocalDateTime.ofInstant(instant, clock.getZone());
+        return dateTime.toLocalTime().isBefore(checkoutTime)
+                ? dateTime.toLocalDate().minusDays(1)
+                : dateTime.toLocalDate();
+    }
+}
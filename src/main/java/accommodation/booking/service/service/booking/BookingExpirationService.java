@@ -1,57 +1,125 @@
 package accommodation.booking.service.service.booking;
 
-import accommodation.booking.service.model.Accommodation;
-import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.repository.AccommodationRepository;
 import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.service.availability.AvailabilityService;
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.job.IdRange;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
 import accommodation.booking.service.service.notification.AccommodationNotificationUtil;
 import accommodation.booking.service.service.notification.BookingNotificationUtil;
 import java.time.LocalDate;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Expires bookings whose checkout has passed, either by id as their checkouts come due or
+ * as a bulk sweep. The sweep splits the due id range into partitions that run in parallel
+ * on the maintenance pool; each partition is walked in keyset-paginated chunks, and every
+ * chunk is a single UPDATE ... RETURNING committed on its own.
+ */
 @Service
-@RequiredArgsConstructor
 public class BookingExpirationService {
+    public static final String JOB_NAME = "booking-expiration";
     private static final Logger logger = LoggerFactory.getLogger(BookingExpirationService.class);
     private final BookingRepository bookingRepository;
+    private final AccommodationRepository accommodationRepository;
     private final BookingNotificationUtil bookingNotificationUtil;
     private final AccommodationNotificationUtil accommodationNotificationUtil;
+    private final AvailabilityService availabilityService;
+    private final TransactionTemplate transactionTemplate;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final int chunkSize;
 
-    @Transactional
-    @Scheduled(cron = "0 0 0 * * *") // Midnight daily
-    public void checkExpiredBookings() {
-        LocalDate today = LocalDate.now();
-        LocalDate tomorrow = today.plusDays(1);
+    public BookingExpirationService(BookingRepository bookingRepository,
+                                    AccommodationRepository accommodationRepository,
+                                    BookingNotificationUtil bookingNotificationUtil,
+                                    AccommodationNotificationUtil accommodationNotificationUtil,
+                                    AvailabilityService availabilityService,
+                                    TransactionTemplate transactionTemplate,
+                                    MaintenanceJobRunner maintenanceJobRunner,
+                                    @Value("${booking.expiration.chunk-size:500}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.accommodationRepository = accommodationRepository;
+        this.bookingNotificationUtil = bookingNotificationUtil;
+        this.accommodationNotificationUtil = accommodationNotificationUtil;
+        this.availabilityService = availabilityService;
+        this.transactionTemplate = transactionTemplate;
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.chunkSize = chunkSize;
+    }
 
-        List<Booking> expiredBookings =
-                bookingRepository.findAllByCheckOutDateLessThanEqualAndStatusNot(
-                        tomorrow, Booking.BookingStatus.CANCELED
-                );
+    public int expireDueBookings(LocalDate checkOutCutoff) {
+        int expiredCount = bookingRepository.findDueIdRange(checkOutCutoff)
+                .map(range -> maintenanceJobRunner.runPartitions(JOB_NAME,
+                        range.split(maintenanceJobRunner.parallelism()),
+                        partition -> expirePartition(checkOutCutoff, partition)))
+                .orElse(0);
+        if (expiredCount > 0) {
+            logger.info("{} bookings with checkout on or before {} marked as EXPIRED.",
+                    expiredCount, checkOutCutoff);
+        }
+        return expiredCount;
+    }
 
-        if (expiredBookings.isEmpty()) {
-            bookingNotificationUtil.notifyNoExpiredBooking();
-            return;
+    /**
+     * Expires the given bookings if they are still active and their checkout is on or
+     * before the cutoff; bookings that were cancelled or moved in the meantime are skipped.
+     */
+    public int expireBookings(List<Long> bookingIds, LocalDate checkOutCutoff) {
+        List<BookingSpan> expired = transactionTemplate.execute(status -> {
+            List<BookingSpan> spans =
+                    bookingRepository.expireAllById(bookingIds, checkOutCutoff);
+            availabilityService.releaseAll(spans);
+            return spans;
+        });
+        if (!expired.isEmpty()) {
+            notifyExpired(expired);
         }
-        updateBookingStatus(expiredBookings);
+        return expired.size();
     }
 
-    private void updateBookingStatus(List<Booking> bookingList) {
-        for (Booking booking : bookingList) {
+    private int expirePartition(LocalDate checkOutCutoff, IdRange partition) {
+        long lastId = partition.fromId() - 1;
+        int expiredCount = 0;
+        while (true) {
+            List<BookingSpan> expired;
             try {
-                booking.setStatus(Booking.BookingStatus.EXPIRED);
-                bookingRepository.save(booking);
-                logger.info("Booking ID={} marked as EXPIRED.", booking.getId());
-                Accommodation accommodation = booking.getAccommodation();
-                bookingNotificationUtil.notifyBookingExpired(booking, accommodation);
-                accommodationNotificationUtil.notifyAccommodationReleased(accommodation);
+                expired = expireChunk(checkOutCutoff, lastId, partition.toId());
             } catch (Exception e) {
-                logger.error("Failed to process booking ID={} {}", booking.getId(), e.getMessage());
+                logger.error("Failed to expire bookings after ID={} ({} already expired): {}",
+                        lastId, expiredCount, e.getMessage());
+                return expiredCount;
+            }
+            if (expired.isEmpty()) {
+                return expiredCount;
             }
+            expiredCount += expired.size();
+            lastId = expired.stream().mapToLong(BookingSpan::bookingId).max().getAsLong();
+            notifyExpired(expired);
         }
     }
+
+    private List<BookingSpan> expireChunk(LocalDate checkOutCutoff, long afterId, long upToId) {
+        return transactionTemplate.execute(status -> {
+            List<BookingSpan> expired = bookingRepository.expireChunk(
+                    checkOutCutoff, afterId, upToId, chunkSize);
+            availabilityService.releaseAll(expired);
+            return expired;
+        });
+    }
+
+    private void notifyExpired(List<BookingSpan> expired) {
+        bookingNotificationUtil.notifyBookingsExpired(expired);
+        List<Long> accommodationIds = expired.stream()
+                .map(BookingSpan::accommodationId)
+                .distinct()
+                .toList();
+        accommodationRepository.findAllById(accommodationIds)
+                .forEach(accommodationNotificationUtil::notifyAccommodationReleased);
+    }
 }
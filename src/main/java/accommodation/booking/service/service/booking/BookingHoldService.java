@@ -0,0 +1,195 @@
+package accommodation.booking.service.service.booking;
+
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.service.availability.AvailabilityService;
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.availability.InventoryLockManager;
+import accommodation.booking.service.util.TimingWheel;
+import accommodation.booking.service.util.TransactionHooks;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tracks the checkout holds of PENDING bookings. A hold lapses when its {@code expiresAt}
+ * passes before the booking is paid; the unit is then released at once rather than at the
+ * nightly expiration run. While a payment is under way the hold follows its expiry.
+ */
+@Service
+public class BookingHoldService {
+    private static final Logger logger = LoggerFactory.getLogger(BookingHoldService.class);
+    private static final int WHEEL_SIZE = 1024;
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(1);
+    private static final int MAX_BACKOFF_DOUBLINGS = 16;
+    private final BookingRepository bookingRepository;
+    private final AvailabilityService availabilityService;
+    private final InventoryLockManager inventoryLockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Duration holdDuration;
+    private final Duration tick;
+    private final TimingWheel<Hold> timingWheel;
+
+    public BookingHoldService(BookingRepository bookingRepository,
+                              AvailabilityService availabilityService,
+                              InventoryLockManager inventoryLockManager,
+                              TransactionTemplate transactionTemplate,
+                              Clock clock,
+                              @Value("${booking.hold.ttl-minutes:15}") long holdMinutes,
+                              @Value("${booking.hold.tick-ms:1000}") long tickMillis) {
+        this.bookingRepository = bookingRepository;
+        this.availabilityService = availabilityService;
+        this.inventoryLockManager = inventoryLockManager;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.holdDuration = Duration.ofMinutes(holdMinutes);
+        this.tick = Duration.ofMillis(tickMillis);
+        this.timingWheel = new TimingWheel<>(tick, WHEEL_SIZE, clock.instant());
+    }
+
+    public void placeHold(Booking booking) {
+        booking.setExpiresAt(clock.instant().plus(holdDuration));
+    }
+
+    public void track(Booking booking) {
+        Hold hold = new Hold(
+                booking.getId(), booking.getAccommodation().getId(), booking.getExpiresAt(), 0);
+        TransactionHooks.afterCommit(() -> register(hold));
+    }
+
+    /**
+     * Keeps the hold of a booking whose payment is under way until at least {@code until}.
+     * The hold is only dropped once the payment is paid, so a reservation or session that
+     * expires leaves the booking to lapse with it.
+     */
+    public void extendHold(Booking booking, Instant until) {
+        inventoryLockManager.lockForTransaction(booking.getAccommodation().getId());
+        // Read the clock under the lock, so a release committed meanwhile shows as lapsed
+        Instant expiresAt = booking.getExpiresAt();
+        if (booking.getStatus() != Booking.BookingStatus.PENDING
+                || expiresAt != null && !expiresAt.isAfter(clock.instant())) {
+            throw new IllegalStateException("The hold on booking ID " + booking.getId()
+                    + " has expired. Please create a new booking.");
+        }
+        if (expiresAt == null || expiresAt.isBefore(until)) {
+            booking.setExpiresAt(until);
+            track(booking);
+        }
+    }
+
+    /**
+     * Drops the hold of a booking whose payment went through. A hold that lapsed is still
+     * dropped while the booking has not been released yet.
+     */
+    public void clearHold(Booking booking) {
+        Long accommodationId = booking.getAccommodation().getId();
+        inventoryLockManager.lockForTransaction(accommodationId);
+        Instant now = clock.instant();
+        Instant expiresAt = booking.getExpiresAt();
+        if (expiresAt != null && !expiresAt.isAfter(now)
+                && !bookingRepository.findLapsedHoldIds(
+                        accommodationId, Booking.BookingStatus.PENDING, now)
+                .contains(booking.getId())) {
+            logger.error("Booking ID={} was paid after its hold lapsed.", booking.getId());
+            return;
+        }
+        booking.setExpiresAt(null);
+    }
+
+    /**
+     * Releases lapsed holds of the accommodation inside the caller's transaction.
+     * The caller must already hold the accommodation's inventory lock. Holds are looked up in
+     * the database, so those placed through other instances are released too.
+     */
+    public void releaseLapsedHolds(Long accommodationId) {
+        Instant now = clock.instant();
+        List<Long> lapsedIds = bookingRepository.findLapsedHoldIds(
+                accommodationId, Booking.BookingStatus.PENDING, now);
+        if (!lapsedIds.isEmpty()) {
+            release(accommodationId, lapsedIds, now);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${booking.hold.tick-ms:1000}")
+    public void releaseDueHolds() {
+        List<Hold> due = timingWheel.advance(clock.instant());
+        if (due.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Hold>> dueByAccommodation = due.stream()
+                .collect(Collectors.groupingBy(Hold::accommodationId));
+        dueByAccommodation.forEach((accommodationId, holds) -> {
+            List<Long> bookingIds = holds.stream().map(Hold::bookingId).toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    inventoryLockManager.lockForTransaction(accommodationId);
+                    release(accommodationId, bookingIds, clock.instant());
+                });
+            } catch (Exception e) {
+                logger.error("Failed to release holds {} of accommodation ID={}: {}",
+                        bookingIds, accommodationId, e.getMessage());
+                holds.forEach(this::retry);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHolds() {
+        List<Booking> heldBookings = bookingRepository.findAllByStatusAndExpiresAtIsNotNull(
+                Booking.BookingStatus.PENDING);
+        heldBookings.forEach(booking -> register(new Hold(booking.getId(),
+                booking.getAccommodation().getId(), booking.getExpiresAt(), 0)));
+        logger.info("Loaded {} booking holds.", heldBookings.size());
+    }
+
+    private void release(Long accommodationId, List<Long> bookingIds, Instant now) {
+        for (Booking booking : bookingRepository.findAllById(bookingIds)) {
+            // A booking moved to another accommodation is released under that one's lock
+            if (!booking.getAccommodation().getId().equals(accommodationId)
+                    || booking.getStatus() != Booking.BookingStatus.PENDING
+                    || booking.getExpiresAt() == null
+                    || booking.getExpiresAt().isAfter(now)) {
+                continue;
+            }
+            final BookingSpan previousSpan = BookingSpan.of(booking);
+            booking.setStatus(Booking.BookingStatus.EXPIRED);
+            booking.setExpiresAt(null);
+            bookingRepository.save(booking);
+            availabilityService.recordChange(previousSpan, null);
+            logger.info("Hold on booking ID={} lapsed; booking marked as EXPIRED.",
+                    booking.getId());
+        }
+    }
+
+    private void register(Hold hold) {
+        timingWheel.schedule(hold, hold.expiresAt());
+    }
+
+    /**
+     * Puts a hold whose release failed back on the wheel, doubling the delay on each
+     * failure from one tick up to {@link #MAX_RETRY_BACKOFF}.
+     */
+    private void retry(Hold hold) {
+        Duration backoff =
+                tick.multipliedBy(1L << Math.min(hold.attempts(), MAX_BACKOFF_DOUBLINGS));
+        timingWheel.schedule(new Hold(hold.bookingId(), hold.accommodationId(),
+                        hold.expiresAt(), hold.attempts() + 1),
+                clock.instant().plus(backoff.compareTo(MAX_RETRY_BACKOFF) < 0
+                        ? backoff : MAX_RETRY_BACKOFF));
+    }
+
+    private record Hold(Long bookingId, Long accommodationId, Instant expiresAt, int attempts) {
+    }
+}
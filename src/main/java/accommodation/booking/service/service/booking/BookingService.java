@@ -1,16 +1,21 @@
 package accommodation.booking.service.service.booking;
 
+import accommodation.booking.service.dto.booking.BookingBatchRequestDto;
 import accommodation.booking.service.dto.booking.BookingRequestDto;
 import accommodation.booking.service.dto.booking.BookingResponseDto;
 import accommodation.booking.service.dto.booking.BookingStatusPatchRequestDto;
 import accommodation.booking.service.model.Booking;
 import accommodation.booking.service.model.User;
+import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface BookingService {
     BookingResponseDto createBooking(BookingRequestDto requestDto, User currentUser);
 
+    List<BookingResponseDto> createBookings(
+            BookingBatchRequestDto requestDto, User currentUser);
+
     Page<BookingResponseDto> getBookings(
             Long userId, Booking.BookingStatus status, Pageable pageable);
 
@@ -2,10 +2,14 @@ package accommodation.booking.service.service.booking;
 
 import static accommodation.booking.service.model.Role.RoleName.ROLE_MANAGER;
 
+import accommodation.booking.service.config.RetryOnConflict;
+import accommodation.booking.service.dto.booking.BookingBatchItemErrorDto;
+import accommodation.booking.service.dto.booking.BookingBatchRequestDto;
 import accommodation.booking.service.dto.booking.BookingRequestDto;
 import accommodation.booking.service.dto.booking.BookingResponseDto;
 import accommodation.booking.service.dto.booking.BookingStatusPatchRequestDto;
 import accommodation.booking.service.exceptions.AccommodationNotAvailableException;
+import accommodation.booking.service.exceptions.BatchBookingRejectedException;
 import accommodation.booking.service.mapper.BookingMapper;
 import accommodation.booking.service.model.Accommodation;
 import accommodation.booking.service.model.Booking;
@@ -14,11 +18,22 @@ import accommodation.booking.service.model.User;
 import accommodation.booking.service.repository.AccommodationRepository;
 import accommodation.booking.service.repository.BookingRepository;
 import accommodation.booking.service.repository.PaymentRepository;
+import accommodation.booking.service.service.availability.AvailabilityService;
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.availability.InventoryLockManager;
 import accommodation.booking.service.service.notification.AccommodationNotificationUtil;
 import accommodation.booking.service.service.notification.BookingNotificationUtil;
 import jakarta.persistence.EntityNotFoundException;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -35,12 +50,18 @@ public class BookingServiceImpl implements BookingService {
     private final BookingMapper bookingMapper;
     private final BookingNotificationUtil bookingNotificationUtil;
     private final AccommodationNotificationUtil accommodationNotificationUtil;
+    private final AvailabilityService availabilityService;
+    private final InventoryLockManager inventoryLockManager;
+    private final BookingHoldService bookingHoldService;
+    private final BookingCheckoutScheduler bookingCheckoutScheduler;
 
     @Transactional
     @Override
     public BookingResponseDto createBooking(BookingRequestDto requestDto, User currentUser) {
         checkForPendingPayments(currentUser);
         Accommodation accommodation = retrieveAccommodationById(requestDto.getAccommodationId());
+        inventoryLockManager.lockForTransaction(accommodation.getId());
+        bookingHoldService.releaseLapsedHolds(accommodation.getId());
         validateAccommodationAvailability(
                 accommodation,
                 requestDto.getCheckInDate(),
@@ -51,13 +72,79 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingMapper.intoModel(requestDto);
         booking.setUser(currentUser);
         booking.setStatus(Booking.BookingStatus.PENDING);
+        bookingHoldService.placeHold(booking);
 
         Booking savedBooking = bookingRepository.save(booking);
+        bookingHoldService.track(savedBooking);
+        BookingSpan span = BookingSpan.of(savedBooking);
+        availabilityService.recordChange(null, span);
+        bookingCheckoutScheduler.track(span);
         BookingResponseDto responseDto = bookingMapper.intoDto(savedBooking);
-        bookingNotificationUtil.notifyBookingCreated(responseDto);
+        bookingNotificationUtil.notifyBookingCreated(responseDto, currentUser.getEmail());
         return responseDto;
     }
 
+    @Transactional
+    @Override
+    public List<BookingResponseDto> createBookings(
+            BookingBatchRequestDto requestDto, User currentUser) {
+
+        checkForPendingPayments(currentUser);
+        List<BookingRequestDto> items = requestDto.getBookings();
+        Map<Long, Accommodation> accommodations = accommodationRepository.findAllById(
+                        items.stream().map(BookingRequestDto::getAccommodationId).toList())
+                .stream()
+                .collect(Collectors.toMap(Accommodation::getId, Function.identity()));
+
+        List<BookingBatchItemErrorDto> errors = new ArrayList<>();
+        Map<Long, List<Integer>> itemsByAccommodation = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Long accommodationId = items.get(i).getAccommodationId();
+            if (accommodations.containsKey(accommodationId)) {
+                itemsByAccommodation.computeIfAbsent(accommodationId, id -> new ArrayList<>())
+                        .add(i);
+            } else {
+                errors.add(new BookingBatchItemErrorDto(i, accommodationId,
+                        "Accommodation not found with ID: " + accommodationId));
+            }
+        }
+        // Ascending id order keeps concurrent batches from deadlocking on each other
+        itemsByAccommodation.keySet().forEach(accommodationId -> {
+            inventoryLockManager.lockForTransaction(accommodationId);
+            bookingHoldService.releaseLapsedHolds(accommodationId);
+        });
+        itemsByAccommodation.forEach((accommodationId, indexes) -> validateBatchAvailability(
+                accommodations.get(accommodationId), items, indexes, errors));
+        if (!errors.isEmpty()) {
+            errors.sort(Comparator.comparingInt(BookingBatchItemErrorDto::getIndex));
+            throw new BatchBookingRejectedException(
+                    "Batch rejected: " + errors.size() + " of " + items.size()
+                            + " booking(s) cannot be made.", errors);
+        }
+
+        List<Booking> bookings = items.stream()
+                .map(item -> {
+                    Booking booking = bookingMapper.intoModel(item);
+                    booking.setUser(currentUser);
+                    booking.setStatus(Booking.BookingStatus.PENDING);
+                    bookingHoldService.placeHold(booking);
+                    return booking;
+                })
+                .toList();
+        List<Booking> savedBookings = bookingRepository.insertAll(bookings);
+        savedBookings.forEach(booking -> {
+            BookingSpan span = BookingSpan.of(booking);
+            availabilityService.recordChange(null, span);
+            bookingCheckoutScheduler.track(span);
+            bookingHoldService.track(booking);
+        });
+        List<BookingResponseDto> responseDtos = savedBookings.stream()
+                .map(bookingMapper::intoDto)
+                .toList();
+        bookingNotificationUtil.notifyBookingsCreated(responseDtos, currentUser.getEmail());
+        return responseDtos;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<BookingResponseDto> getBookings(
@@ -85,6 +172,7 @@ public class BookingServiceImpl implements BookingService {
         return bookingMapper.intoDto(booking);
     }
 
+    @RetryOnConflict
     @Transactional
     @Override
     public BookingResponseDto updateBookingDetails(
@@ -95,18 +183,38 @@ public class BookingServiceImpl implements BookingService {
             throw new AccessDeniedException(
                     "Access denied: You can only update your own bookings.");
         }
+        Long currentAccommodationId = booking.getAccommodation().getId();
+        Accommodation accommodation =
+                requestDto.getAccommodationId().equals(currentAccommodationId)
+                        ? booking.getAccommodation()
+                        : retrieveAccommodationById(requestDto.getAccommodationId());
+        // A move locks both accommodations, in ascending id order like batch bookings
+        new TreeSet<>(List.of(currentAccommodationId, accommodation.getId()))
+                .forEach(accommodationId -> {
+                    inventoryLockManager.lockForTransaction(accommodationId);
+                    bookingHoldService.releaseLapsedHolds(accommodationId);
+                });
 
         validateAccommodationAvailability(
-                booking.getAccommodation(),
+                accommodation,
                 requestDto.getCheckInDate(),
                 requestDto.getCheckOutDate(),
                 id
         );
+        BookingSpan previousSpan = BookingSpan.of(booking);
         bookingMapper.updateModelFromDto(booking, requestDto);
         Booking updatedBooking = bookingRepository.save(booking);
+        BookingSpan span = BookingSpan.of(updatedBooking);
+        availabilityService.recordChange(previousSpan, span);
+        bookingCheckoutScheduler.track(span);
+        if (updatedBooking.getExpiresAt() != null
+                && !accommodation.getId().equals(currentAccommodationId)) {
+            bookingHoldService.track(updatedBooking);
+        }
         return bookingMapper.intoDto(updatedBooking);
     }
 
+    @RetryOnConflict
     @Transactional
     @Override
     public BookingResponseDto updateBookingStatus(
@@ -115,11 +223,17 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = retrieveBookingById(id);
         Booking.BookingStatus newStatus = patchRequestDto.getStatus();
         preventDuplicateCancellations(booking, newStatus);
+        inventoryLockManager.lockForTransaction(booking.getAccommodation().getId());
+        BookingSpan previousSpan = BookingSpan.of(booking);
         booking.setStatus(newStatus);
         Booking updatedBooking = bookingRepository.save(booking);
+        BookingSpan span = BookingSpan.of(updatedBooking);
+        availabilityService.recordChange(previousSpan, span);
+        bookingCheckoutScheduler.track(span);
         return bookingMapper.intoDto(updatedBooking);
     }
 
+    @RetryOnConflict
     @Transactional
     @Override
     public void cancelBooking(Long id, User currentUser) {
@@ -129,10 +243,14 @@ public class BookingServiceImpl implements BookingService {
                     "Access denied: You can only cancel your own bookings.");
         }
         preventDuplicateCancellations(booking, Booking.BookingStatus.CANCELED);
+        inventoryLockManager.lockForTransaction(booking.getAccommodation().getId());
+        BookingSpan previousSpan = BookingSpan.of(booking);
         booking.setStatus(Booking.BookingStatus.CANCELED);
-        bookingRepository.save(booking);
+        bookingRepository.saveAndFlush(booking);
+        availabilityService.recordChange(previousSpan, null);
         Accommodation accommodation = booking.getAccommodation();
-        bookingNotificationUtil.notifyBookingCancelled(booking, accommodation);
+        bookingNotificationUtil.notifyBookingCancelled(
+                booking, accommodation, currentUser.getEmail());
         accommodationNotificationUtil.notifyAccommodationReleased(accommodation);
     }
 
@@ -151,13 +269,11 @@ public class BookingServiceImpl implements BookingService {
                                                    LocalDate checkInDate,
                                                    LocalDate checkOutDate,
                                                    Long excludeBookingId) {
-        int maxOccupancy = bookingRepository.findMaxOccupancy(
+        int maxOccupancy = availabilityService.findMaxOccupancy(
                 accommodation.getId(),
                 checkInDate,
                 checkOutDate,
-                excludeBookingId,
-                Booking.BookingStatus.CANCELED.name(),
-                Booking.BookingStatus.EXPIRED.name()
+                excludeBookingId
         );
         if (maxOccupancy >= accommodation.getAvailability()) {
             throw new AccommodationNotAvailableException(
@@ -167,6 +283,45 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void validateBatchAvailability(Accommodation accommodation,
+                                           List<BookingRequestDto> items,
+                                           List<Integer> indexes,
+                                           List<BookingBatchItemErrorDto> errors) {
+        LocalDate fromDate = indexes.stream()
+                .map(index -> items.get(index).getCheckInDate())
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDate toDate = indexes.stream()
+                .map(index -> items.get(index).getCheckOutDate())
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+        int[] occupancy = availabilityService.findDailyOccupancy(
+                accommodation.getId(), fromDate, toDate);
+        for (Integer index : indexes) {
+            BookingRequestDto item = items.get(index);
+            for (int day = dayOffset(fromDate, item.getCheckInDate());
+                    day <= dayOffset(fromDate, item.getCheckOutDate()); day++) {
+                occupancy[day]++;
+            }
+        }
+        for (Integer index : indexes) {
+            BookingRequestDto item = items.get(index);
+            for (int day = dayOffset(fromDate, item.getCheckInDate());
+                    day <= dayOffset(fromDate, item.getCheckOutDate()); day++) {
+                if (occupancy[day] > accommodation.getAvailability()) {
+                    errors.add(new BookingBatchItemErrorDto(index, accommodation.getId(),
+                            "Accommodation ID " + accommodation.getId()
+                                    + " has no units left on " + fromDate.plusDays(day) + "."));
+                    break;
+                }
+            }
+        }
+    }
+
+    private int dayOffset(LocalDate fromDate, LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(fromDate, date);
+    }
+
     private void preventDuplicateCancellations(
             Booking booking, Booking.BookingStatus targetStatus) {
 
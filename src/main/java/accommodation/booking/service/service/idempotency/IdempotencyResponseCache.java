@@ -0,0 +1,50 @@
+package accommodation.booking.service.service.idempotency;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recently completed idempotent responses, so a client retrying in quick succession is
+ * answered without a database round trip. Bounded in size, least recently used first out,
+ * and each entry lapses at its own expiry.
+ */
+@Component
+public class IdempotencyResponseCache {
+    private final int maxEntries;
+    private final Map<Key, Entry> entries;
+
+    public IdempotencyResponseCache(
+            @Value("${idempotency.cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > IdempotencyResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized Entry get(Key key, Instant now) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.expiresAt().isAfter(now)) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public synchronized void put(Key key, Entry entry) {
+        if (maxEntries > 0) {
+            entries.put(key, entry);
+        }
+    }
+
+    public record Key(Long userId, String operation, String idempotencyKey) {
+    }
+
+    public record Entry(String requestHash, String responseBody, Instant expiresAt) {
+    }
+}
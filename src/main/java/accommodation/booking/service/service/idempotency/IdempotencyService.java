@@ -0,0 +1,249 @@
+package accommodation.booking.service.service.idempotency;
+
+import accommodation.booking.service.exceptions.IdempotencyConflictException;
+import accommodation.booking.service.model.IdempotencyKey;
+import accommodation.booking.service.repository.IdempotencyKeyRepository;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import accommodation.booking.service.util.TransactionHooks;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Makes creation endpoints safe to retry under an {@code Idempotency-Key} header. The first
+ * request with a key claims it in {@code idempotency_keys} and stores its response; a retry
+ * with the same key and request body gets the stored response replayed instead of running
+ * again. Reusing a key for a different request, or while the first is still running, is a
+ * conflict. A failed request releases its key so that it can be retried. Keys are kept for
+ * {@code idempotency.ttl-hours} and purged afterwards.
+ */
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String PURGE_JOB_NAME = "idempotency-key-purge";
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 200;
+    private static final int PURGE_BATCH_SIZE = 1000;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Duration keyTtl;
+    private final Duration inProgressTimeout;
+    private final Duration cacheTtl;
+    private final Duration purgeInterval;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              IdempotencyResponseCache responseCache,
+                              ObjectMapper objectMapper,
+                              MaintenanceJobRunner maintenanceJobRunner,
+                              TransactionTemplate transactionTemplate,
+                              Clock clock,
+                              @Value("${idempotency.ttl-hours:24}") long keyTtlHours,
+                              @Value("${idempotency.in-progress-timeout-ms:300000}")
+                              long inProgressTimeoutMillis,
+                              @Value("${idempotency.cache.ttl-minutes:10}") long cacheTtlMinutes,
+                              @Value("${idempotency.purge-interval-ms:3600000}")
+                              long purgeIntervalMillis) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.keyTtl = Duration.ofHours(keyTtlHours);
+        this.inProgressTimeout = Duration.ofMillis(inProgressTimeoutMillis);
+        this.cacheTtl = Duration.ofMinutes(cacheTtlMinutes);
+        this.purgeInterval = Duration.ofMillis(purgeIntervalMillis);
+    }
+
+    /**
+     * Runs {@code action} once per key, user and operation. Without a key the action simply
+     * runs. The key is completed after the action returns, so a claim that lapses while its
+     * action runs is not taken over; only a completed key is reused once it has expired.
+     */
+    public <T> T execute(String idempotencyKey, String operation, Long userId, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        return run(idempotencyKey, operation, userId, request, responseType, action, false);
+    }
+
+    /**
+     * Like {@link #execute}, but runs {@code action} in a transaction and completes the key in
+     * that same transaction, so a committed action never leaves its key IN_PROGRESS. A lapsed
+     * claim can then be taken over by a retry: the request that held it can no longer
+     * complete the key, and its transaction is rolled back.
+     */
+    public <T> T executeInTransaction(String idempotencyKey, String operation, Long userId,
+                                      Object request, Class<T> responseType,
+                                      Supplier<T> action) {
+        return run(idempotencyKey, operation, userId, request, responseType, action, true);
+    }
+
+    private <T> T run(String idempotencyKey, String operation, Long userId, Object request,
+                      Class<T> responseType, Supplier<T> action, boolean inTransaction) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        validateKey(idempotencyKey);
+        String requestHash = hash(request);
+        IdempotencyResponseCache.Key cacheKey =
+                new IdempotencyResponseCache.Key(userId, operation, idempotencyKey);
+        // The claim time identifies this claim later on, so keep it at the column's precision
+        Instant claimedAt = clock.instant().truncatedTo(ChronoUnit.MICROS);
+        IdempotencyResponseCache.Entry cached = responseCache.get(cacheKey, claimedAt);
+        if (cached != null) {
+            return replay(cached.requestHash(), requestHash, cached.responseBody(), responseType);
+        }
+        if (idempotencyKeyRepository.claim(userId, operation, idempotencyKey, requestHash,
+                claimedAt, claimedAt.plus(inProgressTimeout), inTransaction) == 0) {
+            return replayStored(cacheKey, requestHash, responseType);
+        }
+        T response;
+        try {
+            response = inTransaction
+                    ? transactionTemplate.execute(status -> complete(
+                            cacheKey, requestHash, claimedAt, action.get(), true))
+                    : action.get();
+        } catch (RuntimeException e) {
+            idempotencyKeyRepository.release(userId, operation, idempotencyKey, claimedAt,
+                    IdempotencyKey.KeyStatus.IN_PROGRESS);
+            throw e;
+        }
+        return inTransaction
+                ? response
+                : complete(cacheKey, requestHash, claimedAt, response, false);
+    }
+
+    @Scheduled(fixedRateString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        maintenanceJobRunner.launchExclusive(PURGE_JOB_NAME, purgeInterval, this::deleteExpired);
+    }
+
+    public int deleteExpired() {
+        Instant now = clock.instant();
+        int deletedCount = 0;
+        int batchCount;
+        do {
+            // A claim whose outcome is unknown is kept as long as a completed key would be
+            batchCount = idempotencyKeyRepository.deleteExpired(
+                    now, now.minus(keyTtl), PURGE_BATCH_SIZE);
+            deletedCount += batchCount;
+        } while (batchCount == PURGE_BATCH_SIZE);
+        if (deletedCount > 0) {
+            logger.info("Purged {} expired idempotency keys.", deletedCount);
+        }
+        return deletedCount;
+    }
+
+    private <T> T complete(IdempotencyResponseCache.Key cacheKey, String requestHash,
+                           Instant claimedAt, T response, boolean required) {
+        String responseBody = serialize(response);
+        Instant completedAt = clock.instant();
+        if (idempotencyKeyRepository.complete(cacheKey.userId(), cacheKey.operation(),
+                cacheKey.idempotencyKey(), claimedAt, IdempotencyKey.KeyStatus.COMPLETED,
+                responseBody, completedAt.plus(keyTtl)) == 0) {
+            if (required) {
+                throw new IdempotencyConflictException("The request with this Idempotency-Key "
+                        + "took too long and was taken over by a retry.");
+            }
+            logger.warn("Idempotency key {} of user ID={} was taken over before {} completed.",
+                    cacheKey.idempotencyKey(), cacheKey.userId(), cacheKey.operation());
+            return response;
+        }
+        TransactionHooks.afterCommit(() -> responseCache.put(cacheKey,
+                new IdempotencyResponseCache.Entry(requestHash, responseBody,
+                        completedAt.plus(min(cacheTtl, keyTtl)))));
+        return response;
+    }
+
+    private <T> T replayStored(IdempotencyResponseCache.Key cacheKey, String requestHash,
+                               Class<T> responseType) {
+        IdempotencyKey stored = idempotencyKeyRepository.findByUserIdAndOperationAndKey(
+                        cacheKey.userId(), cacheKey.operation(), cacheKey.idempotencyKey())
+                .orElseThrow(() -> new IdempotencyConflictException(
+                        "The request with this Idempotency-Key has just finished. "
+                                + "Please retry."));
+        if (stored.getStatus() == IdempotencyKey.KeyStatus.IN_PROGRESS) {
+            if (!stored.getRequestHash().equals(requestHash)) {
+                throw reusedKey();
+            }
+            if (!stored.getExpiresAt().isAfter(clock.instant())) {
+                throw new IdempotencyConflictException("The outcome of the request with this "
+                        + "Idempotency-Key is unknown. Please check its result before retrying "
+                        + "with a new key.");
+            }
+            throw new IdempotencyConflictException(
+                    "A request with this Idempotency-Key is still being processed.");
+        }
+        responseCache.put(cacheKey, new IdempotencyResponseCache.Entry(
+                stored.getRequestHash(), stored.getResponseBody(),
+                min(clock.instant().plus(cacheTtl), stored.getExpiresAt())));
+        return replay(stored.getRequestHash(), requestHash, stored.getResponseBody(),
+                responseType);
+    }
+
+    private <T> T replay(String storedHash, String requestHash, String responseBody,
+                         Class<T> responseType) {
+        if (!storedHash.equals(requestHash)) {
+            throw reusedKey();
+        }
+        try {
+            return objectMapper.readValue(responseBody, responseType);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void validateKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters long.");
+        }
+    }
+
+    private static IdempotencyConflictException reusedKey() {
+        return new IdempotencyConflictException(
+                "This Idempotency-Key was already used for a different request.");
+    }
+
+    private static <T extends Comparable<? super T>> T min(T first, T second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+}
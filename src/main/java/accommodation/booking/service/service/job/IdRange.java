@@ -0,0 +1,24 @@
+package accommodation.booking.service.service.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inclusive range of row ids, split into contiguous partitions so that each partition
+ * can be walked by keyset pagination independently of the others.
+ */
+public record IdRange(long fromId, long toId) {
+
+    public List<IdRange> split(int partitions) {
+        long span = toId - fromId + 1;
+        int count = (int) Math.max(1, Math.min(partitions, span));
+        List<IdRange> ranges = new ArrayList<>(count);
+        long start = fromId;
+        for (int i = 0; i < count; i++) {
+            long end = i == count - 1 ? toId : start + span / count - 1;
+            ranges.add(new IdRange(start, end));
+            start = end + 1;
+        }
+        return ranges;
+    }
+}
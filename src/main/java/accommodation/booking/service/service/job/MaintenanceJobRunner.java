@@ -0,0 +1,212 @@
+package accommodation.booking.service.service.job;
+
+import accommodation.booking.service.repository.ScheduledJobLockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs scheduled maintenance jobs off the scheduler thread, so a slow job cannot delay the
+ * others. A job is skipped while its previous run is still going, and its work can be split
+ * into partitions that run in parallel, at most {@code maintenance.jobs.parallelism} at once.
+ * Exclusive jobs additionally take a lease in {@code scheduled_job_lock}, so only one
+ * replica runs them per interval.
+ */
+@Component
+public class MaintenanceJobRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceJobRunner.class);
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledJobLockRepository jobLockRepository;
+    private final Duration leaseTtl;
+    private final String instanceId;
+    private final int parallelism;
+    private final int chunkSize;
+    private final Semaphore permits;
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+    public MaintenanceJobRunner(@Qualifier("maintenanceJobExecutor") ExecutorService executor,
+                                MeterRegistry meterRegistry,
+                                ScheduledJobLockRepository jobLockRepository,
+                                @Value("${maintenance.jobs.parallelism:4}") int parallelism,
+                                @Value("${maintenance.jobs.chunk-size:100}") int chunkSize,
+                                @Value("${maintenance.jobs.lease-ttl-minutes:30}")
+                                long leaseTtlMinutes) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.jobLockRepository = jobLockRepository;
+        this.leaseTtl = Duration.ofMinutes(leaseTtlMinutes);
+        this.instanceId = resolveInstanceId();
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.permits = new Semaphore(parallelism);
+    }
+
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Starts the job on the maintenance pool. Returns false without running it
+     * when the previous run of the same job has not finished yet.
+     */
+    public boolean launch(String job, IntSupplier task) {
+        return submit(job, null, task);
+    }
+
+    /**
+     * Like {@link #launch(String, IntSupplier)}, but the run only proceeds on the replica
+     * that wins the job's lease. The lease is kept for at least {@code interval} after the
+     * run starts, so replicas whose schedules fire slightly later skip that run too. A
+     * replica that dies mid-run loses the lease after {@code maintenance.jobs.lease-ttl-minutes}.
+     */
+    public boolean launchExclusive(String job, Duration interval, IntSupplier task) {
+        return submit(job, interval, task);
+    }
+
+    private boolean submit(String job, Duration exclusiveInterval, IntSupplier task) {
+        if (!runningJobs.add(job)) {
+            logger.warn("Skipping {}: the previous run is still in progress.", job);
+            meterRegistry.counter("maintenance.job.skipped", "job", job, "reason", "running")
+                    .increment();
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    if (exclusiveInterval == null) {
+                        run(job, task);
+                    } else {
+                        runExclusive(job, exclusiveInterval, task);
+                    }
+                } finally {
+                    runningJobs.remove(job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            runningJobs.remove(job);
+            throw e;
+        }
+        return true;
+    }
+
+    public <T> int runChunks(String job, List<T> items, ToIntFunction<List<T>> worker) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(from + chunkSize, items.size())));
+        }
+        return runPartitions(job, chunks, worker);
+    }
+
+    /**
+     * Processes the partitions in parallel and waits for all of them. A failed partition
+     * is logged and contributes no items; the others still complete.
+     */
+    public <P> int runPartitions(String job, List<P> partitions, ToIntFunction<P> worker) {
+        List<Future<Integer>> futures = new ArrayList<>(partitions.size());
+        for (P partition : partitions) {
+            futures.add(executor.submit(() -> processPartition(worker, partition)));
+        }
+        int items = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                items += futures.get(i).get();
+            } catch (ExecutionException e) {
+                meterRegistry.counter("maintenance.job.partition.failures", "job", job)
+                        .increment();
+                logger.error("Partition {} of {} failed: {}",
+                        partitions.get(i), job, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                break;
+            }
+        }
+        return items;
+    }
+
+    private <P> int processPartition(ToIntFunction<P> worker, P partition)
+            throws InterruptedException {
+        permits.acquire();
+        try {
+            return worker.applyAsInt(partition);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void runExclusive(String job, Duration interval, IntSupplier task) {
+        if (!acquireLease(job, interval.compareTo(leaseTtl) > 0 ? interval : leaseTtl)) {
+            meterRegistry.counter("maintenance.job.skipped", "job", job, "reason", "lease")
+                    .increment();
+            return;
+        }
+        try {
+            run(job, task);
+        } finally {
+            try {
+                jobLockRepository.release(job, instanceId, seconds(interval));
+            } catch (Exception e) {
+                logger.warn("Failed to release the lease on {}: {}", job, e.getMessage());
+            }
+        }
+    }
+
+    private boolean acquireLease(String job, Duration lease) {
+        try {
+            return jobLockRepository.tryAcquire(job, instanceId, seconds(lease)) == 1;
+        } catch (Exception e) {
+            logger.warn("Skipping {}: the lease could not be acquired: {}", job, e.getMessage());
+            return false;
+        }
+    }
+
+    private void run(String job, IntSupplier task) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            int items = task.getAsInt();
+            meterRegistry.counter("maintenance.job.items", "job", job).increment(items);
+            logger.debug("{} finished: {} items processed.", job, items);
+        } catch (Exception e) {
+            outcome = "failure";
+            logger.error("{} failed: {}", job, e.getMessage(), e);
+        } finally {
+            sample.stop(meterRegistry.timer("maintenance.job.duration",
+                    "job", job, "outcome", outcome));
+        }
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+
+    private static String resolveInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown-host";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -15,12 +15,10 @@ public class AccommodationNotificationUtil {
 
     public void notifyAccommodationReleased(Accommodation accommodation) {
         try {
-            notificationService.sendNotification(
-                    String.format("Accommodation released: ID=%d, Type=%s, Location=%s",
-                            accommodation.getId(),
-                            accommodation.getType(),
-                            accommodation.getLocation())
-            );
+            notificationService.sendNotification(new NotificationEvent.AccommodationReleased(
+                    accommodation.getId(),
+                    String.valueOf(accommodation.getType()),
+                    accommodation.getLocation()));
         } catch (Exception e) {
             logger.error(
                     "Error sending accommodation release notification for Accommodation ID: {}",
@@ -30,12 +28,10 @@ public class AccommodationNotificationUtil {
 
     public void notifyAccommodationCreated(Accommodation accommodation) {
         try {
-            notificationService.sendNotification(
-                    String.format("New accommodation created: ID=%d, Type=%s, Location=%s",
-                            accommodation.getId(),
-                            accommodation.getType(),
-                            accommodation.getLocation())
-            );
+            notificationService.sendNotification(new NotificationEvent.AccommodationCreated(
+                    accommodation.getId(),
+                    String.valueOf(accommodation.getType()),
+                    accommodation.getLocation()));
         } catch (Exception e) {
             logger.error(
                     "Error sending accommodation create notification for Accommodation ID: {}",
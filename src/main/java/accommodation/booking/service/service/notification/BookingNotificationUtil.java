@@ -3,6 +3,8 @@ package accommodation.booking.service.service.notification;
 import accommodation.booking.service.dto.booking.BookingResponseDto;
 import accommodation.booking.service.model.Accommodation;
 import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.service.availability.BookingSpan;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,49 +16,52 @@ public class BookingNotificationUtil {
     private static final Logger logger = LoggerFactory.getLogger(BookingNotificationUtil.class);
     private final NotificationService notificationService;
 
-    public void notifyBookingCreated(BookingResponseDto bookingDto) {
+    public void notifyBookingCreated(BookingResponseDto bookingDto, String guestEmail) {
         try {
-            notificationService.sendNotification(
-                    String.format("New booking created: ID=%d, Accommodation=%d, Dates=%s to %s",
-                            bookingDto.getId(), bookingDto.getAccommodationId(),
-                            bookingDto.getCheckInDate(), bookingDto.getCheckOutDate())
-            );
+            notificationService.sendNotification(new NotificationEvent.BookingCreated(
+                    bookingDto.getId(), bookingDto.getAccommodationId(),
+                    bookingDto.getCheckInDate(), bookingDto.getCheckOutDate()), guestEmail);
         } catch (Exception e) {
             logger.error("Failed to send notification for booking ID={}", bookingDto.getId(), e);
         }
     }
 
-    public void notifyBookingCancelled(Booking booking, Accommodation accommodation) {
+    public void notifyBookingsCreated(List<BookingResponseDto> bookingDtos, String guestEmail) {
         try {
+            List<NotificationEvent.BookingLine> lines = bookingDtos.stream()
+                    .map(dto -> new NotificationEvent.BookingLine(dto.getId(),
+                            dto.getAccommodationId(), dto.getCheckInDate(), dto.getCheckOutDate()))
+                    .toList();
             notificationService.sendNotification(
-                    String.format("Booking canceled: ID=%d, Accommodation=%s, Dates=%s to %s",
-                            booking.getId(), accommodation.getId(),
-                            booking.getCheckInDate(), booking.getCheckOutDate())
-            );
+                    new NotificationEvent.BookingsCreated(lines), guestEmail);
         } catch (Exception e) {
-            logger.error("Error sending booking cancellation notification for Booking ID: {}",
-                    booking.getId(), e);
+            logger.error("Failed to send notification for {} batch bookings",
+                    bookingDtos.size(), e);
         }
     }
 
-    public void notifyBookingExpired(Booking booking, Accommodation accommodation) {
+    public void notifyBookingCancelled(Booking booking, Accommodation accommodation,
+                                       String guestEmail) {
         try {
-            notificationService.sendNotification(
-                    String.format("Booking expired: ID=%d, Accommodation=%s, Dates=%s to %s",
-                            booking.getId(), accommodation.getId(),
-                            booking.getCheckInDate(), booking.getCheckOutDate())
-            );
+            notificationService.sendNotification(new NotificationEvent.BookingCancelled(
+                    booking.getId(), accommodation.getId(),
+                    booking.getCheckInDate(), booking.getCheckOutDate()), guestEmail);
         } catch (Exception e) {
-            logger.warn("Failed to send notification for booking ID={}: {}",
-                    booking.getId(), e.getMessage());
+            logger.error("Error sending booking cancellation notification for Booking ID: {}",
+                    booking.getId(), e);
         }
     }
 
-    public void notifyNoExpiredBooking() {
+    public void notifyBookingsExpired(List<BookingSpan> spans) {
         try {
-            notificationService.sendNotification("No expired bookings today!");
+            List<NotificationEvent.BookingLine> lines = spans.stream()
+                    .map(span -> new NotificationEvent.BookingLine(span.bookingId(),
+                            span.accommodationId(), span.checkInDate(), span.checkOutDate()))
+                    .toList();
+            notificationService.sendNotification(new NotificationEvent.BookingsExpired(lines));
         } catch (Exception e) {
-            logger.warn("Failed to send notification.");
+            logger.warn("Failed to send notification for {} expired bookings: {}",
+                    spans.size(), e.getMessage());
         }
     }
 }
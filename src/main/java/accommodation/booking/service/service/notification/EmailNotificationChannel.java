@@ -0,0 +1,92 @@
+package accommodation.booking.service.service.notification;
+
+import accommodation.booking.service.exceptions.NotificationDeliveryException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emails notifications, sending each batch over a single SMTP connection. Guest messages go
+ * to the guest; messages without a recipient go to {@code notification.email.managers}, and
+ * are skipped when that is not set. Messages the server rejects are reported one by one, so
+ * the rest of the batch is not sent again.
+ */
+@Component
+public class EmailNotificationChannel implements NotificationChannel {
+    public static final String NAME = "email";
+    private final JavaMailSender mailSender;
+    private final String from;
+    private final String subject;
+    private final String managersAddress;
+
+    public EmailNotificationChannel(JavaMailSender mailSender,
+                                    @Value("${notification.email.from:no-reply@booking.local}")
+                                    String from,
+                                    @Value("${notification.email.subject:Booking update}")
+                                    String subject,
+                                    @Value("${notification.email.managers:}")
+                                    String managersAddress) {
+        this.mailSender = mailSender;
+        this.from = from;
+        this.subject = subject;
+        this.managersAddress = managersAddress;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void send(List<Notification> batch) {
+        List<Integer> positions = new ArrayList<>(batch.size());
+        List<SimpleMailMessage> messages = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Notification notification = batch.get(i);
+            if (notification.recipient() != null || !managersAddress.isBlank()) {
+                positions.add(i);
+                messages.add(toMessage(notification));
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            mailSender.send(messages.toArray(SimpleMailMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                throw e;
+            }
+            // Keyed by the messages handed over, so equal messages are told apart by identity
+            Set<Object> failedMessages = Collections.newSetFromMap(new IdentityHashMap<>());
+            failedMessages.addAll(e.getFailedMessages().keySet());
+            Set<Integer> failedPositions = new TreeSet<>();
+            for (int i = 0; i < messages.size(); i++) {
+                if (failedMessages.contains(messages.get(i))) {
+                    failedPositions.add(positions.get(i));
+                }
+            }
+            throw new NotificationDeliveryException("Failed to email " + failedPositions.size()
+                    + " of " + messages.size() + " notifications", failedPositions, e);
+        }
+    }
+
+    private SimpleMailMessage toMessage(Notification notification) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(notification.recipient() != null
+                ? notification.recipient()
+                : managersAddress);
+        message.setSubject(subject);
+        message.setText(notification.text());
+        return message;
+    }
+}
@@ -0,0 +1,8 @@
+package accommodation.booking.service.service.notification;
+
+/**
+ * A message for one channel. A null recipient means the channel's default audience, such as
+ * the managers' Telegram chat.
+ */
+public record Notification(String recipient, String text) {
+}
@@ -0,0 +1,15 @@
+package accommodation.booking.service.service.notification;
+
+import accommodation.booking.service.exceptions.NotificationDeliveryException;
+import java.util.List;
+
+public interface NotificationChannel {
+    String name();
+
+    /**
+     * Delivers a batch taken from the channel's queue, ideally in one round trip. A channel
+     * that sent part of the batch throws {@link NotificationDeliveryException} naming the
+     * rest; any other exception means no notification of the batch is known to be sent.
+     */
+    void send(List<Notification> batch);
+}
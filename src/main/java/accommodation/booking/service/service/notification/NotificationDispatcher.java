@@ -0,0 +1,206 @@
+package accommodation.booking.service.service.notification;
+
+import accommodation.booking.service.exceptions.NotificationDeliveryException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Feeds one {@link NotificationChannel} from its own bounded queue and sender threads, so
+ * callers never wait on the channel and a slow channel cannot hold up the others. Each
+ * sender takes up to {@code batchSize} queued events at a time, renders them with the
+ * channel's templates and hands the messages to the channel together. Nothing is dropped:
+ * {@link #offer} refuses an event while the queue is full, and every accepted event is
+ * reported back to its {@link DeliveryListener} as delivered once the channel has sent it,
+ * or as failed when rendering or sending it fails or the dispatcher shuts down first.
+ * Queue depth, queue wait, batch size, send latency and render failures are published as
+ * {@code notification.*} metrics tagged with the channel.
+ */
+public class NotificationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private final NotificationChannel channel;
+    private final NotificationTemplates templates;
+    private final MeterRegistry meterRegistry;
+    private final Duration shutdownTimeout;
+    private final int batchSize;
+    private final BlockingQueue<Queued> queue;
+    private final List<Thread> senders = new ArrayList<>();
+    private final DistributionSummary batchSizes;
+    private volatile boolean running = true;
+
+    public NotificationDispatcher(NotificationChannel channel,
+                                  NotificationTemplates templates,
+                                  MeterRegistry meterRegistry,
+                                  int workers,
+                                  int queueCapacity,
+                                  int batchSize,
+                                  Duration shutdownTimeout) {
+        this.channel = channel;
+        this.templates = templates;
+        this.meterRegistry = meterRegistry;
+        this.shutdownTimeout = shutdownTimeout;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("notification.queue.depth", queue, BlockingQueue::size)
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("notification.batch.size")
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+        for (int i = 0; i < workers; i++) {
+            senders.add(Thread.ofPlatform()
+                    .name("notification-" + channel.name() + "-" + i)
+                    .daemon(true)
+                    .start(this::drain));
+        }
+    }
+
+    /**
+     * Queues an event for sending, or returns {@code false} without queuing it when the
+     * queue is full or the dispatcher is shutting down.
+     */
+    public boolean offer(String recipient, NotificationEvent event, long id,
+                         DeliveryListener listener) {
+        return running
+                && queue.offer(new Queued(recipient, event, id, listener, System.nanoTime()));
+    }
+
+    public void shutdown() throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (Thread sender : senders) {
+            sender.join(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        }
+        List<Queued> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        if (!unsent.isEmpty()) {
+            logger.warn("Returning {} unsent {} notifications for retry on shutdown",
+                    unsent.size(), channel.name());
+            report(unsent, false);
+        }
+    }
+
+    private void drain() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Queued first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<Queued> batch) {
+        long now = System.nanoTime();
+        Timer queueWait = Timer.builder("notification.queue.wait")
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+        batch.forEach(queued -> queueWait.record(now - queued.enqueuedAt(), TimeUnit.NANOSECONDS));
+        batchSizes.record(batch.size());
+        List<Queued> rendered = new ArrayList<>(batch.size());
+        List<Notification> notifications = new ArrayList<>(batch.size());
+        for (Queued queued : batch) {
+            try {
+                notifications.add(new Notification(queued.recipient(),
+                        templates.render(queued.event(), channel.name())));
+                rendered.add(queued);
+            } catch (RuntimeException e) {
+                logger.error("Failed to render {} for {}: {}",
+                        queued.event().getClass().getSimpleName(), channel.name(),
+                        e.getMessage());
+                meterRegistry.counter("notification.failed",
+                        "channel", channel.name(), "reason", "render").increment();
+                report(List.of(queued), false);
+            }
+        }
+        if (notifications.isEmpty()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Set<Integer> failedPositions = Set.of();
+        try {
+            channel.send(notifications);
+        } catch (NotificationDeliveryException e) {
+            failedPositions = e.getFailedPositions();
+            logger.warn("Failed to send {} of {} {} notifications, will retry: {}",
+                    failedPositions.size(), notifications.size(), channel.name(),
+                    e.getMessage());
+        } catch (RuntimeException e) {
+            failedPositions = IntStream.range(0, notifications.size())
+                    .boxed()
+                    .collect(Collectors.toSet());
+            logger.warn("Failed to send {} {} notifications, will retry: {}",
+                    notifications.size(), channel.name(), e.getMessage());
+        } finally {
+            sample.stop(Timer.builder("notification.send.duration")
+                    .tags("channel", channel.name(),
+                            "outcome", failedPositions.isEmpty() ? "success" : "failure")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        // Only the notifications the channel could not send are returned for retry
+        List<Queued> delivered = new ArrayList<>(rendered.size());
+        List<Queued> failed = new ArrayList<>();
+        for (int i = 0; i < rendered.size(); i++) {
+            (failedPositions.contains(i) ? failed : delivered).add(rendered.get(i));
+        }
+        report(delivered, true);
+        report(failed, false);
+    }
+
+    private void report(List<Queued> batch, boolean delivered) {
+        Map<DeliveryListener, List<Long>> idsByListener = batch.stream()
+                .collect(Collectors.groupingBy(Queued::listener,
+                        Collectors.mapping(Queued::id, Collectors.toList())));
+        idsByListener.forEach((listener, ids) -> {
+            try {
+                if (delivered) {
+                    listener.delivered(ids);
+                } else {
+                    listener.failed(ids);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to record the outcome of {} {} notifications: {}",
+                        ids.size(), channel.name(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Learns the outcome of the events it handed to {@link #offer}, by the id given there.
+     * Called from the sender threads.
+     */
+    public interface DeliveryListener {
+        void delivered(List<Long> ids);
+
+        void failed(List<Long> ids);
+    }
+
+    private record Queued(String recipient, NotificationEvent event, long id,
+                          DeliveryListener listener, long enqueuedAt) {
+    }
+}
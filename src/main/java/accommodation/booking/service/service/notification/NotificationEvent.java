@@ -0,0 +1,72 @@
+package accommodation.booking.service.service.notification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * What happened, as plain values captured on the caller's thread. Events are stored in the
+ * outbox as JSON under their simple class name and rendered into text by
+ * {@link NotificationTemplates} on the channel's sender thread.
+ */
+public sealed interface NotificationEvent {
+
+    record AccommodationCreated(Long accommodationId, String type, String location)
+            implements NotificationEvent {
+    }
+
+    record AccommodationReleased(Long accommodationId, String type, String location)
+            implements NotificationEvent {
+    }
+
+    record BookingCreated(Long bookingId, Long accommodationId,
+                          LocalDate checkInDate, LocalDate checkOutDate)
+            implements NotificationEvent {
+    }
+
+    record BookingsCreated(List<BookingLine> bookings) implements NotificationEvent {
+        public int count() {
+            return bookings.size();
+        }
+    }
+
+    record BookingCancelled(Long bookingId, Long accommodationId,
+                            LocalDate checkInDate, LocalDate checkOutDate)
+            implements NotificationEvent {
+    }
+
+    record BookingsExpired(List<BookingLine> bookings) implements NotificationEvent {
+        public int count() {
+            return bookings.size();
+        }
+    }
+
+    record PaymentCreated(Long bookingId, BigDecimal amount, String sessionUrl)
+            implements NotificationEvent {
+    }
+
+    record PaymentSessionRenewed(Long bookingId, BigDecimal amount, String sessionUrl)
+            implements NotificationEvent {
+    }
+
+    record PaymentSessionExpired(Long bookingId, BigDecimal amount)
+            implements NotificationEvent {
+    }
+
+    record PaymentSucceeded(Long bookingId, BigDecimal amount, String sessionId)
+            implements NotificationEvent {
+    }
+
+    record PaymentCancelled(Long bookingId, BigDecimal amount) implements NotificationEvent {
+    }
+
+    /**
+     * Text rendered elsewhere, such as outbox rows written before events were introduced.
+     */
+    record PlainText(String text) implements NotificationEvent {
+    }
+
+    record BookingLine(Long bookingId, Long accommodationId,
+                       LocalDate checkInDate, LocalDate checkOutDate) {
+    }
+}
@@ -0,0 +1,192 @@
+package accommodation.booking.service.service.notification;
+
+import accommodation.booking.service.model.OutboxNotification;
+import accommodation.booking.service.repository.OutboxNotificationRepository;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes {@code notification_outbox} rows in id order. Each batch is claimed with
+ * {@code SKIP LOCKED} for {@code notification.outbox.claim-timeout-ms}, so replicas relay
+ * disjoint batches, and is then handed to the channel queues by the
+ * {@link NotificationRouter}. A row is marked delivered only once its channel has sent it.
+ * A failed send releases the row for another attempt after
+ * {@code notification.outbox.retry-delay-ms}, and a row whose relay dies with it is retried
+ * when its claim lapses. A row that failed {@code notification.outbox.max-attempts} times
+ * is marked failed and kept for inspection, but no longer relayed. When a channel's queue
+ * is full, the rest of the batch is released and relaying stops until the next poll. Rows
+ * are read back into
+ * {@link NotificationEvent}s by their type; rows written as plain text become
+ * {@link NotificationEvent.PlainText}, and rows that cannot be read or are addressed to a
+ * channel that is not routed are logged and skipped. Delivered rows are purged after
+ * {@code notification.outbox.retention-hours}.
+ */
+@Component
+public class NotificationOutboxRelay implements NotificationDispatcher.DeliveryListener {
+    public static final String JOB_NAME = "notification-outbox-relay";
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+    private static final int PURGE_BATCH_SIZE = 1000;
+    private static final Map<String, Class<?>> EVENT_TYPES =
+            Arrays.stream(NotificationEvent.class.getPermittedSubclasses())
+                    .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, type -> type));
+    private final OutboxNotificationRepository outboxRepository;
+    private final NotificationRouter notificationRouter;
+    private final ObjectMapper objectMapper;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int batchSize;
+    private final Duration retention;
+    private final Duration claimTimeout;
+    private final Duration retryDelay;
+    private final int maxAttempts;
+
+    public NotificationOutboxRelay(OutboxNotificationRepository outboxRepository,
+                                   NotificationRouter notificationRouter,
+                                   ObjectMapper objectMapper,
+                                   MaintenanceJobRunner maintenanceJobRunner,
+                                   TransactionTemplate transactionTemplate,
+                                   Clock clock,
+                                   @Value("${notification.outbox.batch-size:100}") int batchSize,
+                                   @Value("${notification.outbox.retention-hours:24}")
+                                   long retentionHours,
+                                   @Value("${notification.outbox.claim-timeout-ms:300000}")
+                                   long claimTimeoutMillis,
+                                   @Value("${notification.outbox.retry-delay-ms:30000}")
+                                   long retryDelayMillis,
+                                   @Value("${notification.outbox.max-attempts:10}")
+                                   int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.notificationRouter = notificationRouter;
+        this.objectMapper = objectMapper;
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofHours(retentionHours);
+        this.claimTimeout = Duration.ofMillis(claimTimeoutMillis);
+        this.retryDelay = Duration.ofMillis(retryDelayMillis);
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        maintenanceJobRunner.launch(JOB_NAME, this::relayPending);
+    }
+
+    public int relayPending() {
+        int relayedCount = 0;
+        List<OutboxNotification> batch;
+        do {
+            batch = transactionTemplate.execute(status -> claimBatch());
+            int routedCount = route(batch);
+            relayedCount += routedCount;
+            if (routedCount < batch.size()) {
+                break;
+            }
+        } while (batch.size() == batchSize);
+        purgeDelivered();
+        return relayedCount;
+    }
+
+    @Override
+    public void delivered(List<Long> ids) {
+        outboxRepository.markDelivered(ids, clock.instant());
+    }
+
+    @Override
+    public void failed(List<Long> ids) {
+        Instant now = clock.instant();
+        outboxRepository.retry(ids, now.plus(retryDelay));
+        int parkedCount = outboxRepository.park(ids, maxAttempts, now);
+        if (parkedCount > 0) {
+            logger.error("Gave up on {} notifications among IDs {} after {} attempts",
+                    parkedCount, ids, maxAttempts);
+        }
+    }
+
+    private List<OutboxNotification> claimBatch() {
+        Instant now = clock.instant();
+        List<OutboxNotification> batch = outboxRepository.lockUnclaimed(now, batchSize);
+        if (!batch.isEmpty()) {
+            outboxRepository.claim(ids(batch), now.plus(claimTimeout));
+        }
+        return batch;
+    }
+
+    private int route(List<OutboxNotification> batch) {
+        List<Long> skippedIds = new ArrayList<>();
+        int routedCount = 0;
+        while (routedCount < batch.size()) {
+            OutboxNotification row = batch.get(routedCount);
+            NotificationEvent event = readEvent(row);
+            if (event == null) {
+                skippedIds.add(row.getId());
+            } else {
+                NotificationRouter.RouteResult result = notificationRouter.route(
+                        row.getChannel(), row.getRecipient(), event, row.getId(), this);
+                if (result == NotificationRouter.RouteResult.QUEUE_FULL) {
+                    logger.debug("Notification queue for {} is full, relaying from ID={} later",
+                            row.getChannel(), row.getId());
+                    outboxRepository.release(
+                            ids(batch.subList(routedCount, batch.size())), clock.instant());
+                    break;
+                }
+                if (result == NotificationRouter.RouteResult.UNROUTED) {
+                    skippedIds.add(row.getId());
+                }
+            }
+            routedCount++;
+        }
+        if (!skippedIds.isEmpty()) {
+            outboxRepository.markDelivered(skippedIds, clock.instant());
+        }
+        return routedCount;
+    }
+
+    private NotificationEvent readEvent(OutboxNotification row) {
+        if (row.getEventType() == null) {
+            return new NotificationEvent.PlainText(row.getMessage());
+        }
+        Class<?> type = EVENT_TYPES.get(row.getEventType());
+        if (type == null) {
+            logger.error("Skipping outbox notification ID={} of unknown type {}",
+                    row.getId(), row.getEventType());
+            return null;
+        }
+        try {
+            return (NotificationEvent) objectMapper.readValue(row.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            logger.error("Skipping unreadable outbox notification ID={}: {}",
+                    row.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<Long> ids(List<OutboxNotification> rows) {
+        return rows.stream().map(OutboxNotification::getId).toList();
+    }
+
+    private void purgeDelivered() {
+        Instant before = clock.instant().minus(retention);
+        int deletedCount;
+        do {
+            deletedCount = outboxRepository.deleteDelivered(before, PURGE_BATCH_SIZE);
+        } while (deletedCount == PURGE_BATCH_SIZE);
+    }
+}
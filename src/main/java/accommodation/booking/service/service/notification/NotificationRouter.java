@@ -0,0 +1,96 @@
+package accommodation.booking.service.service.notification;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Knows which channels each audience is reached on, and gives every channel its own
+ * {@link NotificationDispatcher}. Managers are reached on {@code notification.routes.managers},
+ * guests on {@code notification.routes.guests}. {@link #route} reports whether the event was
+ * queued, refused because the channel's queue is full, or dropped because the channel is
+ * not routed at all.
+ */
+@Component
+public class NotificationRouter {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRouter.class);
+    private final Map<String, NotificationDispatcher> dispatchers = new LinkedHashMap<>();
+    private final List<String> managerChannels;
+    private final List<String> guestChannels;
+    private final MeterRegistry meterRegistry;
+
+    public NotificationRouter(List<NotificationChannel> channels,
+                              NotificationTemplates templates,
+                              MeterRegistry meterRegistry,
+                              @Value("${notification.routes.managers:telegram}")
+                              List<String> managerChannels,
+                              @Value("${notification.routes.guests:email}")
+                              List<String> guestChannels,
+                              @Value("${notification.dispatcher.workers:1}") int workers,
+                              @Value("${notification.dispatcher.queue-capacity:1000}")
+                              int queueCapacity,
+                              @Value("${notification.dispatcher.batch-size:50}") int batchSize,
+                              @Value("${notification.dispatcher.shutdown-timeout-ms:5000}")
+                              long shutdownTimeoutMillis) {
+        this.meterRegistry = meterRegistry;
+        this.managerChannels = List.copyOf(managerChannels);
+        this.guestChannels = List.copyOf(guestChannels);
+        Set<String> routed = new HashSet<>(managerChannels);
+        routed.addAll(guestChannels);
+        for (NotificationChannel channel : channels) {
+            if (routed.remove(channel.name())) {
+                dispatchers.put(channel.name(), new NotificationDispatcher(channel,
+                        templates, meterRegistry, workers, queueCapacity, batchSize,
+                        Duration.ofMillis(shutdownTimeoutMillis)));
+            }
+        }
+        if (!routed.isEmpty()) {
+            throw new IllegalStateException("Unknown notification channels: " + routed);
+        }
+    }
+
+    public List<String> managerChannels() {
+        return managerChannels;
+    }
+
+    public List<String> guestChannels() {
+        return guestChannels;
+    }
+
+    public RouteResult route(String channel, String recipient, NotificationEvent event, long id,
+                             NotificationDispatcher.DeliveryListener listener) {
+        NotificationDispatcher dispatcher = dispatchers.get(channel);
+        if (dispatcher == null) {
+            logger.warn("Dropping {} for channel {}, which is not routed",
+                    event.getClass().getSimpleName(), channel);
+            meterRegistry.counter("notification.dropped", "channel", channel,
+                    "reason", "unrouted").increment();
+            return RouteResult.UNROUTED;
+        }
+        return dispatcher.offer(recipient, event, id, listener)
+                ? RouteResult.QUEUED
+                : RouteResult.QUEUE_FULL;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (NotificationDispatcher dispatcher : dispatchers.values()) {
+            dispatcher.shutdown();
+        }
+    }
+
+    public enum RouteResult {
+        QUEUED,
+        QUEUE_FULL,
+        UNROUTED
+    }
+}
@@ -1,5 +1,10 @@
 package accommodation.booking.service.service.notification;
 
 public interface NotificationService {
-    void sendNotification(String message);
+    void sendNotification(NotificationEvent event);
+
+    /**
+     * Sends the event to the managers, and also to the guest on the guest channels.
+     */
+    void sendNotification(NotificationEvent event, String guestEmail);
 }
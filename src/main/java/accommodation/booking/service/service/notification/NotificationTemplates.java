@@ -0,0 +1,160 @@
+package accommodation.booking.service.service.notification;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renders {@link NotificationEvent}s from the templates in the
+ * {@code notification.templates.bundle} resource bundle. A template is looked up as
+ * {@code <channel>.<Event>} first, then {@code <Event>}, in the locale's bundle before the
+ * base one. It is parsed once per event type, channel and locale into literal text and
+ * pre-resolved accessors, so rendering only appends to a builder.
+ */
+@Component
+public class NotificationTemplates {
+    private static final int AMOUNT_SCALE = 2;
+    private final String bundleName;
+    private final Locale defaultLocale;
+    private final Map<TemplateKey, Template> templates = new ConcurrentHashMap<>();
+
+    public NotificationTemplates(
+            @Value("${notification.templates.bundle:notifications/templates}") String bundleName,
+            @Value("${notification.locale:en}") Locale defaultLocale) {
+        this.bundleName = bundleName;
+        this.defaultLocale = defaultLocale;
+    }
+
+    public String render(NotificationEvent event, String channel) {
+        return render(event, channel, defaultLocale);
+    }
+
+    public String render(NotificationEvent event, String channel, Locale locale) {
+        Template template = templates.computeIfAbsent(
+                new TemplateKey(event.getClass(), channel, locale),
+                key -> compile(key.type(), key.type().getSimpleName(), channel, locale));
+        StringBuilder text = new StringBuilder(template.sizeHint());
+        template.appendTo(text, event);
+        return text.toString();
+    }
+
+    private Template compile(Class<?> type, String name, String channel, Locale locale) {
+        String source = lookup(name, channel, locale);
+        List<Segment> segments = new ArrayList<>();
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf('{', position);
+            int close = open < 0 ? -1 : source.indexOf('}', open);
+            if (close < 0) {
+                segments.add(new Literal(source.substring(position)));
+                break;
+            }
+            if (open > position) {
+                segments.add(new Literal(source.substring(position, open)));
+            }
+            segments.add(field(type, name, source.substring(open + 1, close), channel, locale));
+            position = close + 1;
+        }
+        return new Template(List.copyOf(segments), source.length());
+    }
+
+    private Segment field(Class<?> type, String name, String property, String channel,
+                          Locale locale) {
+        Method accessor;
+        try {
+            accessor = type.getMethod(property);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(
+                    "Template " + name + " refers to unknown value {" + property + "}", e);
+        }
+        if (!List.class.isAssignableFrom(accessor.getReturnType())) {
+            return new Property(accessor);
+        }
+        Type elementType = ((ParameterizedType) accessor.getGenericReturnType())
+                .getActualTypeArguments()[0];
+        return new Items(accessor,
+                compile((Class<?>) elementType, name + "." + property, channel, locale));
+    }
+
+    private String lookup(String name, String channel, Locale locale) {
+        ResourceBundle bundle = ResourceBundle.getBundle(bundleName, locale,
+                ResourceBundle.Control.getNoFallbackControl(
+                        ResourceBundle.Control.FORMAT_PROPERTIES));
+        String channelKey = channel + "." + name;
+        if (bundle.containsKey(channelKey)) {
+            return bundle.getString(channelKey);
+        }
+        try {
+            return bundle.getString(name);
+        } catch (MissingResourceException e) {
+            throw new IllegalStateException("No notification template for " + name, e);
+        }
+    }
+
+    private static Object read(Method accessor, Object target) {
+        try {
+            return accessor.invoke(target);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + accessor.getName(), e);
+        }
+    }
+
+    private record TemplateKey(Class<?> type, String channel, Locale locale) {
+    }
+
+    private record Template(List<Segment> segments, int sizeHint) {
+        void appendTo(StringBuilder text, Object target) {
+            for (Segment segment : segments) {
+                segment.appendTo(text, target);
+            }
+        }
+    }
+
+    private sealed interface Segment {
+        void appendTo(StringBuilder text, Object target);
+    }
+
+    private record Literal(String text) implements Segment {
+        @Override
+        public void appendTo(StringBuilder builder, Object target) {
+            builder.append(text);
+        }
+    }
+
+    private record Property(Method accessor) implements Segment {
+        @Override
+        public void appendTo(StringBuilder text, Object target) {
+            Object value = read(accessor, target);
+            if (value instanceof BigDecimal amount) {
+                text.append(amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).toPlainString());
+            } else {
+                text.append(value);
+            }
+        }
+    }
+
+    private record Items(Method accessor, Template itemTemplate) implements Segment {
+        @Override
+        public void appendTo(StringBuilder text, Object target) {
+            List<?> items = (List<?>) read(accessor, target);
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) {
+                    text.append('\n');
+                }
+                itemTemplate.appendTo(text, items.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package accommodation.booking.service.service.notification;
+
+import accommodation.booking.service.model.OutboxNotification;
+import accommodation.booking.service.repository.OutboxNotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records notification events in {@code notification_outbox} as part of the caller's
+ * transaction, so they are published only if it commits. Each event is stored as JSON under
+ * its type, once per channel its audience is routed to; {@link NotificationOutboxRelay}
+ * sends them.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxNotificationService implements NotificationService {
+    private final OutboxNotificationRepository outboxRepository;
+    private final NotificationRouter notificationRouter;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    @Transactional
+    @Override
+    public void sendNotification(NotificationEvent event) {
+        sendNotification(event, null);
+    }
+
+    @Transactional
+    @Override
+    public void sendNotification(NotificationEvent event, String guestEmail) {
+        String eventType = event.getClass().getSimpleName();
+        String payload = serialize(event);
+        Instant now = clock.instant();
+        List<OutboxNotification> rows = new ArrayList<>();
+        notificationRouter.managerChannels()
+                .forEach(channel -> rows.add(row(channel, null, eventType, payload, now)));
+        if (guestEmail != null) {
+            notificationRouter.guestChannels().forEach(
+                    channel -> rows.add(row(channel, guestEmail, eventType, payload, now)));
+        }
+        outboxRepository.saveAll(rows);
+    }
+
+    private String serialize(NotificationEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static OutboxNotification row(String channel, String recipient, String eventType,
+                                          String payload, Instant createdAt) {
+        OutboxNotification notification = new OutboxNotification();
+        notification.setChannel(channel);
+        notification.setRecipient(recipient);
+        notification.setEventType(eventType);
+        notification.setPayload(payload);
+        notification.setCreatedAt(createdAt);
+        return notification;
+    }
+}
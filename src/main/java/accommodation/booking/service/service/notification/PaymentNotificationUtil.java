@@ -13,12 +13,11 @@ public class PaymentNotificationUtil {
     private static final Logger logger = LoggerFactory.getLogger(PaymentNotificationUtil.class);
     private final NotificationService notificationService;
 
-    public void notifyPaymentCreated(Long bookingId, BigDecimal amountToPay, String url) {
+    public void notifyPaymentCreated(Long bookingId, BigDecimal amountToPay, String url,
+                                     String guestEmail) {
         try {
             notificationService.sendNotification(
-                    String.format("Payment initiated for Booking ID=%d: Amount=$%.2f, URL=%s",
-                            bookingId, amountToPay, url
-            ));
+                    new NotificationEvent.PaymentCreated(bookingId, amountToPay, url), guestEmail);
         } catch (Exception e) {
             logger.error("Error sending payment creation notification for Booking ID={}: {}",
                     bookingId, e.getMessage(), e);
@@ -27,22 +26,20 @@ public class PaymentNotificationUtil {
 
     public void notifyOfExpiredSession(Payment payment) {
         try {
-            notificationService.sendNotification(
-                    String.format("Payment session expired for Booking ID=%d: Amount=$%.2f",
-                            payment.getBooking().getId(), payment.getAmountToPay())
-            );
+            notificationService.sendNotification(new NotificationEvent.PaymentSessionExpired(
+                    payment.getBooking().getId(), payment.getAmountToPay()));
         } catch (Exception e) {
             logger.warn("Failed to send notification for payment ID={}: {}",
                     payment.getId(), e.getMessage());
         }
     }
 
-    public void notifyOfSessionRenewed(Long bookingId, BigDecimal amountToPay, String url) {
+    public void notifyOfSessionRenewed(Long bookingId, BigDecimal amountToPay, String url,
+                                       String guestEmail) {
         try {
             notificationService.sendNotification(
-                    String.format("Payment session renewed for Booking ID=%d: Amount=$%.2f, URL=%s",
-                            bookingId, amountToPay, url
-            ));
+                    new NotificationEvent.PaymentSessionRenewed(bookingId, amountToPay, url),
+                    guestEmail);
         } catch (Exception e) {
             logger.error("Error sending session renewal notification for Booking ID={}: {}",
                     bookingId, e.getMessage(), e);
@@ -51,10 +48,8 @@ public class PaymentNotificationUtil {
 
     public void notifyOfSuccessfulPayment(Payment payment, String sessionId) {
         try {
-            notificationService.sendNotification(String.format(
-                    "Payment successful for Booking ID=%d: Amount=$%.2f, Session ID=%s",
-                    payment.getBooking().getId(), payment.getAmountToPay(), sessionId)
-            );
+            notificationService.sendNotification(new NotificationEvent.PaymentSucceeded(
+                    payment.getBooking().getId(), payment.getAmountToPay(), sessionId));
         } catch (Exception e) {
             logger.error("Error sending successful payment notification for Payment ID={}: {}",
                     payment.getId(), e.getMessage(), e);
@@ -63,10 +58,8 @@ public class PaymentNotificationUtil {
 
     public void notifyCancelledPayment(Payment payment) {
         try {
-            notificationService.sendNotification(
-                    String.format("Payment canceled for Booking ID=%d: Amount=$%.2f",
-                            payment.getBooking().getId(), payment.getAmountToPay())
-            );
+            notificationService.sendNotification(new NotificationEvent.PaymentCancelled(
+                    payment.getBooking().getId(), payment.getAmountToPay()));
         } catch (Exception e) {
             logger.error("Error sending payment cancellation notification for Payment ID={}: {}",
                     payment.getId(), e.getMessage(), e);
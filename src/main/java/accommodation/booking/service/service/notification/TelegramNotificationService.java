@@ -1,22 +1,45 @@
 package accommodation.booking.service.service.notification;
 
 import accommodation.booking.service.config.TelegramBot;
+import accommodation.booking.service.exceptions.NotificationDeliveryException;
+import accommodation.booking.service.util.MessageCoalescer;
+import accommodation.booking.service.util.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
+/**
+ * Sends notifications to the managers' Telegram chat. Each batch from the dispatcher is
+ * coalesced into multi-line messages of at most {@link #MAX_MESSAGE_LENGTH} characters, which
+ * go out no faster than {@code telegram.rate.messages-per-second}. The batch is sent before
+ * {@link #send} returns. When the API rejects a message, the notifications it and the later
+ * messages carry are reported unsent, so the outbox retries only those.
+ */
 @Service
-public class TelegramNotificationService implements NotificationService {
+public class TelegramNotificationService implements NotificationChannel {
+    public static final String NAME = "telegram";
+    public static final int MAX_MESSAGE_LENGTH = 4096;
     private final String chatId;
     private final TelegramBot bot;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final TokenBucket rateLimiter;
 
     public TelegramNotificationService(
             @Value("${telegram.bot.token}") String botToken,
-            @Value("${telegram.chat.id}") String chatId
+            @Value("${telegram.chat.id}") String chatId,
+            MeterRegistry meterRegistry,
+            Clock clock,
+            @Value("${telegram.rate.messages-per-second:20}") double messagesPerSecond
     ) throws TelegramApiException {
 
         if (botToken == null || chatId == null) {
@@ -27,19 +50,71 @@ public class TelegramNotificationService implements NotificationService {
         this.bot = new TelegramBot(botToken);
         TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
         botsApi.registerBot(this.bot);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.rateLimiter = new TokenBucket(
+                messagesPerSecond, Math.max(1, (int) messagesPerSecond), clock.instant());
     }
 
-    @Async
     @Override
-    public void sendNotification(String message) {
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void send(List<Notification> batch) {
+        MessageCoalescer coalescer = new MessageCoalescer(MAX_MESSAGE_LENGTH);
+        batch.forEach(notification -> coalescer.add(notification.text()));
+        Set<Integer> unsent = new TreeSet<>();
+        RuntimeException failure = null;
+        for (MessageCoalescer.Message message = coalescer.poll(); message != null;
+                message = coalescer.poll()) {
+            if (failure == null) {
+                try {
+                    pace();
+                    execute(message.text());
+                    continue;
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            // Once a message fails the rest of the batch is held back for the retry
+            unsent.addAll(message.sources());
+        }
+        if (failure != null) {
+            throw new NotificationDeliveryException(
+                    "Sent " + (batch.size() - unsent.size()) + " of " + batch.size()
+                            + " Telegram notifications: " + failure.getMessage(),
+                    unsent, failure);
+        }
+    }
+
+    private void pace() {
+        try {
+            Thread.sleep(rateLimiter.reserve(clock.instant()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending to Telegram", e);
+        }
+    }
+
+    private void execute(String text) {
         SendMessage sendMessage = new SendMessage();
         sendMessage.setChatId(chatId);
-        sendMessage.setText(message);
+        sendMessage.setText(text);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
             bot.execute(sendMessage);
+            outcome = "success";
         } catch (TelegramApiException e) {
-            throw new RuntimeException(
+            throw new IllegalStateException(
                     "Failed to send Telegram notification: " + e.getMessage(), e);
+        } finally {
+            sample.stop(Timer.builder("telegram.send.duration")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
         }
     }
 }
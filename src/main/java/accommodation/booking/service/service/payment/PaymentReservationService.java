@@ -0,0 +1,163 @@
+package accommodation.booking.service.service.payment;
+
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.model.Payment;
+import accommodation.booking.service.model.User;
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.repository.PaymentRepository;
+import accommodation.booking.service.service.booking.BookingHoldService;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import accommodation.booking.service.service.payment.util.PaymentServiceImplUtil;
+import com.stripe.model.checkout.Session;
+import jakarta.persistence.EntityNotFoundException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The database steps around creating a Stripe session, each in its own short transaction.
+ * A payment is first reserved as INITIATING, the caller then creates the session with no
+ * transaction open, and the session is attached to the reservation, moving it to PENDING.
+ * A reservation that never gets its session, because Stripe failed or the instance died
+ * in between, is marked EXPIRED and can be renewed like any expired payment. The booking's
+ * hold is extended to the reservation and then to the session, so a payment that expires
+ * is followed by its booking unless it is renewed in time.
+ */
+@Service
+public class PaymentReservationService {
+    public static final String RECOVERY_JOB_NAME = "payment-reservation-recovery";
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReservationService.class);
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingHoldService bookingHoldService;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final Clock clock;
+    private final Duration reservationTimeout;
+    private final Duration recoveryInterval;
+
+    public PaymentReservationService(PaymentRepository paymentRepository,
+                                     BookingRepository bookingRepository,
+                                     BookingHoldService bookingHoldService,
+                                     MaintenanceJobRunner maintenanceJobRunner,
+                                     Clock clock,
+                                     @Value("${payment.reservation.timeout-ms:120000}")
+                                     long reservationTimeoutMillis,
+                                     @Value("${payment.reservation.recovery-interval-ms:60000}")
+                                     long recoveryIntervalMillis) {
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingHoldService = bookingHoldService;
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.clock = clock;
+        this.reservationTimeout = Duration.ofMillis(reservationTimeoutMillis);
+        this.recoveryInterval = Duration.ofMillis(recoveryIntervalMillis);
+    }
+
+    @Transactional
+    public Reservation reserveNew(Long bookingId, User currentUser) {
+        Booking booking = bookingRepository.findBookingByIdAndUserId(bookingId, currentUser.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Booking not found with ID: "
+                        + bookingId
+                        + " or does not belong to user with ID: " + currentUser.getId()));
+
+        if (paymentRepository.findByBooking(booking).isPresent()) {
+            throw new IllegalStateException("Payment already exists for this booking.");
+        }
+        Instant reservedUntil = clock.instant().plus(reservationTimeout);
+        bookingHoldService.extendHold(booking, reservedUntil);
+
+        BigDecimal amountToPay = PaymentServiceImplUtil.calculateAmountToPay(booking);
+        Payment payment;
+        try {
+            payment = paymentRepository.saveAndFlush(PaymentServiceImplUtil.initializePayment(
+                    booking, amountToPay, reservedUntil));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request reserved a payment for the same booking first
+            throw new IllegalStateException("Payment already exists for this booking.");
+        }
+        return new Reservation(payment.getId(), booking, amountToPay);
+    }
+
+    @Transactional
+    public Reservation reserveRenewal(Long paymentId, User currentUser) {
+        Payment payment = paymentRepository.findByIdAndUserIdAndStatus(
+                        paymentId,
+                        currentUser.getId(),
+                        Payment.PaymentStatus.EXPIRED)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Payment not found, not owned by user, or not EXPIRED for ID: "
+                                + paymentId));
+
+        Booking booking = PaymentServiceImplUtil.retrieveBookingById(
+                payment.getBooking().getId(), bookingRepository);
+        if (paymentRepository.updateStatus(paymentId,
+                Payment.PaymentStatus.EXPIRED, Payment.PaymentStatus.INITIATING) != 1) {
+            throw new IllegalStateException(
+                    "Payment ID " + paymentId + " is already being renewed.");
+        }
+        Instant reservedUntil = clock.instant().plus(reservationTimeout);
+        bookingHoldService.extendHold(booking, reservedUntil);
+        paymentRepository.updateExpiresAt(
+                paymentId, Payment.PaymentStatus.INITIATING, reservedUntil);
+        return new Reservation(paymentId, booking,
+                PaymentServiceImplUtil.calculateAmountToPay(booking));
+    }
+
+    @Transactional
+    public Payment attachSession(Long paymentId, Session session) {
+        Instant expiresAt = PaymentServiceImplUtil.sessionExpiresAt(session, clock.instant());
+        if (paymentRepository.updateSession(paymentId,
+                Payment.PaymentStatus.INITIATING, Payment.PaymentStatus.PENDING,
+                session.getId(), session.getUrl(), expiresAt) != 1) {
+            logger.error("Stripe session {} was created after payment ID={} gave up on it",
+                    session.getId(), paymentId);
+            throw new IllegalStateException("The payment session took too long to create. "
+                    + "Please renew payment ID " + paymentId + ".");
+        }
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Payment not found with ID: " + paymentId));
+        bookingHoldService.extendHold(payment.getBooking(), expiresAt);
+        return payment;
+    }
+
+    /**
+     * Gives up a reservation whose session could not be created.
+     */
+    public void abandon(Long paymentId) {
+        paymentRepository.updateStatus(
+                paymentId, Payment.PaymentStatus.INITIATING, Payment.PaymentStatus.EXPIRED);
+    }
+
+    @Scheduled(fixedRateString = "${payment.reservation.recovery-interval-ms:60000}")
+    public void recoverStaleReservations() {
+        maintenanceJobRunner.launchExclusive(
+                RECOVERY_JOB_NAME, recoveryInterval, this::expireStaleReservations);
+    }
+
+    public int expireStaleReservations() {
+        List<Payment> stalePayments = paymentRepository.findStaleInitiating(clock.instant());
+        int expiredCount = 0;
+        for (Payment payment : stalePayments) {
+            if (paymentRepository.updateStatus(payment.getId(),
+                    Payment.PaymentStatus.INITIATING, Payment.PaymentStatus.EXPIRED) == 1) {
+                expiredCount++;
+                logger.warn("Payment ID={} never received its Stripe session; marked as EXPIRED",
+                        payment.getId());
+            }
+        }
+        return expiredCount;
+    }
+
+    public record Reservation(Long paymentId, Booking booking, BigDecimal amountToPay) {
+    }
+}
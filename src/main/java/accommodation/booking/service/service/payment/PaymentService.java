@@ -6,7 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface PaymentService {
-    PaymentResponseDto initiatePayment(Long bookingId, User currentUser);
+    PaymentResponseDto initiatePayment(Long bookingId, User currentUser, String idempotencyKey);
 
     Page<PaymentResponseDto> getPaymentsForUser(Long userId, User currentUser, Pageable pageable);
 
@@ -15,4 +15,8 @@ public interface PaymentService {
     String handlePaymentSuccess(String sessionId);
 
     String handlePaymentCancel(String sessionId);
+
+    boolean completeSession(String sessionId);
+
+    boolean expireSession(String sessionId);
 }
@@ -0,0 +1,142 @@
+package accommodation.booking.service.service.payment;
+
+import accommodation.booking.service.exceptions.PaymentProviderUnavailableException;
+import accommodation.booking.service.util.CircuitBreaker;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs Stripe calls behind a bulkhead and a circuit breaker. The bulkhead caps the calls in
+ * flight so a slow Stripe cannot tie up every request thread, and the breaker fails fast
+ * once Stripe keeps timing out or erroring, probing it again after a cool-down. Only
+ * connection failures, timeouts, rate limiting and 5xx responses count as failures; a
+ * rejected request means Stripe is up. Rejected calls throw
+ * {@link PaymentProviderUnavailableException} without reaching Stripe.
+ */
+@Component
+public class StripeCallGuard {
+    private static final Logger logger = LoggerFactory.getLogger(StripeCallGuard.class);
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+    private static final String UNAVAILABLE_MESSAGE =
+            "Payments are temporarily unavailable. Please try again later.";
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final Duration bulkheadMaxWait;
+
+    public StripeCallGuard(MeterRegistry meterRegistry,
+                           Clock clock,
+                           @Value("${stripe.circuit.failure-threshold:5}") int failureThreshold,
+                           @Value("${stripe.circuit.open-ms:30000}") long openMillis,
+                           @Value("${stripe.circuit.half-open-probes:1}") int halfOpenProbes,
+                           @Value("${stripe.bulkhead.max-concurrent:10}") int maxConcurrent,
+                           @Value("${stripe.bulkhead.max-wait-ms:100}") long maxWaitMillis) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.circuitBreaker = new CircuitBreaker(
+                failureThreshold, Duration.ofMillis(openMillis), halfOpenProbes);
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.bulkheadMaxWait = Duration.ofMillis(maxWaitMillis);
+        Gauge.builder("stripe.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("0 = closed, 1 = half-open, 2 = open")
+                .register(meterRegistry);
+        Gauge.builder("stripe.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .register(meterRegistry);
+    }
+
+    public <T> T call(String operation, StripeCall<T> call) throws StripeException {
+        acquireBulkhead(operation);
+        try {
+            if (!circuitBreaker.tryAcquire(clock.instant())) {
+                throw reject(operation, "circuit_open");
+            }
+            return callThroughBreaker(operation, call);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CircuitBreaker.State state() {
+        return circuitBreaker.state();
+    }
+
+    private <T> T callThroughBreaker(String operation, StripeCall<T> call)
+            throws StripeException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = call.execute();
+            outcome = "success";
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (StripeException e) {
+            if (isOutage(e)) {
+                recordFailure(operation);
+            } else {
+                outcome = "rejected";
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            recordFailure(operation);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("stripe.request.duration")
+                    .tags("operation", operation, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void acquireBulkhead(String operation) {
+        try {
+            if (!bulkhead.tryAcquire(bulkheadMaxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw reject(operation, "bulkhead_full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProviderUnavailableException(UNAVAILABLE_MESSAGE);
+        }
+    }
+
+    private void recordFailure(String operation) {
+        CircuitBreaker.State before = circuitBreaker.state();
+        circuitBreaker.onFailure(clock.instant());
+        if (before != CircuitBreaker.State.OPEN
+                && circuitBreaker.state() == CircuitBreaker.State.OPEN) {
+            logger.warn("Stripe circuit opened after a failed {} call", operation);
+        }
+    }
+
+    private PaymentProviderUnavailableException reject(String operation, String reason) {
+        meterRegistry.counter("stripe.request.rejected", "operation", operation, "reason", reason)
+                .increment();
+        return new PaymentProviderUnavailableException(UNAVAILABLE_MESSAGE);
+    }
+
+    private static boolean isOutage(StripeException e) {
+        Integer statusCode = e.getStatusCode();
+        return e instanceof ApiConnectionException
+                || statusCode == null
+                || statusCode == TOO_MANY_REQUESTS
+                || statusCode >= SERVER_ERROR;
+    }
+
+    @FunctionalInterface
+    public interface StripeCall<T> {
+        T execute() throws StripeException;
+    }
+}
@@ -0,0 +1,169 @@
+package accommodation.booking.service.service.payment;
+
+import accommodation.booking.service.model.StripeEvent;
+import accommodation.booking.service.repository.StripeEventRepository;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies stored Stripe events to payments. Freshly received events are queued to a
+ * worker thread; events the queue could not take, whose processing failed, or whose
+ * worker died are redelivered from {@code stripe_events} by a scheduled job. Every event
+ * is claimed in the database first, so it is applied by one worker at a time.
+ */
+@Service
+public class StripeEventProcessor {
+    public static final String SESSION_COMPLETED = "checkout.session.completed";
+    public static final String SESSION_ASYNC_PAYMENT_SUCCEEDED =
+            "checkout.session.async_payment_succeeded";
+    public static final String SESSION_EXPIRED = "checkout.session.expired";
+    public static final String REDELIVERY_JOB_NAME = "stripe-event-redelivery";
+    private static final Logger logger = LoggerFactory.getLogger(StripeEventProcessor.class);
+    private static final Set<String> HANDLED_TYPES =
+            Set.of(SESSION_COMPLETED, SESSION_ASYNC_PAYMENT_SUCCEEDED, SESSION_EXPIRED);
+    private static final String PAID_PAYMENT_STATUS = "paid";
+    private static final int REDELIVERY_BATCH_SIZE = 100;
+    private final StripeEventRepository stripeEventRepository;
+    private final PaymentService paymentService;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final BlockingQueue<String> queue;
+    private final Duration retryAfter;
+    private final int maxAttempts;
+    private volatile Thread worker;
+
+    public StripeEventProcessor(StripeEventRepository stripeEventRepository,
+                                PaymentService paymentService,
+                                MaintenanceJobRunner maintenanceJobRunner,
+                                ObjectMapper objectMapper,
+                                Clock clock,
+                                @Value("${stripe.webhook.queue-capacity:1000}") int queueCapacity,
+                                @Value("${stripe.webhook.retry-after-ms:60000}")
+                                long retryAfterMillis,
+                                @Value("${stripe.webhook.max-attempts:5}") int maxAttempts) {
+        this.stripeEventRepository = stripeEventRepository;
+        this.paymentService = paymentService;
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.retryAfter = Duration.ofMillis(retryAfterMillis);
+        this.maxAttempts = maxAttempts;
+    }
+
+    public boolean handles(String eventType) {
+        return HANDLED_TYPES.contains(eventType);
+    }
+
+    public void submit(String eventId) {
+        if (!queue.offer(eventId)) {
+            logger.warn("Stripe event queue is full; event {} is left for redelivery.", eventId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker = Thread.ofVirtual().name("stripe-events").start(this::drain);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${stripe.webhook.retry-after-ms:60000}")
+    public void redeliverPendingEvents() {
+        maintenanceJobRunner.launchExclusive(REDELIVERY_JOB_NAME, retryAfter, this::redeliver);
+    }
+
+    public int redeliver() {
+        List<String> eventIds = stripeEventRepository.findRedeliverable(
+                seconds(retryAfter), REDELIVERY_BATCH_SIZE);
+        int processedCount = 0;
+        for (String eventId : eventIds) {
+            if (process(eventId)) {
+                processedCount++;
+            }
+        }
+        return processedCount;
+    }
+
+    /**
+     * Claims and applies the event. Returns false when another worker holds the event,
+     * it was already processed, or applying it failed.
+     */
+    public boolean process(String eventId) {
+        if (stripeEventRepository.claim(eventId, seconds(retryAfter)) != 1) {
+            return false;
+        }
+        StripeEvent event = stripeEventRepository.findById(eventId).orElseThrow();
+        try {
+            apply(event.getType(), objectMapper.readTree(event.getPayload())
+                    .path("data").path("object"));
+            stripeEventRepository.updateStatus(
+                    eventId, StripeEvent.EventStatus.PROCESSED, clock.instant());
+            return true;
+        } catch (Exception e) {
+            StripeEvent.EventStatus status = event.getAttempts() >= maxAttempts
+                    ? StripeEvent.EventStatus.FAILED
+                    : StripeEvent.EventStatus.RECEIVED;
+            logger.error("Failed to process Stripe event {} ({}), attempt {}: {}",
+                    eventId, event.getType(), event.getAttempts(), e.getMessage());
+            stripeEventRepository.updateStatus(eventId, status, clock.instant());
+            return false;
+        }
+    }
+
+    private void apply(String eventType, JsonNode session) {
+        String sessionId = session.path("id").asText(null);
+        if (sessionId == null) {
+            throw new IllegalArgumentException("Event carries no checkout session ID");
+        }
+        switch (eventType) {
+            case SESSION_COMPLETED -> {
+                if (PAID_PAYMENT_STATUS.equals(session.path("payment_status").asText())) {
+                    paymentService.completeSession(sessionId);
+                }
+            }
+            case SESSION_ASYNC_PAYMENT_SUCCEEDED -> paymentService.completeSession(sessionId);
+            case SESSION_EXPIRED -> paymentService.expireSession(sessionId);
+            default -> throw new IllegalArgumentException(
+                    "Unsupported Stripe event type: " + eventType);
+        }
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                String eventId = queue.take();
+                process(eventId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Stripe event worker failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+}
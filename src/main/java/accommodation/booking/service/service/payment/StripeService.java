@@ -1,14 +1,15 @@
 package accommodation.booking.service.service.payment;
 
 import accommodation.booking.service.model.Booking;
-import accommodation.booking.service.model.Payment;
 import com.stripe.model.checkout.Session;
 import java.math.BigDecimal;
 
 public interface StripeService {
-    Session createSession(Booking booking, BigDecimal amountToPay);
+    /**
+     * Creates a checkout session. Stripe answers a repeated {@code idempotencyKey} with the
+     * session it created the first time; pass null when the call need not be deduplicated.
+     */
+    Session createSession(Booking booking, BigDecimal amountToPay, String idempotencyKey);
 
     Session retrieveSession(String sessionId);
-
-    boolean isSessionExpired(Payment payment);
 }
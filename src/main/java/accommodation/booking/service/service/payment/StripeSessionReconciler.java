@@ -0,0 +1,185 @@
+package accommodation.booking.service.service.payment;
+
+import accommodation.booking.service.model.Payment;
+import accommodation.booking.service.repository.PaymentRepository;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import accommodation.booking.service.service.payment.util.PaymentServiceImplUtil;
+import accommodation.booking.service.util.TokenBucket;
+import com.stripe.model.checkout.Session;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks a random sample of pending payments against Stripe and applies what the stored
+ * state missed: a completed payment whose webhook never arrived, a session expired from the
+ * Stripe dashboard, or a drifted expiry. The sample is read in one short query, sessions are
+ * fetched concurrently on virtual threads behind a semaphore and a token bucket, and the
+ * changes are written in short transactions; no connection is held while Stripe answers.
+ */
+@Service
+public class StripeSessionReconciler {
+    public static final String JOB_NAME = "payment-session-reconciliation";
+    private static final Logger logger = LoggerFactory.getLogger(StripeSessionReconciler.class);
+    private static final String EXPIRED_SESSION_STATUS = "expired";
+    private static final String PAID_PAYMENT_STATUS = "paid";
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final StripeService stripeService;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int sampleSize;
+    private final int batchSize;
+    private final Duration interval;
+    private final Semaphore concurrencyLimit;
+    private final TokenBucket rateLimiter;
+
+    public StripeSessionReconciler(PaymentRepository paymentRepository,
+                                   PaymentService paymentService,
+                                   StripeService stripeService,
+                                   MaintenanceJobRunner maintenanceJobRunner,
+                                   TransactionTemplate transactionTemplate,
+                                   Clock clock,
+                                   @Value("${payment.session.reconciliation.sample-size:100}")
+                                   int sampleSize,
+                                   @Value("${payment.session.reconciliation.batch-size:50}")
+                                   int batchSize,
+                                   @Value("${payment.session.reconciliation.concurrency:8}")
+                                   int concurrency,
+                                   @Value("${payment.session.reconciliation.rate-per-second:20}")
+                                   double ratePerSecond,
+                                   @Value("${payment.session.reconciliation.interval-ms:600000}")
+                                   long intervalMillis) {
+        this.paymentRepository = paymentRepository;
+        this.paymentService = paymentService;
+        this.stripeService = stripeService;
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.sampleSize = sampleSize;
+        this.batchSize = batchSize;
+        this.interval = Duration.ofMillis(intervalMillis);
+        this.concurrencyLimit = new Semaphore(concurrency);
+        this.rateLimiter = new TokenBucket(
+                ratePerSecond, Math.max(1, (int) ratePerSecond), clock.instant());
+    }
+
+    @Scheduled(fixedRateString = "${payment.session.reconciliation.interval-ms:600000}")
+    public void reconcileSessions() {
+        if (sampleSize > 0) {
+            maintenanceJobRunner.launchExclusive(JOB_NAME, interval, this::reconcileSample);
+        }
+    }
+
+    public int reconcileSample() {
+        List<PendingSession> sample = paymentRepository.findPendingSample(sampleSize).stream()
+                .map(PendingSession::of)
+                .toList();
+        if (sample.isEmpty()) {
+            return 0;
+        }
+        List<SessionState> states = fetchSessions(sample);
+        int changedCount = 0;
+        for (int from = 0; from < states.size(); from += batchSize) {
+            changedCount += applyBatch(
+                    states.subList(from, Math.min(from + batchSize, states.size())));
+        }
+        if (changedCount > 0) {
+            logger.warn("Reconciled {} of {} sampled payments with Stripe.",
+                    changedCount, sample.size());
+        }
+        return changedCount;
+    }
+
+    private List<SessionState> fetchSessions(List<PendingSession> sample) {
+        List<Future<SessionState>> futures = new ArrayList<>(sample.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (PendingSession pending : sample) {
+                futures.add(executor.submit(() -> fetchSession(pending)));
+            }
+        }
+        List<SessionState> states = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                states.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                logger.error("Failed to retrieve the Stripe session of payment ID={}: {}",
+                        sample.get(i).paymentId(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return states;
+    }
+
+    private SessionState fetchSession(PendingSession pending) throws InterruptedException {
+        concurrencyLimit.acquire();
+        try {
+            Thread.sleep(rateLimiter.reserve(clock.instant()));
+            return new SessionState(pending, stripeService.retrieveSession(pending.sessionId()));
+        } finally {
+            concurrencyLimit.release();
+        }
+    }
+
+    private int applyBatch(List<SessionState> batch) {
+        try {
+            return transactionTemplate.execute(status -> {
+                int changedCount = 0;
+                for (SessionState state : batch) {
+                    if (apply(state.pending(), state.session())) {
+                        changedCount++;
+                    }
+                }
+                return changedCount;
+            });
+        } catch (Exception e) {
+            logger.error("Failed to apply a batch of {} reconciled payments: {}",
+                    batch.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private boolean apply(PendingSession pending, Session session) {
+        if (PAID_PAYMENT_STATUS.equals(session.getPaymentStatus())) {
+            return paymentService.completeSession(pending.sessionId());
+        }
+        Instant now = clock.instant();
+        Instant expiresAt = PaymentServiceImplUtil.sessionExpiresAt(session, now);
+        if (EXPIRED_SESSION_STATUS.equals(session.getStatus()) && expiresAt.isAfter(now)) {
+            expiresAt = now;
+        }
+        if (expiresAt.equals(pending.expiresAt())) {
+            return false;
+        }
+        logger.info("Payment ID={} expires at {} on Stripe, not {}.",
+                pending.paymentId(), expiresAt, pending.expiresAt());
+        return paymentRepository.updateExpiresAt(
+                pending.paymentId(), Payment.PaymentStatus.PENDING, expiresAt) == 1;
+    }
+
+    private record PendingSession(Long paymentId, String sessionId, Instant expiresAt) {
+        private static PendingSession of(Payment payment) {
+            return new PendingSession(
+                    payment.getId(), payment.getSessionId(), payment.getExpiresAt());
+        }
+    }
+
+    private record SessionState(PendingSession pending, Session session) {
+    }
+}
@@ -0,0 +1,62 @@
+package accommodation.booking.service.service.payment;
+
+import accommodation.booking.service.repository.StripeEventRepository;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.net.Webhook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Verifies incoming Stripe webhooks and stores the events Stripe may deliver more than
+ * once under their event ID. Only a newly stored event is handed to the processor.
+ */
+@Service
+public class StripeWebhookService {
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookService.class);
+    private final StripeEventRepository stripeEventRepository;
+    private final StripeEventProcessor stripeEventProcessor;
+    private final String webhookSecret;
+
+    public StripeWebhookService(StripeEventRepository stripeEventRepository,
+                                StripeEventProcessor stripeEventProcessor,
+                                @Value("${stripe.webhook.secret:}") String webhookSecret) {
+        this.stripeEventRepository = stripeEventRepository;
+        this.stripeEventProcessor = stripeEventProcessor;
+        this.webhookSecret = webhookSecret;
+    }
+
+    /**
+     * Returns true when the event was accepted for processing, false when it is a
+     * redelivery or of a type this service does not handle.
+     */
+    public boolean receiveEvent(String payload, String signatureHeader) {
+        Event event = verify(payload, signatureHeader);
+        if (!stripeEventProcessor.handles(event.getType())) {
+            logger.debug("Ignoring Stripe event {} of type {}", event.getId(), event.getType());
+            return false;
+        }
+        if (stripeEventRepository.insertIfAbsent(event.getId(), event.getType(), payload) == 0) {
+            logger.info("Stripe event {} was already received", event.getId());
+            return false;
+        }
+        stripeEventProcessor.submit(event.getId());
+        return true;
+    }
+
+    private Event verify(String payload, String signatureHeader) {
+        if (webhookSecret.isBlank()) {
+            throw new IllegalStateException("Stripe webhook secret is not configured");
+        }
+        try {
+            return Webhook.constructEvent(payload, signatureHeader, webhookSecret);
+        } catch (SignatureVerificationException e) {
+            throw new IllegalArgumentException("Invalid Stripe signature", e);
+        } catch (RuntimeException e) {
+            // Stripe's JSON parser throws unchecked exceptions for malformed payloads
+            throw new IllegalArgumentException("Malformed Stripe event payload", e);
+        }
+    }
+}
@@ -4,19 +4,21 @@ import static accommodation.booking.service.model.Role.RoleName.ROLE_MANAGER;
 
 import accommodation.booking.service.dto.payment.PaymentResponseDto;
 import accommodation.booking.service.mapper.PaymentMapper;
-import accommodation.booking.service.model.Booking;
 import accommodation.booking.service.model.Payment;
 import accommodation.booking.service.model.User;
-import accommodation.booking.service.repository.BookingRepository;
 import accommodation.booking.service.repository.PaymentRepository;
+import accommodation.booking.service.service.booking.BookingHoldService;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
 import accommodation.booking.service.service.notification.PaymentNotificationUtil;
+import accommodation.booking.service.service.payment.PaymentReservationService;
 import accommodation.booking.service.service.payment.PaymentService;
 import accommodation.booking.service.service.payment.StripeService;
 import accommodation.booking.service.service.payment.util.PaymentServiceImplUtil;
 import com.stripe.model.checkout.Session;
-import jakarta.persistence.EntityNotFoundException;
-import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,37 +27,39 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentServiceImpl implements PaymentService {
     private static final Logger logger = LoggerFactory.getLogger(PaymentServiceImpl.class);
     private static final String PAID_PAYMENT_STATUS = "paid";
+    private static final String SESSION_EXPIRATION_JOB = "payment-session-expiration";
+    private static final Duration SESSION_EXPIRATION_INTERVAL = Duration.ofMinutes(1);
+    private static final String STRIPE_IDEMPOTENCY_PREFIX = "payment:";
     private final PaymentRepository paymentRepository;
-    private final BookingRepository bookingRepository;
     private final StripeService stripeService;
+    private final PaymentReservationService paymentReservationService;
+    private final BookingHoldService bookingHoldService;
     private final PaymentMapper paymentMapper;
     private final PaymentNotificationUtil paymentNotificationUtil;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
 
-    @Transactional
     @Override
-    public PaymentResponseDto initiatePayment(Long bookingId, User currentUser) {
-        Booking booking = bookingRepository.findBookingByIdAndUserId(bookingId, currentUser.getId())
-                .orElseThrow(() -> new EntityNotFoundException("Booking not found with ID: "
-                        + bookingId
-                        + " or does not belong to user with ID: " + currentUser.getId()));
-
-        if (paymentRepository.findByBooking(booking).isPresent()) {
-            throw new IllegalStateException("Payment already exists for this booking.");
-        }
-
-        BigDecimal amountToPay = PaymentServiceImplUtil.calculateAmountToPay(booking);
-        Session session = stripeService.createSession(booking, amountToPay);
-        Payment payment = PaymentServiceImplUtil.initializePayment(booking, session, amountToPay);
-        Payment savedPayment = paymentRepository.save(payment);
-        PaymentResponseDto responseDto = paymentMapper.intoDto(savedPayment);
-        paymentNotificationUtil.notifyPaymentCreated(bookingId, amountToPay, session.getUrl());
-        return responseDto;
+    public PaymentResponseDto initiatePayment(
+            Long bookingId, User currentUser, String idempotencyKey) {
+        PaymentReservationService.Reservation reservation =
+                paymentReservationService.reserveNew(bookingId, currentUser);
+        // Stripe keys are account-wide, so the client's key is scoped to its user
+        String stripeIdempotencyKey = idempotencyKey == null
+                ? null
+                : STRIPE_IDEMPOTENCY_PREFIX + currentUser.getId() + ":" + idempotencyKey;
+        Payment payment = createSession(reservation, stripeIdempotencyKey);
+        paymentNotificationUtil.notifyPaymentCreated(bookingId, reservation.amountToPay(),
+                payment.getSessionUrl(), currentUser.getEmail());
+        return paymentMapper.intoDto(payment);
     }
 
     @Transactional(readOnly = true)
@@ -70,69 +74,77 @@ public class PaymentServiceImpl implements PaymentService {
         return payments.map(paymentMapper::intoDto);
     }
 
-    @Transactional
     @Scheduled(fixedRate = 60000)
     public void checkExpiredStripeSessions() {
-        List<Payment> pendingPayments = paymentRepository.findAllByStatus(
-                Payment.PaymentStatus.PENDING);
-        logger.info("Checking {} pending payments for expiration", pendingPayments.size());
+        maintenanceJobRunner.launchExclusive(SESSION_EXPIRATION_JOB,
+                SESSION_EXPIRATION_INTERVAL, this::expireStripeSessions);
+    }
 
-        for (Payment payment : pendingPayments) {
+    /**
+     * Expires pending payments whose session has passed the {@code expiresAt} recorded when
+     * it was created, without calling Stripe.
+     */
+    public int expireStripeSessions() {
+        List<Payment> expiredPayments = paymentRepository.findExpiredPending(clock.instant());
+        if (expiredPayments.isEmpty()) {
+            return 0;
+        }
+        return maintenanceJobRunner.runChunks(
+                SESSION_EXPIRATION_JOB, expiredPayments, this::expireChunk);
+    }
+
+    private int expireChunk(List<Payment> payments) {
+        int expiredCount = 0;
+        for (Payment payment : payments) {
             try {
-                if (stripeService.isSessionExpired(payment)) {
-                    payment.setStatus(Payment.PaymentStatus.EXPIRED);
-                    paymentRepository.save(payment);
-                    logger.info("Payment ID={} marked as EXPIRED for Booking ID={}",
-                            payment.getId(), payment.getBooking().getId());
-                    paymentNotificationUtil.notifyOfExpiredSession(payment);
+                // The status and its notification commit together, one payment at a time
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> expire(payment)))) {
+                    expiredCount++;
                 }
             } catch (Exception e) {
                 logger.error("Failed to process payment ID={} for Booking ID={}: {}",
                         payment.getId(), payment.getBooking().getId(), e.getMessage());
             }
         }
+        return expiredCount;
+    }
+
+    private boolean expire(Payment payment) {
+        if (paymentRepository.updateStatus(payment.getId(),
+                Payment.PaymentStatus.PENDING, Payment.PaymentStatus.EXPIRED) != 1) {
+            return false;
+        }
+        payment.setStatus(Payment.PaymentStatus.EXPIRED);
+        logger.info("Payment ID={} marked as EXPIRED for Booking ID={}",
+                payment.getId(), payment.getBooking().getId());
+        paymentNotificationUtil.notifyOfExpiredSession(payment);
+        return true;
     }
 
-    @Transactional
     @Override
     public PaymentResponseDto renewPaymentSession(Long paymentId, User currentUser) {
-        Payment payment = paymentRepository.findByIdAndUserIdAndStatus(
-                        paymentId,
-                        currentUser.getId(),
-                        Payment.PaymentStatus.EXPIRED)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Payment not found, not owned by user, or not EXPIRED for ID: "
-                                + paymentId));
-
-        Booking booking = PaymentServiceImplUtil.retrieveBookingById(
-                payment.getBooking().getId(), bookingRepository);
-        BigDecimal amountToPay = PaymentServiceImplUtil.calculateAmountToPay(booking);
-        Session session = stripeService.createSession(booking, amountToPay);
-
-        payment.setSessionUrl(session.getUrl());
-        payment.setSessionId(session.getId());
-        payment.setStatus(Payment.PaymentStatus.PENDING);
-        Payment updatedPayment = paymentRepository.save(payment);
-
-        paymentNotificationUtil.notifyOfSessionRenewed(
-                booking.getId(), amountToPay, session.getUrl());
-        return paymentMapper.intoDto(updatedPayment);
+        PaymentReservationService.Reservation reservation =
+                paymentReservationService.reserveRenewal(paymentId, currentUser);
+        Payment payment = createSession(reservation, null);
+        paymentNotificationUtil.notifyOfSessionRenewed(reservation.booking().getId(),
+                reservation.amountToPay(), payment.getSessionUrl(), currentUser.getEmail());
+        return paymentMapper.intoDto(payment);
     }
 
-    @Transactional
     @Override
     public String handlePaymentSuccess(String sessionId) {
         logger.info("Processing payment success for sessionId: {}", sessionId);
         PaymentServiceImplUtil.validateSessionId(sessionId);
-        Session session = stripeService.retrieveSession(sessionId);
         Payment payment = PaymentServiceImplUtil.retrievePayment(sessionId, paymentRepository);
+        if (payment.getStatus() == Payment.PaymentStatus.PAID) {
+            return "Payment successful! Booking confirmed.";
+        }
+        Session session = stripeService.retrieveSession(sessionId);
 
         if (PAID_PAYMENT_STATUS.equals(session.getPaymentStatus())) {
             logger.info("Payment status is PAID for sessionId: {}", sessionId);
-            payment.setStatus(Payment.PaymentStatus.PAID);
-            paymentRepository.save(payment);
-            logger.info("Payment processed successfully for sessionId: {}", sessionId);
-            paymentNotificationUtil.notifyOfSuccessfulPayment(payment, sessionId);
+            // Called on this instance rather than the proxy, so the transaction is opened here
+            transactionTemplate.execute(status -> completeSession(sessionId));
             return "Payment successful! Booking confirmed.";
         } else {
             logger.warn("Payment status is not PAID for sessionId: {}. Current status: {}",
@@ -149,4 +161,64 @@ public class PaymentServiceImpl implements PaymentService {
         paymentNotificationUtil.notifyCancelledPayment(payment);
         return "Payment canceled. You can try again later.";
     }
+
+    @Transactional
+    @Override
+    public boolean completeSession(String sessionId) {
+        Optional<Payment> payment = paymentRepository.findBySessionId(sessionId);
+        if (payment.isEmpty() || !transition(payment.get(), Payment.PaymentStatus.PAID)) {
+            return false;
+        }
+        logger.info("Payment ID={} marked as PAID for sessionId: {}",
+                payment.get().getId(), sessionId);
+        bookingHoldService.clearHold(payment.get().getBooking());
+        paymentNotificationUtil.notifyOfSuccessfulPayment(payment.get(), sessionId);
+        return true;
+    }
+
+    @Transactional
+    @Override
+    public boolean expireSession(String sessionId) {
+        Optional<Payment> payment = paymentRepository.findBySessionId(sessionId);
+        if (payment.isEmpty()
+                || payment.get().getStatus() != Payment.PaymentStatus.PENDING
+                || !transition(payment.get(), Payment.PaymentStatus.EXPIRED)) {
+            return false;
+        }
+        logger.info("Payment ID={} marked as EXPIRED for sessionId: {}",
+                payment.get().getId(), sessionId);
+        paymentNotificationUtil.notifyOfExpiredSession(payment.get());
+        return true;
+    }
+
+    /**
+     * Calls Stripe between the reserve and attach steps, so that no transaction or pooled
+     * connection is held while Stripe answers.
+     */
+    private Payment createSession(PaymentReservationService.Reservation reservation,
+                                  String idempotencyKey) {
+        Session session;
+        try {
+            session = stripeService.createSession(
+                    reservation.booking(), reservation.amountToPay(), idempotencyKey);
+        } catch (RuntimeException e) {
+            try {
+                paymentReservationService.abandon(reservation.paymentId());
+            } catch (RuntimeException abandonFailure) {
+                e.addSuppressed(abandonFailure);
+            }
+            throw e;
+        }
+        return paymentReservationService.attachSession(reservation.paymentId(), session);
+    }
+
+    private boolean transition(Payment payment, Payment.PaymentStatus newStatus) {
+        Payment.PaymentStatus currentStatus = payment.getStatus();
+        if (currentStatus == newStatus
+                || paymentRepository.updateStatus(payment.getId(), currentStatus, newStatus) != 1) {
+            return false;
+        }
+        payment.setStatus(newStatus);
+        return true;
+    }
 }
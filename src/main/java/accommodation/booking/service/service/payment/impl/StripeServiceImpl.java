@@ -1,11 +1,12 @@
 package accommodation.booking.service.service.payment.impl;
 
 import accommodation.booking.service.model.Booking;
-import accommodation.booking.service.model.Payment;
+import accommodation.booking.service.service.payment.StripeCallGuard;
 import accommodation.booking.service.service.payment.StripeService;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.checkout.SessionCreateParams;
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
@@ -23,20 +24,37 @@ public class StripeServiceImpl implements StripeService {
     private static final String SUCCESS_PATH = "/payments/success";
     private static final String CANCEL_PATH = "/payments/cancel";
     private static final String URL_QUERY_PARAM = "?session_id={CHECKOUT_SESSION_ID}";
+    private final StripeCallGuard stripeCallGuard;
 
     @Value("${stripe.secret.key}")
     private String secretKey;
 
+    @Value("${stripe.timeout.connect-ms:2000}")
+    private int connectTimeoutMillis;
+
+    @Value("${stripe.timeout.read-ms:5000}")
+    private int readTimeoutMillis;
+
+    @Value("${stripe.max-network-retries:1}")
+    private int maxNetworkRetries;
+
     @PostConstruct
     public void init() {
         Stripe.apiKey = secretKey;
+        Stripe.setConnectTimeout(connectTimeoutMillis);
+        Stripe.setReadTimeout(readTimeoutMillis);
+        Stripe.setMaxNetworkRetries(maxNetworkRetries);
     }
 
     @Override
-    public Session createSession(Booking booking, BigDecimal amountToPay) {
+    public Session createSession(
+            Booking booking, BigDecimal amountToPay, String idempotencyKey) {
         SessionCreateParams params = getSessionCreateParams(amountToPay, booking.getId());
+        RequestOptions options = idempotencyKey == null
+                ? RequestOptions.getDefault()
+                : RequestOptions.builder().setIdempotencyKey(idempotencyKey).build();
         try {
-            return Session.create(params);
+            return stripeCallGuard.call("createSession", () -> Session.create(params, options));
         } catch (StripeException e) {
             logger.error("Failed to create payment session for Booking ID={}: {}",
                     booking.getId(), e.getMessage());
@@ -48,7 +66,7 @@ public class StripeServiceImpl implements StripeService {
     @Override
     public Session retrieveSession(String sessionId) {
         try {
-            return Session.retrieve(sessionId);
+            return stripeCallGuard.call("retrieveSession", () -> Session.retrieve(sessionId));
         } catch (StripeException e) {
             logger.error("Failed to retrieve payment session: {}", sessionId, e);
             throw new RuntimeException(
@@ -56,22 +74,6 @@ public class StripeServiceImpl implements StripeService {
         }
     }
 
-    @Override
-    public boolean isSessionExpired(Payment payment) {
-        try {
-            Session session = Session.retrieve(payment.getSessionId());
-            if (session.getExpiresAt() != null) {
-                return session.getExpiresAt() < System.currentTimeMillis() / 1000;
-            }
-            return false;
-        } catch (StripeException e) {
-            logger.error("Failed to check Stripe session for Payment ID={}: {}",
-                    payment.getId(), e.getMessage());
-            throw new RuntimeException("Stripe API error while checking session for Payment ID="
-                    + payment.getId() + ": " + e.getMessage(), e);
-        }
-    }
-
     private SessionCreateParams getSessionCreateParams(BigDecimal amountToPay, Long bookingId) {
         return SessionCreateParams.builder()
                 .addPaymentMethodType(SessionCreateParams.PaymentMethodType.CARD)
@@ -10,9 +10,12 @@ import accommodation.booking.service.repository.PaymentRepository;
 import com.stripe.model.checkout.Session;
 import jakarta.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import org.springframework.security.access.AccessDeniedException;
 
 public final class PaymentServiceImplUtil {
+    private static final Duration DEFAULT_SESSION_TTL = Duration.ofHours(24);
 
     public static BigDecimal calculateAmountToPay(Booking booking) {
         long days = booking.getCheckInDate().until(booking.getCheckOutDate()).getDays();
@@ -22,17 +25,22 @@ public final class PaymentServiceImplUtil {
     }
 
     public static Payment initializePayment(
-            Booking booking, Session session, BigDecimal amountToPay) {
+            Booking booking, BigDecimal amountToPay, Instant reservedUntil) {
 
         Payment payment = new Payment();
         payment.setBooking(booking);
-        payment.setStatus(Payment.PaymentStatus.PENDING);
-        payment.setSessionUrl(session.getUrl());
-        payment.setSessionId(session.getId());
+        payment.setStatus(Payment.PaymentStatus.INITIATING);
         payment.setAmountToPay(amountToPay);
+        payment.setExpiresAt(reservedUntil);
         return payment;
     }
 
+    public static Instant sessionExpiresAt(Session session, Instant now) {
+        return session.getExpiresAt() == null
+                ? now.plus(DEFAULT_SESSION_TTL)
+                : Instant.ofEpochSecond(session.getExpiresAt());
+    }
+
     public static void checkoutAccessForUser(Long userId, User currentUser) {
         if (!currentUser.getId().equals(userId)
                 && !currentUser.getRoles().contains(ROLE_MANAGER)) {
@@ -0,0 +1,78 @@
+package accommodation.booking.service.util;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row it
+ * opens and rejects calls for {@code openDuration}; it then lets up to {@code probeCount}
+ * calls through as half-open probes, closing on the first success and reopening on a
+ * failure. Like {@link TokenBucket} it has no clock of its own; callers pass the time.
+ */
+public final class CircuitBreaker {
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final int probeCount;
+    private State state = State.CLOSED;
+    private int failureCount;
+    private int probesInFlight;
+    private Instant openedAt;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, int probeCount) {
+        if (failureThreshold <= 0 || probeCount <= 0 || openDuration.isNegative()) {
+            throw new IllegalArgumentException(
+                    "Failure threshold, probe count and open duration must be positive.");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.probeCount = probeCount;
+    }
+
+    /**
+     * Returns true when a call may proceed. Every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure(Instant)}.
+     */
+    public synchronized boolean tryAcquire(Instant now) {
+        if (state == State.OPEN) {
+            if (now.isBefore(openedAt.plus(openDuration))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= probeCount) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failureCount = 0;
+        probesInFlight = 0;
+    }
+
+    public synchronized void onFailure(Instant now) {
+        if (state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN || ++failureCount >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = now;
+            failureCount = 0;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+}
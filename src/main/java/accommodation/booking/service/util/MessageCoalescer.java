@@ -0,0 +1,77 @@
+package accommodation.booking.service.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Buffers chat messages line by line and packs them into as few outgoing messages as fit
+ * the length limit. A multi-line message ({@code "3 bookings expired:"} followed by one line
+ * per booking) contributes its lines individually, so a long list spreads over several
+ * messages. Each outgoing message names the added messages its lines came from.
+ */
+public final class MessageCoalescer {
+    private static final Pattern LINE_BREAK = Pattern.compile("\\R");
+    private static final String ELLIPSIS = "…";
+    private final int maxLength;
+    private final Deque<Line> pending = new ArrayDeque<>();
+    private int added;
+
+    public MessageCoalescer(int maxLength) {
+        if (maxLength <= ELLIPSIS.length()) {
+            throw new IllegalArgumentException("Length limit must be positive.");
+        }
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Buffers a message. Messages are numbered from zero in the order they are added.
+     */
+    public synchronized void add(String message) {
+        int source = added++;
+        for (String line : LINE_BREAK.split(message.strip())) {
+            pending.addLast(new Line(line, source));
+        }
+    }
+
+    /**
+     * Removes and returns the next outgoing message, packed with as many buffered lines as
+     * fit, or null when nothing is buffered.
+     */
+    public synchronized Message poll() {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        Line first = pending.removeFirst();
+        StringBuilder text = new StringBuilder(truncate(first.text()));
+        Set<Integer> sources = new TreeSet<>(Set.of(first.source()));
+        while (!pending.isEmpty()
+                && text.length() + 1 + pending.peekFirst().text().length() <= maxLength) {
+            Line line = pending.removeFirst();
+            text.append('\n').append(line.text());
+            sources.add(line.source());
+        }
+        return new Message(text.toString(), sources);
+    }
+
+    public synchronized int pendingLines() {
+        return pending.size();
+    }
+
+    private String truncate(String line) {
+        return line.length() <= maxLength
+                ? line
+                : line.substring(0, maxLength - ELLIPSIS.length()) + ELLIPSIS;
+    }
+
+    /**
+     * An outgoing message and the numbers of the added messages it carries lines of.
+     */
+    public record Message(String text, Set<Integer> sources) {
+    }
+
+    private record Line(String text, int source) {
+    }
+}
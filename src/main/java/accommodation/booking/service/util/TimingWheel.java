@@ -0,0 +1,77 @@
+package accommodation.booking.service.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: O(1) scheduling, and each tick only inspects one bucket.
+ * Deadlines further away than one rotation stay in their bucket until their round comes.
+ * The wheel does not run on its own; callers drive it with {@link #advance(Instant)}.
+ */
+public final class TimingWheel<T> {
+    private final long tickMillis;
+    private final ArrayDeque<Timeout<T>>[] buckets;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tickDuration, int wheelSize, Instant start) {
+        if (tickDuration.toMillis() <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive.");
+        }
+        this.tickMillis = tickDuration.toMillis();
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.currentTick = tickOf(start);
+    }
+
+    public synchronized void schedule(T item, Instant deadline) {
+        long tick = Math.max(Math.ceilDiv(deadline.toEpochMilli(), tickMillis), currentTick + 1);
+        buckets[bucketOf(tick)].add(new Timeout<>(item, tick));
+        size++;
+    }
+
+    public synchronized List<T> advance(Instant now) {
+        long targetTick = tickOf(now);
+        List<T> due = new ArrayList<>();
+        if (targetTick <= currentTick) {
+            return due;
+        }
+        // After a long pause every bucket is due at most once, so cap the sweep at one rotation
+        long firstTick = Math.max(currentTick + 1, targetTick - buckets.length + 1);
+        for (long tick = firstTick; tick <= targetTick; tick++) {
+            Iterator<Timeout<T>> iterator = buckets[bucketOf(tick)].iterator();
+            while (iterator.hasNext()) {
+                Timeout<T> timeout = iterator.next();
+                if (timeout.tick <= targetTick) {
+                    iterator.remove();
+                    due.add(timeout.item);
+                    size--;
+                }
+            }
+        }
+        currentTick = targetTick;
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private long tickOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), tickMillis);
+    }
+
+    private int bucketOf(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.length);
+    }
+
+    private record Timeout<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,62 @@
+package accommodation.booking.service.util;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Token bucket rate limiter: refills at a fixed rate up to its capacity, which bounds the
+ * burst after a quiet period. Like {@link TimingWheel} it has no clock of its own; callers
+ * pass the current time and sleep for the wait that {@link #reserve(Instant)} returns.
+ */
+public final class TokenBucket {
+    private final double permitsPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double permitsPerSecond, int capacity, Instant start) {
+        if (permitsPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Rate and capacity must be positive.");
+        }
+        this.permitsPerNano = permitsPerSecond / Duration.ofSeconds(1).toNanos();
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanosOf(start);
+    }
+
+    /**
+     * Takes a permit if one is available now.
+     */
+    public synchronized boolean tryAcquire(Instant now) {
+        refill(now);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Takes a permit, borrowing against future refills when none is left, and returns how
+     * long the caller has to wait before using it. Waiting callers queue up in call order.
+     */
+    public synchronized Duration reserve(Instant now) {
+        refill(now);
+        tokens--;
+        return tokens >= 0
+                ? Duration.ZERO
+                : Duration.ofNanos((long) Math.ceil(-tokens / permitsPerNano));
+    }
+
+    private void refill(Instant now) {
+        long nowNanos = nanosOf(now);
+        if (nowNanos > lastRefillNanos) {
+            tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+
+    private static long nanosOf(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
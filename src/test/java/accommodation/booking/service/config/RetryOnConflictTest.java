@@ -0,0 +1,106 @@
+package accommodation.booking.service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+@SpringJUnitConfig(RetryOnConflictTest.TestConfig.class)
+@TestPropertySource(properties = {
+        "booking.retry.max-attempts=3",
+        "booking.retry.initial-delay-ms=1",
+        "booking.retry.max-delay-ms=2"
+})
+public class RetryOnConflictTest {
+    private static final String OPERATION = "RetryOnConflictTest$ConflictingWriter.write";
+
+    @Autowired
+    private ConflictingWriter writer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry.clear();
+    }
+
+    @Test
+    @DisplayName("A write that loses the version check is retried until it succeeds")
+    void write_TransientConflict_RetriesAndRecovers() {
+        // Given: The first two attempts conflict
+        writer.reset(2);
+
+        // When: Call the retried method
+        String result = writer.write();
+
+        // Then: The third attempt succeeds and every conflict is counted
+        assertThat(result).isEqualTo("written");
+        assertThat(writer.attempts()).isEqualTo(3);
+        assertThat(meterRegistry.get(ConflictRetryListener.CONFLICTS_METRIC)
+                .tag("operation", OPERATION).counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(ConflictRetryListener.OUTCOMES_METRIC)
+                .tag("outcome", "recovered").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A write that keeps conflicting fails after the configured number of attempts")
+    void write_PersistentConflict_RethrowsAfterMaxAttempts() {
+        // Given: Every attempt conflicts
+        writer.reset(Integer.MAX_VALUE);
+
+        // When & Then: The conflict is surfaced once attempts are exhausted
+        assertThrows(ObjectOptimisticLockingFailureException.class, writer::write);
+        assertThat(writer.attempts()).isEqualTo(3);
+        assertThat(meterRegistry.get(ConflictRetryListener.OUTCOMES_METRIC)
+                .tag("outcome", "exhausted").counter().count()).isEqualTo(1);
+    }
+
+    @Configuration
+    @Import({RetryConfig.class, ConflictRetryListener.class})
+    static class TestConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ConflictingWriter conflictingWriter() {
+            return new ConflictingWriter();
+        }
+    }
+
+    static class ConflictingWriter {
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile int conflictingAttempts;
+
+        public void reset(int conflictingAttempts) {
+            this.conflictingAttempts = conflictingAttempts;
+            attempts.set(0);
+        }
+
+        public int attempts() {
+            return attempts.get();
+        }
+
+        @RetryOnConflict
+        public String write() {
+            if (attempts.incrementAndGet() <= conflictingAttempts) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "written";
+        }
+    }
+}
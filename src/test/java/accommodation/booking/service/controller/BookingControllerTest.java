@@ -152,6 +152,35 @@ public class BookingControllerTest {
                 .isEqualTo(expected);
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = {"MANAGER", "CUSTOMER"})
+    @DisplayName("Retrying a booking under the same Idempotency-Key returns the first booking")
+    void createBooking_RetriedWithIdempotencyKey_ReplaysResponse() throws Exception {
+        // Arrange
+        AuthenticationTestUtil.authenticateUser(
+                3L, "jane.doe@example.com", Role.RoleName.ROLE_CUSTOMER);
+        String requestJson = objectMapper.writeValueAsString(
+                BookingTestUtil.initializeBookingRequestDto());
+
+        // Act
+        String first = mockMvc.perform(post("/bookings")
+                        .header("Idempotency-Key", "booking-retry-1")
+                        .content(requestJson)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String retried = mockMvc.perform(post("/bookings")
+                        .header("Idempotency-Key", "booking-retry-1")
+                        .content(requestJson)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        assertThat(objectMapper.readValue(retried, BookingResponseDto.class))
+                .isEqualTo(objectMapper.readValue(first, BookingResponseDto.class));
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = {"MANAGER", "CUSTOMER"})
     @DisplayName("Create booking with pending payments should fail")
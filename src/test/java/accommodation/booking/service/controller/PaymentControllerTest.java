@@ -18,6 +18,7 @@ import accommodation.booking.service.model.Role;
 import accommodation.booking.service.service.payment.StripeService;
 import accommodation.booking.service.util.AuthenticationTestUtil;
 import accommodation.booking.service.util.PaymentServiceTestUtil;
+import accommodation.booking.service.util.StripeWebhookTestUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -270,6 +271,33 @@ public class PaymentControllerTest {
                 .isEqualTo(expected);
     }
 
+    @Test
+    @DisplayName("Stripe webhook with a valid signature is acknowledged, a forged one rejected")
+    void handleWebhook_SignedEvent_ReturnsOk() throws Exception {
+        // Arrange
+        String payload = StripeWebhookTestUtil.sessionEvent(
+                "evt_test_1", "checkout.session.completed", "session7890", "paid");
+        String signature = StripeWebhookTestUtil.signatureHeader(
+                payload, StripeWebhookTestUtil.WEBHOOK_SECRET);
+
+        // Act & Assert
+        mockMvc.perform(
+                        post("/payments/webhook")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header("Stripe-Signature", signature)
+                                .content(payload)
+                )
+                .andExpect(status().isOk());
+        mockMvc.perform(
+                        post("/payments/webhook")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header("Stripe-Signature",
+                                        StripeWebhookTestUtil.signatureHeader(payload, "forged"))
+                                .content(payload)
+                )
+                .andExpect(status().isBadRequest());
+    }
+
     @TestConfiguration
     static class PaymentTestConfig {
         @Bean
@@ -277,7 +305,7 @@ public class PaymentControllerTest {
         public StripeService stripeService() {
             StripeService stripeService = Mockito.mock(StripeService.class);
             Session stripeSession = PaymentServiceTestUtil.initializeStripeSession();
-            when(stripeService.createSession(any(), any())).thenReturn(stripeSession);
+            when(stripeService.createSession(any(), any(), any())).thenReturn(stripeSession);
             return stripeService;
         }
     }
@@ -0,0 +1,121 @@
+package accommodation.booking.service.repository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import accommodation.booking.service.config.CustomPostgresContainer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql(scripts = {
+        "classpath:database/user/add-users.sql",
+        "classpath:database/user/add-additional-users.sql",
+        "classpath:database/accommodation/add-accommodations.sql",
+        "classpath:database/booking/add-bookings.sql",
+        "classpath:database/booking/add-additional-bookings.sql",
+        "classpath:database/booking/add-stay-range-column.sql"
+}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = {
+        "classpath:database/booking/remove-stay-range-column.sql",
+        "classpath:database/booking/remove-all-bookings.sql",
+        "classpath:database/accommodation/remove-all-accommodations.sql",
+        "classpath:database/user/remove-all-users.sql"
+}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+public class BookingStayRangeRepositoryTest {
+    private static final String STAY_INDEX = "idx_bookings_active_stay";
+
+    @Container
+    private static final CustomPostgresContainer postgresContainer =
+            CustomPostgresContainer.getInstance();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private Long accommodationId;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        accommodationId = 15L;
+        checkInDate = LocalDate.of(2026, 5, 1);
+        checkOutDate = LocalDate.of(2026, 5, 15);
+    }
+
+    @Test
+    @DisplayName("Stay-range max occupancy matches the generate_series query")
+    void findMaxOccupancyByStay_OverlappingBookings_MatchesLegacyQuery() {
+        int expected = bookingRepository.findMaxOccupancy(
+                accommodationId, checkInDate, checkOutDate, null, "CANCELED", "EXPIRED");
+        int actual = bookingRepository.findMaxOccupancyByStay(
+                accommodationId, checkInDate, checkOutDate, null);
+        assertEquals(expected, actual, "Both overlap queries should agree");
+        assertEquals(4, actual, "Bookings 36, 58, 59 and 67 all cover May 8");
+    }
+
+    @Test
+    @DisplayName("Stay-range max occupancy ignores the excluded booking")
+    void findMaxOccupancyByStay_ExcludeBooking_ReducesOccupancy() {
+        int actual = bookingRepository.findMaxOccupancyByStay(
+                accommodationId, checkInDate, checkOutDate, 67L);
+        assertEquals(3, actual, "Without booking 67 at most three bookings overlap");
+    }
+
+    @Test
+    @DisplayName("Stay-range daily occupancy returns one count per day")
+    void findDailyOccupancyByStay_Range_ReturnsCountPerDay() {
+        List<Integer> actual = bookingRepository.findDailyOccupancyByStay(
+                accommodationId, LocalDate.of(2026, 5, 7), LocalDate.of(2026, 5, 11));
+        assertArrayEquals(new int[] {2, 4, 2, 3, 2},
+                actual.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    @Test
+    @DisplayName("Max occupancy overlap query is answered from the partial GiST index")
+    void explainMaxOccupancyByStay_UsesStayIndex() {
+        String plan = explain(BookingRepository.STAY_MAX_OCCUPANCY_SQL, Map.of(
+                "accommodationId", accommodationId,
+                "checkInDate", checkInDate,
+                "checkOutDate", checkOutDate,
+                "excludeBookingId", -1L));
+        assertTrue(plan.contains(STAY_INDEX), "Plan should use " + STAY_INDEX + ":\n" + plan);
+    }
+
+    @Test
+    @DisplayName("Daily occupancy query probes the partial GiST index")
+    void explainDailyOccupancyByStay_UsesStayIndex() {
+        String plan = explain(BookingRepository.STAY_DAILY_OCCUPANCY_SQL, Map.of(
+                "accommodationId", accommodationId,
+                "fromDate", checkInDate,
+                "toDate", checkOutDate));
+        assertTrue(plan.contains(STAY_INDEX), "Plan should use " + STAY_INDEX + ":\n" + plan);
+    }
+
+    private String explain(String sql, Map<String, Object> parameters) {
+        // The fixture tables are tiny, so rule out sequential scans to expose index eligibility
+        jdbcTemplate.getJdbcTemplate().execute("SET LOCAL enable_seqscan = off");
+        return String.join("\n",
+                jdbcTemplate.queryForList("EXPLAIN " + sql, parameters, String.class));
+    }
+}
@@ -3,6 +3,7 @@ package accommodation.booking.service.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -16,6 +17,8 @@ import accommodation.booking.service.service.accommodation.AccommodationServiceI
 import accommodation.booking.service.service.notification.AccommodationNotificationUtil;
 import accommodation.booking.service.util.AccommodationTestUtil;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -24,11 +27,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 @ExtendWith(MockitoExtension.class)
 public class AccommodationServiceImplTest {
     private static final Long ACTUAL_ID = 1L;
     private static final BigDecimal NEW_DAILY_RATE = BigDecimal.valueOf(170.00);
+    private static final LocalDate CHECK_IN = LocalDate.of(2026, 5, 1);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2026, 5, 5);
     private AccommodationRequestDto requestDto;
     private Accommodation accommodation;
     private AccommodationResponseDto expected;
@@ -116,4 +125,33 @@ public class AccommodationServiceImplTest {
         verify(accommodationRepository).save(accommodation);
         verify(accommodationMapper).intoDto(accommodation);
     }
+
+    @Test
+    @DisplayName("Get available accommodations delegates to a single set-based query")
+    void getAvailableAccommodations_ValidRange_ReturnsAvailablePage() {
+        // Given: One accommodation with free capacity for the range
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Accommodation> page = new PageImpl<>(List.of(accommodation), pageable, 1);
+        when(accommodationRepository.findAvailable(CHECK_IN, CHECK_OUT, 2, pageable))
+                .thenReturn(page);
+        when(accommodationMapper.intoDto(accommodation)).thenReturn(expected);
+
+        // When: Call the service method
+        Page<AccommodationResponseDto> actual = accommodationService.getAvailableAccommodations(
+                CHECK_IN, CHECK_OUT, 2, pageable);
+
+        // Then: Verify the result and interactions
+        assertThat(actual.getContent()).containsExactly(expected);
+        verify(accommodationRepository).findAvailable(CHECK_IN, CHECK_OUT, 2, pageable);
+    }
+
+    @Test
+    @DisplayName("Get available accommodations with reversed dates throws exception")
+    void getAvailableAccommodations_CheckOutBeforeCheckIn_ThrowsIllegalArgumentException() {
+        // When/Then: Verify that an exception is thrown and no query is issued
+        assertThrows(IllegalArgumentException.class,
+                () -> accommodationService.getAvailableAccommodations(
+                        CHECK_OUT, CHECK_IN, 1, PageRequest.of(0, 10)));
+        verify(accommodationRepository, never()).findAvailable(any(), any(), anyInt(), any());
+    }
 }
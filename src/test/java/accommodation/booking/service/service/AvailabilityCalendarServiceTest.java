@@ -0,0 +1,145 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.dto.accommodation.AccommodationCalendarDto;
+import accommodation.booking.service.model.Accommodation;
+import accommodation.booking.service.model.AccommodationDailyOccupancy;
+import accommodation.booking.service.repository.AccommodationDailyOccupancyRepository;
+import accommodation.booking.service.service.availability.AvailabilityCalendarService;
+import accommodation.booking.service.service.availability.CalendarTileCache;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AvailabilityCalendarServiceTest {
+    private static final Long ACCOMMODATION_ID = 15L;
+    private static final YearMonth MAY = YearMonth.of(2026, 5);
+    private static final long TTL_SECONDS = 30;
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-05-01T10:00:00Z"));
+    private Accommodation accommodation;
+    private CalendarTileCache calendarTileCache;
+    private AvailabilityCalendarService calendarService;
+
+    @Mock
+    private AccommodationDailyOccupancyRepository occupancyRepository;
+
+    @BeforeEach
+    void setUp() {
+        accommodation = new Accommodation(ACCOMMODATION_ID);
+        accommodation.setAvailability(3);
+        calendarTileCache = new CalendarTileCache(2, TTL_SECONDS, clock);
+        calendarService = new AvailabilityCalendarService(occupancyRepository, calendarTileCache);
+    }
+
+    @Test
+    @DisplayName("Get calendar computes remaining capacity and reuses the cached tile")
+    void getCalendar_RepeatedRequests_ComputesTileOnce() {
+        // Given: Two booked units on May 8
+        when(occupancyRepository.findAllByIdAccommodationIdAndIdDayBetween(
+                ACCOMMODATION_ID, MAY.atDay(1), MAY.atEndOfMonth()))
+                .thenReturn(List.of(occupancy(MAY.atDay(8), 2)));
+
+        // When: Request the same month twice
+        AccommodationCalendarDto first = calendarService.getCalendar(accommodation, MAY);
+        AccommodationCalendarDto second = calendarService.getCalendar(accommodation, MAY);
+
+        // Then: Every day is present and the tile was read from the database once
+        assertThat(first.getDays()).hasSize(31);
+        assertThat(first.getDays().get(7).getRemaining()).isEqualTo(1);
+        assertThat(first.getDays().get(0).getRemaining()).isEqualTo(3);
+        assertThat(second).isEqualTo(first);
+        verify(occupancyRepository, times(1)).findAllByIdAccommodationIdAndIdDayBetween(
+                ACCOMMODATION_ID, MAY.atDay(1), MAY.atEndOfMonth());
+    }
+
+    @Test
+    @DisplayName("Evicting an overlapping range forces the tile to be recomputed")
+    void getCalendar_OverlappingChangeEvicted_RecomputesTile() {
+        // Given: A cached tile
+        when(occupancyRepository.findAllByIdAccommodationIdAndIdDayBetween(
+                ACCOMMODATION_ID, MAY.atDay(1), MAY.atEndOfMonth()))
+                .thenReturn(List.of(), List.of(occupancy(MAY.atDay(30), 3)));
+        calendarService.getCalendar(accommodation, MAY);
+
+        // When: A booking from April 28 to May 2 changes, then the month is requested again
+        calendarTileCache.evict(ACCOMMODATION_ID, LocalDate.of(2026, 4, 28), MAY.atDay(2));
+        AccommodationCalendarDto actual = calendarService.getCalendar(accommodation, MAY);
+
+        // Then: The fresh tile reflects the new occupancy
+        assertThat(actual.getDays().get(29).getRemaining()).isZero();
+        verify(occupancyRepository, times(2)).findAllByIdAccommodationIdAndIdDayBetween(
+                ACCOMMODATION_ID, MAY.atDay(1), MAY.atEndOfMonth());
+    }
+
+    @Test
+    @DisplayName("A tile older than its TTL is recomputed even without an eviction")
+    void getCalendar_TileExpired_RecomputesTile() {
+        // Given: A cached tile, while another replica books the last units on May 30
+        when(occupancyRepository.findAllByIdAccommodationIdAndIdDayBetween(
+                ACCOMMODATION_ID, MAY.atDay(1), MAY.atEndOfMonth()))
+                .thenReturn(List.of(), List.of(occupancy(MAY.atDay(30), 3)));
+        calendarService.getCalendar(accommodation, MAY);
+
+        // When: The TTL passes and the month is requested again
+        clock.advance(Duration.ofSeconds(TTL_SECONDS));
+        AccommodationCalendarDto actual = calendarService.getCalendar(accommodation, MAY);
+
+        // Then: The tile was read again and shows the change
+        assertThat(actual.getDays().get(29).getRemaining()).isZero();
+        verify(occupancyRepository, times(2)).findAllByIdAccommodationIdAndIdDayBetween(
+                ACCOMMODATION_ID, MAY.atDay(1), MAY.atEndOfMonth());
+    }
+
+    private AccommodationDailyOccupancy occupancy(LocalDate day, int bookedCount) {
+        AccommodationDailyOccupancy.Key key = new AccommodationDailyOccupancy.Key();
+        key.setAccommodationId(ACCOMMODATION_ID);
+        key.setDay(day);
+        AccommodationDailyOccupancy occupancy = new AccommodationDailyOccupancy();
+        occupancy.setId(key);
+        occupancy.setBookedCount(bookedCount);
+        return occupancy;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.booking.BookingCheckoutScheduler;
+import accommodation.booking.service.service.booking.BookingExpirationService;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingCheckoutSchedulerTest {
+    private static final Long ACCOMMODATION_ID = 4L;
+    private static final int CHUNK_SIZE = 100;
+    private static final LocalDate TODAY = LocalDate.of(2026, 5, 1);
+    private static final LocalDate TOMORROW = TODAY.plusDays(1);
+    private static final Instant NOON = Instant.parse("2026-05-01T12:00:00Z");
+    private MutableClock clock;
+    private BookingCheckoutScheduler checkoutScheduler;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingExpirationService bookingExpirationService;
+
+    @Mock
+    private MaintenanceJobRunner maintenanceJobRunner;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOON);
+        checkoutScheduler = new BookingCheckoutScheduler(bookingRepository,
+                bookingExpirationService, maintenanceJobRunner, clock, "11:00", 60, 1, 1000,
+                CHUNK_SIZE, 3_600_000);
+    }
+
+    @Test
+    @DisplayName("Loading the first window schedules the checkouts through the next day")
+    void loadWindow_FirstLoad_LoadsNextDay() {
+        // Given: Today's checkout time has passed
+        when(bookingRepository.findActiveCheckouts(TODAY, Long.MAX_VALUE, TOMORROW, CHUNK_SIZE))
+                .thenReturn(List.of(checkout(7L, TOMORROW)));
+
+        // When: The first window is loaded
+        int loadedCount = checkoutScheduler.loadWindow();
+
+        // Then: Tomorrow's checkouts are read into the wheel without sweeping
+        assertThat(loadedCount).isEqualTo(1);
+        verify(bookingRepository).findActiveCheckouts(
+                TODAY, Long.MAX_VALUE, TOMORROW, CHUNK_SIZE);
+        verify(bookingExpirationService, never()).expireDueBookings(any());
+    }
+
+    @Test
+    @DisplayName("The overdue sweep expires checkouts whose spread has fully passed")
+    void sweepOverdue_SpreadPassed_ExpiresThroughToday() {
+        // Given: Today's checkout time and its spread have passed
+
+        // When: The overdue checkouts are swept
+        checkoutScheduler.sweepOverdue();
+
+        // Then: Checkouts through today are expired
+        verify(bookingExpirationService).expireDueBookings(TODAY);
+    }
+
+    @Test
+    @DisplayName("Refreshing the window leases the sweep but loads the wheel on every replica")
+    void refreshWindow_LeasesSweepOnly() {
+        // When: The window refresh fires
+        checkoutScheduler.refreshWindow();
+
+        // Then: Only the sweep is cluster-exclusive
+        verify(maintenanceJobRunner).launchExclusive(
+                eq(BookingExpirationService.JOB_NAME), eq(Duration.ofHours(1)), any());
+        verify(maintenanceJobRunner).launch(eq(BookingCheckoutScheduler.WINDOW_JOB_NAME), any());
+    }
+
+    @Test
+    @DisplayName("A loaded checkout expires once its own deadline passes, not before")
+    void expireDue_DeadlinePassed_ExpiresBooking() {
+        // Given: Tomorrow's checkout loaded into the wheel
+        runChunksInline();
+        when(bookingRepository.findActiveCheckouts(TODAY, Long.MAX_VALUE, TOMORROW, CHUNK_SIZE))
+                .thenReturn(List.of(checkout(7L, TOMORROW)));
+        checkoutScheduler.loadWindow();
+
+        // When: The wheel ticks just before tomorrow's checkout time, then after its spread
+        clock.advance(Duration.ofHours(22).plusMinutes(59));
+        checkoutScheduler.expireDue();
+        verify(bookingExpirationService, never()).expireBookings(anyList(), any());
+        clock.advance(Duration.ofMinutes(62));
+        checkoutScheduler.expireDue();
+
+        // Then: The booking is expired against tomorrow's cutoff
+        verify(bookingExpirationService).expireBookings(List.of(7L), TOMORROW);
+    }
+
+    @Test
+    @DisplayName("Bookings changed after their day was loaded are tracked into the wheel")
+    void track_CheckoutInLoadedWindow_SchedulesExpiry() {
+        // Given: A loaded window and a booking tracked before any window was loaded
+        runChunksInline();
+        checkoutScheduler.track(checkout(8L, TOMORROW));
+        when(bookingRepository.findActiveCheckouts(TODAY, Long.MAX_VALUE, TOMORROW, CHUNK_SIZE))
+                .thenReturn(List.of());
+        checkoutScheduler.loadWindow();
+
+        // When: A booking checking out tomorrow is created, and tomorrow's spread passes
+        checkoutScheduler.track(checkout(9L, TOMORROW));
+        checkoutScheduler.track(checkout(10L, TOMORROW.plusDays(1)));
+        clock.advance(Duration.ofDays(1).plusMinutes(1));
+        checkoutScheduler.expireDue();
+
+        // Then: Only the booking tracked inside the loaded window is expired by the wheel
+        verify(bookingExpirationService).expireBookings(List.of(9L), TOMORROW);
+    }
+
+    @Test
+    @DisplayName("The scheduler tick only launches a run when checkouts are pending")
+    void expireDueCheckouts_EmptyWheel_DoesNotLaunch() {
+        // When: The scheduler ticks with nothing loaded
+        checkoutScheduler.expireDueCheckouts();
+
+        // Then: No job is launched
+        verify(maintenanceJobRunner, never())
+                .launch(eq(BookingCheckoutScheduler.EXPIRY_JOB_NAME), any());
+    }
+
+    private void runChunksInline() {
+        when(maintenanceJobRunner.runChunks(any(), anyList(), any())).thenAnswer(invocation ->
+                invocation.<ToIntFunction<List<Long>>>getArgument(2)
+                        .applyAsInt(invocation.getArgument(1)));
+    }
+
+    private BookingSpan checkout(Long bookingId, LocalDate checkOutDate) {
+        return new BookingSpan(bookingId, ACCOMMODATION_ID,
+                checkOutDate.minusDays(3), checkOutDate);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
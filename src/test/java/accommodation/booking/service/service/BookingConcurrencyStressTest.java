@@ -0,0 +1,287 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import accommodation.booking.service.dto.booking.BookingRequestDto;
+import accommodation.booking.service.dto.booking.BookingResponseDto;
+import accommodation.booking.service.exceptions.AccommodationNotAvailableException;
+import accommodation.booking.service.mapper.BookingMapper;
+import accommodation.booking.service.model.User;
+import accommodation.booking.service.repository.AccommodationRepository;
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.repository.PaymentRepository;
+import accommodation.booking.service.repository.UserRepository;
+import accommodation.booking.service.service.availability.AvailabilityService;
+import accommodation.booking.service.service.availability.InventoryLockManager;
+import accommodation.booking.service.service.booking.BookingCheckoutScheduler;
+import accommodation.booking.service.service.booking.BookingHoldService;
+import accommodation.booking.service.service.booking.BookingServiceImpl;
+import accommodation.booking.service.service.notification.AccommodationNotificationUtil;
+import accommodation.booking.service.service.notification.BookingNotificationUtil;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.sql.DataSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Books the last units of two accommodations from 200 concurrent transactions against real
+ * Postgres. The requests are spread over four service instances, each with its own
+ * {@link InventoryLockManager}, so the in-process locks do not serialize them and only the
+ * advisory lock and the stored occupancy stand between them and an overbooking.
+ */
+@SpringBootTest(properties = "booking.availability.strategy=database")
+public class BookingConcurrencyStressTest {
+    private static final int PARALLEL_REQUESTS = 200;
+    private static final int INSTANCES = 4;
+    private static final List<Long> ACCOMMODATION_IDS = List.of(15L, 18L);
+    private static final List<Long> USER_IDS = List.of(2L, 3L, 4L, 5L);
+    private static final LocalDate CHECK_IN_DATE = LocalDate.of(2027, 6, 1);
+    private static final LocalDate CHECK_OUT_DATE = LocalDate.of(2027, 6, 5);
+    private final List<BookingServiceImpl> instances = new ArrayList<>();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AccommodationRepository accommodationRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingMapper bookingMapper;
+
+    @Autowired
+    private BookingNotificationUtil bookingNotificationUtil;
+
+    @Autowired
+    private AccommodationNotificationUtil accommodationNotificationUtil;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private BookingHoldService bookingHoldService;
+
+    @Autowired
+    private BookingCheckoutScheduler bookingCheckoutScheduler;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        teardown(dataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            ScriptUtils.executeSqlScript(
+                    connection,
+                    new ClassPathResource("database/user/add-users.sql")
+            );
+            ScriptUtils.executeSqlScript(
+                    connection,
+                    new ClassPathResource("database/user/add-additional-users.sql")
+            );
+            ScriptUtils.executeSqlScript(
+                    connection,
+                    new ClassPathResource("database/accommodation/add-accommodations.sql")
+            );
+        }
+        for (int i = 0; i < INSTANCES; i++) {
+            instances.add(new BookingServiceImpl(
+                    bookingRepository,
+                    accommodationRepository,
+                    paymentRepository,
+                    bookingMapper,
+                    bookingNotificationUtil,
+                    accommodationNotificationUtil,
+                    availabilityService,
+                    new InventoryLockManager(accommodationRepository, 30_000),
+                    bookingHoldService,
+                    bookingCheckoutScheduler));
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        teardown(dataSource);
+    }
+
+    @SneakyThrows
+    static void teardown(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            ScriptUtils.executeSqlScript(
+                    connection,
+                    new ClassPathResource("database/booking/remove-all-bookings.sql")
+            );
+            ScriptUtils.executeSqlScript(
+                    connection,
+                    new ClassPathResource("database/accommodation/remove-all-accommodations.sql")
+            );
+            ScriptUtils.executeSqlScript(
+                    connection,
+                    new ClassPathResource("database/user/remove-all-users.sql")
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("200 concurrent bookings across instances never overbook an accommodation")
+    void createBooking_ParallelRequestsAcrossInstances_NeverOverbooks() throws Exception {
+        // Given: 200 requests for the same stay, spread over two accommodations and four
+        // service instances
+        List<User> users = USER_IDS.stream()
+                .map(id -> userRepository.findById(id).orElseThrow())
+                .toList();
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < PARALLEL_REQUESTS; i++) {
+            BookingServiceImpl instance = instances.get(i % INSTANCES);
+            Long accommodationId = ACCOMMODATION_IDS.get(i % ACCOMMODATION_IDS.size());
+            User user = users.get(i % users.size());
+            results.add(executor.submit(() -> {
+                start.await();
+                return book(instance, accommodationId, user);
+            }));
+        }
+
+        // When: All requests are released at once
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+
+        // Then: Every accommodation is filled exactly to its units, every successful
+        // request left exactly one booking behind and only the surplus was rejected
+        int totalBooked = 0;
+        int totalAvailability = 0;
+        for (Long accommodationId : ACCOMMODATION_IDS) {
+            int availability = availability(accommodationId);
+            int booked = activeBookings(accommodationId);
+            assertThat(booked).isEqualTo(availability);
+            totalBooked += booked;
+            totalAvailability += availability;
+        }
+        assertThat(succeeded).isEqualTo(totalBooked).isEqualTo(totalAvailability);
+    }
+
+    @Test
+    @DisplayName("Concurrent moves into an almost full accommodation take only its last unit")
+    void updateBookingDetails_ParallelMovesIntoLastUnit_NeverOverbooks() throws Exception {
+        // Given: Accommodation 18 has one unit left and accommodation 15 is full
+        Long source = ACCOMMODATION_IDS.get(0);
+        Long target = ACCOMMODATION_IDS.get(1);
+        int sourceUnits = availability(source);
+        int targetUnits = availability(target);
+        List<User> users = USER_IDS.stream()
+                .map(id -> userRepository.findById(id).orElseThrow())
+                .toList();
+        for (int i = 0; i < targetUnits - 1; i++) {
+            assertThat(book(instances.get(0), target, users.get(i % users.size()))).isTrue();
+        }
+        List<BookingResponseDto> moving = new ArrayList<>();
+        for (int i = 0; i < sourceUnits; i++) {
+            User user = users.get(i % users.size());
+            moving.add(transactionTemplate.execute(status -> instances.get(0)
+                    .createBooking(request(source), user)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(sourceUnits);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < moving.size(); i++) {
+            BookingServiceImpl instance = instances.get(i % INSTANCES);
+            BookingResponseDto booking = moving.get(i);
+            User user = users.get(i % users.size());
+            results.add(executor.submit(() -> {
+                start.await();
+                return move(instance, booking.getId(), target, user);
+            }));
+        }
+
+        // When: Every booking of accommodation 15 is moved to accommodation 18 at once
+        start.countDown();
+        int moved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                moved++;
+            }
+        }
+        executor.shutdown();
+
+        // Then: Exactly one move took the last unit and the rest stayed where they were
+        assertThat(moved).isEqualTo(1);
+        assertThat(activeBookings(target)).isEqualTo(targetUnits);
+        assertThat(activeBookings(source)).isEqualTo(sourceUnits - 1);
+    }
+
+    private boolean book(BookingServiceImpl instance, Long accommodationId, User user) {
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> instance.createBooking(request(accommodationId), user));
+            return true;
+        } catch (AccommodationNotAvailableException e) {
+            return false;
+        }
+    }
+
+    private boolean move(BookingServiceImpl instance, Long bookingId, Long accommodationId,
+                         User user) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> instance.updateBookingDetails(
+                    bookingId, request(accommodationId), user));
+            return true;
+        } catch (AccommodationNotAvailableException e) {
+            return false;
+        }
+    }
+
+    private BookingRequestDto request(Long accommodationId) {
+        BookingRequestDto requestDto = new BookingRequestDto();
+        requestDto.setAccommodationId(accommodationId);
+        requestDto.setCheckInDate(CHECK_IN_DATE);
+        requestDto.setCheckOutDate(CHECK_OUT_DATE);
+        return requestDto;
+    }
+
+    private int availability(Long accommodationId) {
+        return accommodationRepository.findById(accommodationId).orElseThrow().getAvailability();
+    }
+
+    private int activeBookings(Long accommodationId) {
+        return new JdbcTemplate(dataSource).queryForObject("""
+                SELECT COUNT(*) FROM bookings
+                WHERE accommodation_id = ?
+                    AND is_deleted = false
+                    AND status NOT IN ('CANCELED', 'EXPIRED')""",
+                Integer.class, accommodationId);
+    }
+}
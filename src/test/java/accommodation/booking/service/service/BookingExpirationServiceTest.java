@@ -1,88 +1,167 @@
 package accommodation.booking.service.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import accommodation.booking.service.model.Accommodation;
-import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.repository.AccommodationRepository;
 import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.service.availability.AvailabilityService;
+import accommodation.booking.service.service.availability.BookingSpan;
 import accommodation.booking.service.service.booking.BookingExpirationService;
+import accommodation.booking.service.service.job.IdRange;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
 import accommodation.booking.service.service.notification.AccommodationNotificationUtil;
 import accommodation.booking.service.service.notification.BookingNotificationUtil;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @ExtendWith(MockitoExtension.class)
 public class BookingExpirationServiceTest {
-    private static final Long BOOKING_ID = 1L;
     private static final Long ACCOMMODATION_ID = 1L;
-    private Booking booking;
+    private static final int CHUNK_SIZE = 2;
+    private static final LocalDate TODAY = LocalDate.of(2026, 5, 1);
+    private static final LocalDate TOMORROW = TODAY.plusDays(1);
     private Accommodation accommodation;
+    private BookingExpirationService bookingExpirationService;
+
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private AccommodationRepository accommodationRepository;
+
     @Mock
     private BookingNotificationUtil bookingNotificationUtil;
 
     @Mock
     private AccommodationNotificationUtil accommodationNotificationUtil;
 
-    @InjectMocks
-    private BookingExpirationService bookingExpirationService;
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MaintenanceJobRunner maintenanceJobRunner;
 
     @BeforeEach
     void setUp() {
-        accommodation = initializeAccommodation();
-        booking = initializeBooking();
+        bookingExpirationService = new BookingExpirationService(bookingRepository,
+                accommodationRepository, bookingNotificationUtil, accommodationNotificationUtil,
+                availabilityService, transactionTemplate, maintenanceJobRunner, CHUNK_SIZE);
+        accommodation = new Accommodation(ACCOMMODATION_ID);
+    }
+
+    @Test
+    @DisplayName("Expire due bookings walks each partition chunk by chunk and notifies per chunk")
+    void expireDueBookings_ExpiredBookingsFound_ExpiresInChunksAndNotifies() {
+        // Given: Three due bookings in one partition, served as a full chunk and a partial one
+        final List<BookingSpan> firstChunk = List.of(span(3L), span(7L));
+        final List<BookingSpan> secondChunk = List.of(span(9L));
+        runPartitionsInline();
+        runTransactionsInline();
+        when(bookingRepository.findDueIdRange(TOMORROW))
+                .thenReturn(Optional.of(new IdRange(3L, 9L)));
+        when(bookingRepository.expireChunk(TOMORROW, 2L, 9L, CHUNK_SIZE)).thenReturn(firstChunk);
+        when(bookingRepository.expireChunk(TOMORROW, 7L, 9L, CHUNK_SIZE))
+                .thenReturn(secondChunk);
+        when(bookingRepository.expireChunk(TOMORROW, 9L, 9L, CHUNK_SIZE)).thenReturn(List.of());
+        when(accommodationRepository.findAllById(List.of(ACCOMMODATION_ID)))
+                .thenReturn(List.of(accommodation));
+
+        // When: Call the service method
+        int expiredCount = bookingExpirationService.expireDueBookings(TOMORROW);
+
+        // Then: Every chunk is released from availability and announced
+        assertThat(expiredCount).isEqualTo(3);
+        verify(availabilityService).releaseAll(firstChunk);
+        verify(availabilityService).releaseAll(secondChunk);
+        verify(bookingNotificationUtil).notifyBookingsExpired(firstChunk);
+        verify(bookingNotificationUtil).notifyBookingsExpired(secondChunk);
     }
 
     @Test
-    @DisplayName("Check expired bookings marks bookings as EXPIRED and sends notifications")
-    void checkExpiredBookings_ExpiredBookingsFound_MarksExpiredAndNotifies() {
-        // Given: One expired booking is found
-        LocalDate today = LocalDate.now();
-        LocalDate tomorrow = today.plusDays(1);
-        when(bookingRepository.findAllByCheckOutDateLessThanEqualAndStatusNot(
-                tomorrow, Booking.BookingStatus.CANCELED
-        )).thenReturn(List.of(booking));
-        when(bookingRepository.save(booking)).thenReturn(booking);
+    @DisplayName("Expire due bookings stays silent when nothing is due")
+    void expireDueBookings_NoExpiredBookings_SendsNothing() {
+        // Given: No due bookings
+        when(bookingRepository.findDueIdRange(TOMORROW)).thenReturn(Optional.empty());
 
         // When: Call the service method
-        bookingExpirationService.checkExpiredBookings();
-
-        // Then: Verify the booking is marked EXPIRED and notifications are sent
-        assertThat(booking.getStatus()).isEqualTo(Booking.BookingStatus.EXPIRED);
-        verify(bookingRepository).findAllByCheckOutDateLessThanEqualAndStatusNot(
-                tomorrow, Booking.BookingStatus.CANCELED
-        );
-        verify(bookingRepository).save(booking);
-        verify(bookingNotificationUtil).notifyBookingExpired(booking, accommodation);
+        int expiredCount = bookingExpirationService.expireDueBookings(TOMORROW);
+
+        // Then: Nothing is expired or announced
+        assertThat(expiredCount).isZero();
+        verify(maintenanceJobRunner, never()).runPartitions(any(), anyList(), any());
+        verify(bookingNotificationUtil, never()).notifyBookingsExpired(anyList());
+    }
+
+    @Test
+    @DisplayName("Expire bookings by id releases and announces only the bookings still due")
+    void expireBookings_SomeStillDue_ReleasesAndNotifiesThose() {
+        // Given: Two due checkouts, one of which was cancelled in the meantime
+        final List<BookingSpan> expired = List.of(span(3L));
+        runTransactionsInline();
+        when(bookingRepository.expireAllById(List.of(3L, 4L), TODAY)).thenReturn(expired);
+        when(accommodationRepository.findAllById(List.of(ACCOMMODATION_ID)))
+                .thenReturn(List.of(accommodation));
+
+        // When: Call the service method
+        int expiredCount = bookingExpirationService.expireBookings(List.of(3L, 4L), TODAY);
+
+        // Then: Only the booking still due is released and announced
+        assertThat(expiredCount).isEqualTo(1);
+        verify(availabilityService).releaseAll(expired);
+        verify(bookingNotificationUtil).notifyBookingsExpired(expired);
         verify(accommodationNotificationUtil).notifyAccommodationReleased(accommodation);
-        verify(bookingNotificationUtil, never()).notifyNoExpiredBooking();
     }
 
-    private Accommodation initializeAccommodation() {
-        Accommodation accommodation = new Accommodation();
-        accommodation.setId(ACCOMMODATION_ID);
-        return accommodation;
+    @Test
+    @DisplayName("A failed chunk stops its partition without announcing it")
+    void expireDueBookings_ChunkFails_StopsPartition() {
+        // Given: The first chunk of the only partition fails to commit
+        runPartitionsInline();
+        when(bookingRepository.findDueIdRange(TOMORROW))
+                .thenReturn(Optional.of(new IdRange(3L, 9L)));
+        when(transactionTemplate.execute(any())).thenThrow(new IllegalStateException("Down"));
+
+        // When: Call the service method
+        bookingExpirationService.expireDueBookings(TOMORROW);
+
+        // Then: Nothing is announced as expired
+        verify(bookingNotificationUtil, never()).notifyBookingsExpired(anyList());
+        verify(accommodationNotificationUtil, never()).notifyAccommodationReleased(any());
+    }
+
+    private void runPartitionsInline() {
+        when(maintenanceJobRunner.parallelism()).thenReturn(1);
+        when(maintenanceJobRunner.runPartitions(any(), anyList(), any())).thenAnswer(invocation ->
+                invocation.<List<IdRange>>getArgument(1).stream()
+                        .mapToInt(invocation.<ToIntFunction<IdRange>>getArgument(2))
+                        .sum());
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
-    private Booking initializeBooking() {
-        Booking booking = new Booking();
-        booking.setId(BOOKING_ID);
-        booking.setAccommodation(accommodation);
-        booking.setCheckInDate(LocalDate.now().minusDays(5));
-        booking.setCheckOutDate(LocalDate.now());
-        booking.setStatus(Booking.BookingStatus.PENDING);
-        return booking;
+    private BookingSpan span(Long bookingId) {
+        return new BookingSpan(bookingId, ACCOMMODATION_ID, TODAY.minusDays(5), TODAY);
     }
 }
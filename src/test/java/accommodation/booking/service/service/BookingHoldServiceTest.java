@@ -0,0 +1,287 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.model.Accommodation;
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.service.availability.AvailabilityService;
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.availability.InventoryLockManager;
+import accommodation.booking.service.service.booking.BookingHoldService;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingHoldServiceTest {
+    private static final Long ACCOMMODATION_ID = 18L;
+    private static final Long BOOKING_ID = 1L;
+    private static final Instant NOW = Instant.parse("2026-05-01T10:00:00Z");
+    private Booking booking;
+    private MutableClock clock;
+    private BookingHoldService holdService;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private InventoryLockManager inventoryLockManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        holdService = new BookingHoldService(bookingRepository, availabilityService,
+                inventoryLockManager, transactionTemplate, clock, 15, 1000);
+        booking = new Booking();
+        booking.setId(BOOKING_ID);
+        booking.setAccommodation(new Accommodation(ACCOMMODATION_ID));
+        booking.setCheckInDate(LocalDate.of(2026, 5, 1));
+        booking.setCheckOutDate(LocalDate.of(2026, 5, 5));
+        booking.setStatus(Booking.BookingStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("A lapsed hold is released on the booking path and stops being counted")
+    void releaseLapsedHolds_HoldLapsed_ExpiresBookingAndReleasesUnit() {
+        // Given: A tracked hold whose time has passed
+        holdService.placeHold(booking);
+        holdService.track(booking);
+        final BookingSpan span = BookingSpan.of(booking);
+        clock.advance(Duration.ofMinutes(15));
+        when(bookingRepository.findLapsedHoldIds(
+                ACCOMMODATION_ID, Booking.BookingStatus.PENDING, clock.instant()))
+                .thenReturn(List.of(BOOKING_ID));
+        when(bookingRepository.findAllById(List.of(BOOKING_ID))).thenReturn(List.of(booking));
+
+        // When: The accommodation is about to be booked again
+        holdService.releaseLapsedHolds(ACCOMMODATION_ID);
+
+        // Then: The held booking expires and its unit is released
+        assertThat(booking.getStatus()).isEqualTo(Booking.BookingStatus.EXPIRED);
+        assertThat(booking.getExpiresAt()).isNull();
+        verify(bookingRepository).save(booking);
+        verify(availabilityService).recordChange(span, null);
+    }
+
+    @Test
+    @DisplayName("An active hold is left alone")
+    void releaseLapsedHolds_HoldActive_DoesNothing() {
+        // Given: A tracked hold that has not lapsed yet
+        holdService.placeHold(booking);
+        holdService.track(booking);
+        clock.advance(Duration.ofMinutes(14));
+        when(bookingRepository.findLapsedHoldIds(
+                ACCOMMODATION_ID, Booking.BookingStatus.PENDING, clock.instant()))
+                .thenReturn(List.of());
+
+        // When: The accommodation is about to be booked again
+        holdService.releaseLapsedHolds(ACCOMMODATION_ID);
+
+        // Then: Nothing is loaded or released
+        verify(bookingRepository, never()).findAllById(anyList());
+        verify(availabilityService, never()).recordChange(any(), any());
+    }
+
+    @Test
+    @DisplayName("A lapsed hold placed through another instance is released as well")
+    void releaseLapsedHolds_HoldFromOtherInstance_ExpiresBooking() {
+        // Given: A lapsed hold this instance never tracked
+        holdService.placeHold(booking);
+        clock.advance(Duration.ofMinutes(20));
+        when(bookingRepository.findLapsedHoldIds(
+                ACCOMMODATION_ID, Booking.BookingStatus.PENDING, clock.instant()))
+                .thenReturn(List.of(BOOKING_ID));
+        when(bookingRepository.findAllById(List.of(BOOKING_ID))).thenReturn(List.of(booking));
+
+        // When: The accommodation is about to be booked again
+        holdService.releaseLapsedHolds(ACCOMMODATION_ID);
+
+        // Then: The booking found in the database expires
+        assertThat(booking.getStatus()).isEqualTo(Booking.BookingStatus.EXPIRED);
+        verify(bookingRepository).save(booking);
+    }
+
+    @Test
+    @DisplayName("The timing wheel releases a lapsed hold on its next tick")
+    void releaseDueHolds_HoldLapsed_ReleasesInOwnTransaction() {
+        // Given: A tracked hold and a tick after its expiry
+        holdService.placeHold(booking);
+        holdService.track(booking);
+        clock.advance(Duration.ofMinutes(15).plusSeconds(1));
+
+        // When: The scheduler ticks
+        holdService.releaseDueHolds();
+
+        // Then: The release runs in a transaction
+        verify(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Holds whose release failed are retried on the wheel after a backoff")
+    void releaseDueHolds_ReleaseFails_RetriesWithBackoff() {
+        // Given: A lapsed hold whose first two releases fail
+        holdService.placeHold(booking);
+        holdService.track(booking);
+        doThrow(new IllegalStateException("Database down"))
+                .doThrow(new IllegalStateException("Database down"))
+                .doNothing()
+                .when(transactionTemplate).executeWithoutResult(any());
+        clock.advance(Duration.ofMinutes(15).plusSeconds(1));
+        holdService.releaseDueHolds();
+
+        // When: The wheel ticks once a second after the first failure
+        clock.advance(Duration.ofSeconds(1));
+        holdService.releaseDueHolds();
+        clock.advance(Duration.ofSeconds(1));
+        holdService.releaseDueHolds();
+
+        // Then: The hold was retried after one tick and waits two after the second failure
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        clock.advance(Duration.ofSeconds(1));
+        holdService.releaseDueHolds();
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Starting a payment extends the hold to the payment's expiry")
+    void extendHold_ActiveHold_HoldsUntilPaymentExpires() {
+        // Given: A booking with an active hold and a payment session outliving it
+        holdService.placeHold(booking);
+        Instant sessionExpiresAt = NOW.plus(Duration.ofHours(24));
+
+        // When: The session is attached
+        holdService.extendHold(booking, sessionExpiresAt);
+
+        // Then: The booking stays held, under the accommodation's lock, until the session ends
+        assertThat(booking.getExpiresAt()).isEqualTo(sessionExpiresAt);
+        verify(inventoryLockManager).lockForTransaction(ACCOMMODATION_ID);
+    }
+
+    @Test
+    @DisplayName("Extending a hold never shortens it")
+    void extendHold_LaterHold_KeepsExpiry() {
+        // Given: A hold that outlasts the payment reservation
+        holdService.placeHold(booking);
+        Instant heldUntil = booking.getExpiresAt();
+
+        // When: A two-minute reservation is made
+        holdService.extendHold(booking, NOW.plus(Duration.ofMinutes(2)));
+
+        // Then: The hold keeps its expiry
+        assertThat(booking.getExpiresAt()).isEqualTo(heldUntil);
+    }
+
+    @Test
+    @DisplayName("Starting a payment on a lapsed hold is rejected")
+    void extendHold_LapsedHold_ThrowsIllegalStateException() {
+        // Given: A booking whose hold has lapsed
+        holdService.placeHold(booking);
+        clock.advance(Duration.ofMinutes(16));
+
+        // When & Then: Payment cannot be initiated
+        assertThrows(IllegalStateException.class,
+                () -> holdService.extendHold(booking, NOW.plus(Duration.ofHours(1))));
+    }
+
+    @Test
+    @DisplayName("A paid booking is no longer held")
+    void clearHold_ActiveHold_RemovesExpiry() {
+        // Given: A booking held for its payment session
+        holdService.placeHold(booking);
+
+        // When: The payment is paid
+        holdService.clearHold(booking);
+
+        // Then: The booking no longer lapses
+        assertThat(booking.getExpiresAt()).isNull();
+        verify(inventoryLockManager).lockForTransaction(ACCOMMODATION_ID);
+    }
+
+    @Test
+    @DisplayName("A booking paid after its hold lapsed is kept while it was not released")
+    void clearHold_LapsedHoldNotReleased_RemovesExpiry() {
+        // Given: A lapsed hold the wheel has not released yet
+        holdService.placeHold(booking);
+        clock.advance(Duration.ofMinutes(16));
+        when(bookingRepository.findLapsedHoldIds(
+                ACCOMMODATION_ID, Booking.BookingStatus.PENDING, clock.instant()))
+                .thenReturn(List.of(BOOKING_ID));
+
+        // When: The late payment is applied
+        holdService.clearHold(booking);
+
+        // Then: The booking is kept
+        assertThat(booking.getExpiresAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("A booking paid after its hold was released stays released")
+    void clearHold_LapsedHoldReleased_LeavesBooking() {
+        // Given: A lapsed hold already released by another instance
+        holdService.placeHold(booking);
+        final Instant heldUntil = booking.getExpiresAt();
+        clock.advance(Duration.ofMinutes(16));
+        when(bookingRepository.findLapsedHoldIds(
+                ACCOMMODATION_ID, Booking.BookingStatus.PENDING, clock.instant()))
+                .thenReturn(List.of());
+
+        // When: The late payment is applied
+        holdService.clearHold(booking);
+
+        // Then: The booking is left as the release wrote it
+        assertThat(booking.getExpiresAt()).isEqualTo(heldUntil);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -3,13 +3,19 @@ package accommodation.booking.service.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import accommodation.booking.service.dto.booking.BookingBatchItemErrorDto;
+import accommodation.booking.service.dto.booking.BookingBatchRequestDto;
 import accommodation.booking.service.dto.booking.BookingRequestDto;
 import accommodation.booking.service.dto.booking.BookingResponseDto;
 import accommodation.booking.service.exceptions.AccommodationNotAvailableException;
+import accommodation.booking.service.exceptions.BatchBookingRejectedException;
 import accommodation.booking.service.mapper.BookingMapper;
 import accommodation.booking.service.model.Accommodation;
 import accommodation.booking.service.model.Booking;
@@ -18,6 +24,10 @@ import accommodation.booking.service.model.User;
 import accommodation.booking.service.repository.AccommodationRepository;
 import accommodation.booking.service.repository.BookingRepository;
 import accommodation.booking.service.repository.PaymentRepository;
+import accommodation.booking.service.service.availability.AvailabilityService;
+import accommodation.booking.service.service.availability.InventoryLockManager;
+import accommodation.booking.service.service.booking.BookingCheckoutScheduler;
+import accommodation.booking.service.service.booking.BookingHoldService;
 import accommodation.booking.service.service.booking.BookingServiceImpl;
 import accommodation.booking.service.service.notification.AccommodationNotificationUtil;
 import accommodation.booking.service.service.notification.BookingNotificationUtil;
@@ -29,6 +39,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -38,6 +49,7 @@ import org.springframework.security.access.AccessDeniedException;
 public class BookingServiceImplTest {
     private static final Booking.BookingStatus STATUS_PENDING = Booking.BookingStatus.PENDING;
     private static final Long ACCOMMODATION_ID = 18L;
+    private static final Long OTHER_ACCOMMODATION_ID = 15L;
     private static final Long BOOKING_ID = 1L;
     private static final Long USER_ID = 1L;
     private static final Long DIFFERENT_USER_ID = 2L;
@@ -66,6 +78,18 @@ public class BookingServiceImplTest {
     @Mock
     private AccommodationNotificationUtil accommodationNotificationUtil;
 
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private InventoryLockManager inventoryLockManager;
+
+    @Mock
+    private BookingHoldService bookingHoldService;
+
+    @Mock
+    private BookingCheckoutScheduler bookingCheckoutScheduler;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -87,13 +111,11 @@ public class BookingServiceImplTest {
                 .thenReturn(Collections.emptyList());
         when(accommodationRepository.findById(ACCOMMODATION_ID))
                 .thenReturn(Optional.of(accommodation));
-        when(bookingRepository.findMaxOccupancy(
+        when(availabilityService.findMaxOccupancy(
                 ACCOMMODATION_ID,
                 requestDto.getCheckInDate(),
                 requestDto.getCheckOutDate(),
-                null,
-                Booking.BookingStatus.CANCELED.name(),
-                Booking.BookingStatus.EXPIRED.name()
+                null
         )).thenReturn(0);
         when(bookingMapper.intoModel(requestDto)).thenReturn(booking);
         when(bookingRepository.save(booking)).thenReturn(booking);
@@ -108,6 +130,9 @@ public class BookingServiceImplTest {
         verify(paymentRepository).findByBookingUserIdAndStatus(
                 USER_ID, Payment.PaymentStatus.PENDING);
         verify(accommodationRepository).findById(ACCOMMODATION_ID);
+        verify(inventoryLockManager).lockForTransaction(ACCOMMODATION_ID);
+        verify(bookingHoldService).releaseLapsedHolds(ACCOMMODATION_ID);
+        verify(bookingHoldService).placeHold(booking);
         verify(bookingMapper).intoModel(requestDto);
         verify(bookingRepository).save(booking);
         verify(bookingMapper).intoDto(booking);
@@ -129,11 +154,10 @@ public class BookingServiceImplTest {
         verify(paymentRepository).findByBookingUserIdAndStatus(
                 USER_ID, Payment.PaymentStatus.PENDING);
         verify(accommodationRepository, never()).findById(any());
-        verify(bookingRepository,
-                never()).findMaxOccupancy(any(), any(), any(), any(), any(), any());
+        verify(availabilityService, never()).findMaxOccupancy(any(), any(), any(), any());
         verify(bookingMapper, never()).intoModel(any());
         verify(bookingRepository, never()).save(any());
-        verify(bookingNotificationUtil, never()).notifyBookingCreated(any());
+        verify(bookingNotificationUtil, never()).notifyBookingCreated(any(), any());
     }
 
     @Test
@@ -141,13 +165,11 @@ public class BookingServiceImplTest {
     void updateBookingDetails_ValidUserAndAvailableAccommodation_ReturnsBookingResponseDto() {
         // Given: Booking exists, belongs to the current user, and accommodation is available
         when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
-        when(bookingRepository.findMaxOccupancy(
+        when(availabilityService.findMaxOccupancy(
                 ACCOMMODATION_ID,
                 requestDto.getCheckInDate(),
                 requestDto.getCheckOutDate(),
-                BOOKING_ID,
-                Booking.BookingStatus.CANCELED.name(),
-                Booking.BookingStatus.EXPIRED.name()
+                BOOKING_ID
         )).thenReturn(0);
         when(bookingRepository.save(booking)).thenReturn(booking);
         when(bookingMapper.intoDto(booking)).thenReturn(responseDto);
@@ -169,13 +191,11 @@ public class BookingServiceImplTest {
     void updateBookingDetails_UnavailableAccommodation_ThrowsAccommodationNotAvailableException() {
         // Given: Booking exists, belongs to the current user, but accommodation is not available
         when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
-        when(bookingRepository.findMaxOccupancy(
+        when(availabilityService.findMaxOccupancy(
                 ACCOMMODATION_ID,
                 requestDto.getCheckInDate(),
                 requestDto.getCheckOutDate(),
-                BOOKING_ID,
-                Booking.BookingStatus.CANCELED.name(),
-                Booking.BookingStatus.EXPIRED.name()
+                BOOKING_ID
         )).thenReturn(accommodation.getAvailability());
 
         // When/Then: Verify that an exception is thrown
@@ -189,12 +209,44 @@ public class BookingServiceImplTest {
         verify(bookingMapper, never()).intoDto(any());
     }
 
+    @Test
+    @DisplayName("Moving a booking into a full accommodation locks both and is rejected.")
+    void updateBookingDetails_MoveIntoFullAccommodation_ThrowsAccommodationNotAvailableException() {
+        // Given: The booking is moved to a lower-numbered accommodation that is fully booked
+        Accommodation target = BookingTestUtil.initializeAccommodation();
+        target.setId(OTHER_ACCOMMODATION_ID);
+        requestDto.setAccommodationId(OTHER_ACCOMMODATION_ID);
+        when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
+        when(accommodationRepository.findById(OTHER_ACCOMMODATION_ID))
+                .thenReturn(Optional.of(target));
+        when(availabilityService.findMaxOccupancy(
+                OTHER_ACCOMMODATION_ID,
+                requestDto.getCheckInDate(),
+                requestDto.getCheckOutDate(),
+                BOOKING_ID
+        )).thenReturn(target.getAvailability());
+
+        // When/Then: The move is checked against the target and rejected
+        assertThrows(AccommodationNotAvailableException.class,
+                () -> bookingService.updateBookingDetails(BOOKING_ID, requestDto, currentUser));
+
+        // Verify: Both accommodations were locked in ascending id order and nothing was saved
+        InOrder order = inOrder(inventoryLockManager, bookingHoldService);
+        order.verify(inventoryLockManager).lockForTransaction(OTHER_ACCOMMODATION_ID);
+        order.verify(bookingHoldService).releaseLapsedHolds(OTHER_ACCOMMODATION_ID);
+        order.verify(inventoryLockManager).lockForTransaction(ACCOMMODATION_ID);
+        order.verify(bookingHoldService).releaseLapsedHolds(ACCOMMODATION_ID);
+        verify(availabilityService, never())
+                .findMaxOccupancy(eq(ACCOMMODATION_ID), any(), any(), any());
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Cancel booking by owner successfully.")
     void cancelBooking_ValidUser_SuccessfullyCancelsBooking() {
         // Given: Booking exists and belongs to the current user
         when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
 
         // When: Call the service method
         bookingService.cancelBooking(BOOKING_ID, currentUser);
@@ -202,8 +254,10 @@ public class BookingServiceImplTest {
         // Then: Verify the booking status is updated and notifications are sent
         assertThat(booking.getStatus()).isEqualTo(Booking.BookingStatus.CANCELED);
         verify(bookingRepository).findById(BOOKING_ID);
-        verify(bookingRepository).save(booking);
-        verify(bookingNotificationUtil).notifyBookingCancelled(booking, accommodation);
+        verify(inventoryLockManager).lockForTransaction(ACCOMMODATION_ID);
+        verify(bookingRepository).saveAndFlush(booking);
+        verify(bookingNotificationUtil).notifyBookingCancelled(
+                booking, accommodation, currentUser.getEmail());
         verify(accommodationNotificationUtil).notifyAccommodationReleased(accommodation);
     }
 
@@ -219,8 +273,76 @@ public class BookingServiceImplTest {
 
         // Verify: No further interactions occur after the exception
         verify(bookingRepository).findById(BOOKING_ID);
-        verify(bookingRepository, never()).save(any());
-        verify(bookingNotificationUtil, never()).notifyBookingCancelled(any(), any());
+        verify(bookingRepository, never()).saveAndFlush(any());
+        verify(bookingNotificationUtil, never()).notifyBookingCancelled(any(), any(), any());
         verify(accommodationNotificationUtil, never()).notifyAccommodationReleased(any());
     }
+
+    @Test
+    @DisplayName("Create batch bookings that fit the remaining units.")
+    void createBookings_AllItemsAvailable_InsertsBatchAndNotifiesOnce() {
+        // Given: Two requests for the same accommodation with one unit already taken
+        BookingRequestDto secondRequestDto = BookingTestUtil.initializeBookingRequestDto();
+        secondRequestDto.setCheckInDate(requestDto.getCheckInDate().plusDays(1));
+        BookingBatchRequestDto batchRequestDto = new BookingBatchRequestDto();
+        batchRequestDto.setBookings(List.of(requestDto, secondRequestDto));
+        Booking secondBooking = BookingTestUtil.initializeBooking(
+                secondRequestDto, currentUser, accommodation);
+        when(paymentRepository.findByBookingUserIdAndStatus(USER_ID, Payment.PaymentStatus.PENDING))
+                .thenReturn(Collections.emptyList());
+        when(accommodationRepository.findAllById(List.of(ACCOMMODATION_ID, ACCOMMODATION_ID)))
+                .thenReturn(List.of(accommodation));
+        when(availabilityService.findDailyOccupancy(ACCOMMODATION_ID,
+                requestDto.getCheckInDate(), requestDto.getCheckOutDate()))
+                .thenReturn(new int[] {1, 1, 1, 1, 1});
+        when(bookingMapper.intoModel(requestDto)).thenReturn(booking);
+        when(bookingMapper.intoModel(secondRequestDto)).thenReturn(secondBooking);
+        when(bookingRepository.insertAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookingMapper.intoDto(any(Booking.class))).thenReturn(responseDto);
+
+        // When: Call the service method
+        List<BookingResponseDto> actual =
+                bookingService.createBookings(batchRequestDto, currentUser);
+
+        // Then: Both bookings are inserted in one batch and a single notification is sent
+        assertThat(actual).hasSize(2);
+        verify(inventoryLockManager).lockForTransaction(ACCOMMODATION_ID);
+        verify(bookingRepository).insertAll(List.of(booking, secondBooking));
+        verify(bookingRepository, never()).save(any());
+        verify(bookingNotificationUtil).notifyBookingsCreated(
+                List.of(responseDto, responseDto), currentUser.getEmail());
+        verify(bookingNotificationUtil, never()).notifyBookingCreated(any(), any());
+    }
+
+    @Test
+    @DisplayName("Reject the whole batch with per-item reasons when units run out.")
+    void createBookings_NotEnoughUnits_ThrowsBatchBookingRejectedException() {
+        // Given: Three overlapping requests while only two units are free on the last day
+        BookingRequestDto missingAccommodationDto = BookingTestUtil.initializeBookingRequestDto();
+        missingAccommodationDto.setAccommodationId(99L);
+        BookingRequestDto otherDto = BookingTestUtil.initializeBookingRequestDto();
+        BookingBatchRequestDto batchRequestDto = new BookingBatchRequestDto();
+        batchRequestDto.setBookings(List.of(requestDto, missingAccommodationDto, otherDto));
+        when(paymentRepository.findByBookingUserIdAndStatus(USER_ID, Payment.PaymentStatus.PENDING))
+                .thenReturn(Collections.emptyList());
+        when(accommodationRepository.findAllById(anyList())).thenReturn(List.of(accommodation));
+        when(availabilityService.findDailyOccupancy(ACCOMMODATION_ID,
+                requestDto.getCheckInDate(), requestDto.getCheckOutDate()))
+                .thenReturn(new int[] {0, 0, 0, 0, 4});
+
+        // When: Call the service method
+        BatchBookingRejectedException exception = assertThrows(
+                BatchBookingRejectedException.class,
+                () -> bookingService.createBookings(batchRequestDto, currentUser));
+
+        // Then: Every failing item is reported and nothing is written
+        assertThat(exception.getErrors())
+                .extracting(BookingBatchItemErrorDto::getIndex)
+                .containsExactly(0, 1, 2);
+        assertThat(exception.getErrors().get(1).getReason()).contains("not found");
+        assertThat(exception.getErrors().get(2).getReason()).contains("2026-05-05");
+        verify(bookingRepository, never()).insertAll(anyList());
+        verify(bookingNotificationUtil, never()).notifyBookingsCreated(anyList(), any());
+    }
 }
@@ -0,0 +1,106 @@
+package accommodation.booking.service.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import accommodation.booking.service.repository.AccommodationDailyOccupancyRepository;
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.availability.CalendarTileCache;
+import accommodation.booking.service.service.availability.DailyOccupancyLedger;
+import accommodation.booking.service.service.availability.InventoryLockManager;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class DailyOccupancyLedgerTest {
+    private static final Long BOOKING_ID = 1L;
+    private static final LocalDate CHECK_IN_DATE = LocalDate.of(2027, 6, 10);
+    private static final LocalDate CHECK_OUT_DATE = LocalDate.of(2027, 6, 15);
+    private DailyOccupancyLedger dailyOccupancyLedger;
+
+    @Mock
+    private AccommodationDailyOccupancyRepository occupancyRepository;
+
+    @Mock
+    private CalendarTileCache calendarTileCache;
+
+    @Mock
+    private InventoryLockManager inventoryLockManager;
+
+    @BeforeEach
+    void setUp() {
+        dailyOccupancyLedger = new DailyOccupancyLedger(
+                occupancyRepository, calendarTileCache, inventoryLockManager);
+    }
+
+    @Test
+    @DisplayName("Moving a booking within its accommodation updates both ranges in one upsert")
+    void apply_SameAccommodation_MovesRangeInOneStatement() {
+        // Given: A booking moved to earlier, overlapping dates
+        BookingSpan previous = span(5L, CHECK_IN_DATE, CHECK_OUT_DATE);
+        BookingSpan current = span(5L, CHECK_IN_DATE.minusDays(5), CHECK_OUT_DATE.minusDays(3));
+
+        // When: Apply the change
+        dailyOccupancyLedger.apply(previous, current);
+
+        // Then: Both ranges go through the single ordered upsert
+        verify(occupancyRepository).moveRange(5L, CHECK_IN_DATE, CHECK_OUT_DATE,
+                CHECK_IN_DATE.minusDays(5), CHECK_OUT_DATE.minusDays(3));
+        verify(occupancyRepository, never()).addToRange(anyLong(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Moving a booking between accommodations updates the lower ID first")
+    void apply_DifferentAccommodations_UpdatesInAccommodationOrder() {
+        // Given: A booking moved from accommodation 9 to accommodation 4
+        BookingSpan previous = span(9L, CHECK_IN_DATE, CHECK_OUT_DATE);
+        BookingSpan current = span(4L, CHECK_IN_DATE, CHECK_OUT_DATE);
+
+        // When: Apply the change
+        dailyOccupancyLedger.apply(previous, current);
+
+        // Then: The new accommodation's rows are updated before the old one's
+        InOrder order = inOrder(occupancyRepository);
+        order.verify(occupancyRepository).addToRange(4L, CHECK_IN_DATE, CHECK_OUT_DATE, 1);
+        order.verify(occupancyRepository).addToRange(9L, CHECK_IN_DATE, CHECK_OUT_DATE, -1);
+    }
+
+    @Test
+    @DisplayName("Rebuilding one accommodation holds its inventory lock")
+    void rebuild_SingleAccommodation_TakesInventoryLockFirst() {
+        // When: Rebuild accommodation 5
+        dailyOccupancyLedger.rebuild(5L);
+
+        // Then: The lock is taken before the rows are replaced
+        InOrder order = inOrder(inventoryLockManager, occupancyRepository);
+        order.verify(inventoryLockManager).lockForTransaction(5L);
+        order.verify(occupancyRepository).deleteByAccommodationId(5L);
+        verify(occupancyRepository, never()).lockTable();
+    }
+
+    @Test
+    @DisplayName("Rebuilding every accommodation locks the ledger table")
+    void rebuild_AllAccommodations_LocksTableFirst() {
+        // When: Rebuild the whole ledger
+        dailyOccupancyLedger.rebuild(null);
+
+        // Then: The table is locked before the rows are replaced
+        InOrder order = inOrder(occupancyRepository);
+        order.verify(occupancyRepository).lockTable();
+        order.verify(occupancyRepository).deleteAllRows();
+    }
+
+    private static BookingSpan span(Long accommodationId, LocalDate checkIn, LocalDate checkOut) {
+        return new BookingSpan(BOOKING_ID, accommodationId, checkIn, checkOut);
+    }
+}
@@ -0,0 +1,199 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import accommodation.booking.service.config.MailConfig;
+import accommodation.booking.service.exceptions.NotificationDeliveryException;
+import accommodation.booking.service.service.notification.EmailNotificationChannel;
+import accommodation.booking.service.service.notification.Notification;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSender;
+
+public class EmailNotificationChannelTest {
+    private static final String GUEST = "guest@example.com";
+    private static final String OTHER_GUEST = "other@example.com";
+    private static final String MANAGERS = "managers@example.com";
+    private static final String UNKNOWN_GUEST = "unknown@example.com";
+    private SmtpStub smtpStub;
+    private JavaMailSender mailSender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtpStub = new SmtpStub();
+        mailSender = new MailConfig().javaMailSender("localhost", smtpStub.port(), "", "", 2000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        smtpStub.close();
+    }
+
+    @Test
+    @DisplayName("A batch of emails is delivered over a single SMTP connection")
+    void send_Batch_ReusesOneConnection() throws Exception {
+        // Given: Two guest messages and one for the managers
+        EmailNotificationChannel channel = new EmailNotificationChannel(
+                mailSender, "no-reply@booking.local", "Booking update", MANAGERS);
+
+        // When: The batch is sent
+        channel.send(List.of(
+                new Notification(GUEST, "New booking created: ID=1"),
+                new Notification(OTHER_GUEST, "New booking created: ID=2"),
+                new Notification(null, "Accommodation released: ID=3")));
+
+        // Then: All three went out in one session, each to its recipient
+        smtpStub.awaitQuit();
+        assertThat(smtpStub.sessions.get()).isEqualTo(1);
+        assertThat(smtpStub.recipients).containsExactly(GUEST, OTHER_GUEST, MANAGERS);
+        assertThat(smtpStub.messages).hasSize(3);
+        assertThat(smtpStub.messages.getFirst()).contains("New booking created: ID=1");
+    }
+
+    @Test
+    @DisplayName("Only the emails the server rejects are reported as failed")
+    void send_RecipientRejected_ReportsOnlyRejectedMessage() throws Exception {
+        // Given: A batch with one recipient the server does not accept
+        EmailNotificationChannel channel = new EmailNotificationChannel(
+                mailSender, "no-reply@booking.local", "Booking update", MANAGERS);
+        smtpStub.rejected.add(UNKNOWN_GUEST);
+
+        // When: The batch is sent
+        NotificationDeliveryException exception = assertThrows(
+                NotificationDeliveryException.class, () -> channel.send(List.of(
+                        new Notification(GUEST, "New booking created: ID=1"),
+                        new Notification(UNKNOWN_GUEST, "New booking created: ID=2"),
+                        new Notification(OTHER_GUEST, "New booking created: ID=3"))));
+
+        // Then: Only the rejected message is failed, and the others went out
+        smtpStub.awaitQuit();
+        assertThat(exception.getFailedPositions()).containsExactly(1);
+        assertThat(smtpStub.recipients).containsExactly(GUEST, OTHER_GUEST);
+        assertThat(smtpStub.messages).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Manager messages are skipped when no manager address is configured")
+    void send_NoManagerAddress_SkipsManagerMessages() {
+        // Given: No manager address
+        EmailNotificationChannel channel = new EmailNotificationChannel(
+                mailSender, "no-reply@booking.local", "Booking update", "");
+
+        // When: Only a manager message is sent
+        channel.send(List.of(new Notification(null, "Accommodation released: ID=3")));
+
+        // Then: No connection is made
+        assertThat(smtpStub.sessions.get()).isZero();
+    }
+
+    /**
+     * Accepts mail over plain SMTP, refusing the rejected recipients, and records the
+     * sessions, recipients and message bodies.
+     */
+    private static final class SmtpStub implements AutoCloseable {
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final AtomicInteger sessions = new AtomicInteger();
+        private final List<String> recipients = new CopyOnWriteArrayList<>();
+        private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final Object quitSignal = new Object();
+        private int quits;
+
+        private SmtpStub() throws IOException {
+            Thread.ofPlatform().daemon(true).start(this::accept);
+        }
+
+        private int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void awaitQuit() throws InterruptedException {
+            synchronized (quitSignal) {
+                long deadline = System.currentTimeMillis() + 2000;
+                while (quits == 0 && System.currentTimeMillis() < deadline) {
+                    quitSignal.wait(100);
+                }
+            }
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    sessions.incrementAndGet();
+                    serve(socket);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true,
+                    StandardCharsets.US_ASCII);
+            reply(out, "220 stub ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase(Locale.ROOT);
+                if (command.startsWith("RCPT TO:")) {
+                    String recipient = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    if (rejected.contains(recipient)) {
+                        reply(out, "550 No such user");
+                        continue;
+                    }
+                    recipients.add(recipient);
+                    reply(out, "250 OK");
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    messages.add(readData(in));
+                    reply(out, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    synchronized (quitSignal) {
+                        quits++;
+                        quitSignal.notifyAll();
+                    }
+                    return;
+                } else {
+                    reply(out, "250 OK");
+                }
+            }
+        }
+
+        private static String readData(BufferedReader in) throws IOException {
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(".")) {
+                data.append(line).append('\n');
+            }
+            return data.toString();
+        }
+
+        private static void reply(PrintWriter out, String response) {
+            out.print(response + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
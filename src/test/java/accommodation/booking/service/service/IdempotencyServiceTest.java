@@ -0,0 +1,272 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.dto.booking.BookingRequestDto;
+import accommodation.booking.service.dto.booking.BookingResponseDto;
+import accommodation.booking.service.exceptions.IdempotencyConflictException;
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.model.IdempotencyKey;
+import accommodation.booking.service.repository.IdempotencyKeyRepository;
+import accommodation.booking.service.service.idempotency.IdempotencyResponseCache;
+import accommodation.booking.service.service.idempotency.IdempotencyService;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+    private static final Instant NOW = Instant.parse("2025-05-01T12:00:00Z");
+    private static final Long USER_ID = 1L;
+    private static final String OPERATION = "create-booking";
+    private static final String KEY = "key-1";
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicInteger actionCalls = new AtomicInteger();
+    private IdempotencyService idempotencyService;
+    private BookingRequestDto request;
+    private BookingResponseDto response;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private MaintenanceJobRunner maintenanceJobRunner;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository,
+                new IdempotencyResponseCache(100), objectMapper, maintenanceJobRunner,
+                transactionTemplate, Clock.fixed(NOW, ZoneOffset.UTC), 24, 300_000, 10, 3_600_000);
+        request = new BookingRequestDto();
+        request.setAccommodationId(1L);
+        request.setCheckInDate(LocalDate.of(2025, 6, 1));
+        request.setCheckOutDate(LocalDate.of(2025, 6, 3));
+        response = new BookingResponseDto();
+        response.setId(7L);
+        response.setStatus(Booking.BookingStatus.PENDING);
+        response.setExpiresAt(NOW.plusSeconds(900));
+    }
+
+    @Test
+    @DisplayName("Without a key the request runs as usual and nothing is stored")
+    void execute_NoKey_RunsAction() {
+        // When: A request arrives without an Idempotency-Key
+        BookingResponseDto actual = execute(null, request);
+
+        // Then: The action ran and the key table was not touched
+        assertThat(actual).isEqualTo(response);
+        assertThat(actionCalls.get()).isEqualTo(1);
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    @DisplayName("A retry right after the first request is answered from memory")
+    void execute_RetryAfterCompletion_ReplaysResponse() {
+        // Given: The key is free when the first request arrives
+        when(idempotencyKeyRepository.claim(eq(USER_ID), eq(OPERATION), eq(KEY), anyString(),
+                eq(NOW), any(), eq(false))).thenReturn(1);
+        whenCompleted().thenReturn(1);
+
+        // When: The same request is sent twice
+        BookingResponseDto first = execute(KEY, request);
+        BookingResponseDto retried = execute(KEY, request);
+
+        // Then: The booking was created once, and the retry got the same response
+        assertThat(actionCalls.get()).isEqualTo(1);
+        assertThat(retried).isEqualTo(first);
+        verify(idempotencyKeyRepository).complete(eq(USER_ID), eq(OPERATION), eq(KEY),
+                eq(NOW), eq(IdempotencyKey.KeyStatus.COMPLETED), anyString(),
+                eq(NOW.plusSeconds(24 * 3600)));
+        verify(idempotencyKeyRepository, times(1))
+                .claim(any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("A retry handled by another instance replays the stored response")
+    void execute_CompletedElsewhere_ReplaysStoredResponse() throws Exception {
+        // Given: The key was completed earlier, with the response stored
+        when(idempotencyKeyRepository.findByUserIdAndOperationAndKey(USER_ID, OPERATION, KEY))
+                .thenReturn(Optional.of(storedKey(IdempotencyKey.KeyStatus.COMPLETED,
+                        hashOf(request), objectMapper.writeValueAsString(response))));
+
+        // When: The request is retried
+        BookingResponseDto actual = execute(KEY, request);
+
+        // Then: The stored response is returned without running the action
+        assertThat(actual).isEqualTo(response);
+        assertThat(actionCalls.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Reusing a key for a different request is a conflict")
+    void execute_DifferentRequest_ThrowsConflict() {
+        // Given: A request completed under the key
+        when(idempotencyKeyRepository.claim(any(), any(), any(), any(), any(), any(),
+                anyBoolean())).thenReturn(1);
+        whenCompleted().thenReturn(1);
+        execute(KEY, request);
+
+        // When/Then: Another booking sent under the same key is refused
+        BookingRequestDto otherRequest = new BookingRequestDto();
+        otherRequest.setAccommodationId(2L);
+        assertThrows(IdempotencyConflictException.class, () -> execute(KEY, otherRequest));
+        assertThat(actionCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A retry while the first request is still running is a conflict")
+    void execute_InProgress_ThrowsConflict() throws Exception {
+        // Given: Another request holds the key
+        when(idempotencyKeyRepository.findByUserIdAndOperationAndKey(USER_ID, OPERATION, KEY))
+                .thenReturn(Optional.of(
+                        storedKey(IdempotencyKey.KeyStatus.IN_PROGRESS, hashOf(request), null)));
+
+        // When/Then: The retry is refused without running the action
+        assertThrows(IdempotencyConflictException.class, () -> execute(KEY, request));
+        assertThat(actionCalls.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("A failed request releases its key so that it can be retried")
+    void execute_ActionFails_ReleasesKey() {
+        // Given: The key is claimed, and the request fails
+        when(idempotencyKeyRepository.claim(any(), any(), any(), any(), any(), any(),
+                anyBoolean())).thenReturn(1);
+        Supplier<BookingResponseDto> failing = () -> {
+            throw new IllegalStateException("Accommodation is not available");
+        };
+
+        // When/Then: The failure reaches the caller
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(
+                KEY, OPERATION, USER_ID, request, BookingResponseDto.class, failing));
+
+        // Then: The key is released and no response is stored
+        verify(idempotencyKeyRepository).release(
+                USER_ID, OPERATION, KEY, NOW, IdempotencyKey.KeyStatus.IN_PROGRESS);
+        verify(idempotencyKeyRepository, never())
+                .complete(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("A lapsed claim whose outcome is unknown is not run again")
+    void execute_LapsedInProgress_ThrowsConflict() throws Exception {
+        // Given: The key's earlier request stopped reporting back, and may have committed
+        IdempotencyKey stored =
+                storedKey(IdempotencyKey.KeyStatus.IN_PROGRESS, hashOf(request), null);
+        stored.setExpiresAt(NOW.minusSeconds(1));
+        when(idempotencyKeyRepository.findByUserIdAndOperationAndKey(USER_ID, OPERATION, KEY))
+                .thenReturn(Optional.of(stored));
+
+        // When/Then: The retry is refused without running the action
+        assertThrows(IdempotencyConflictException.class, () -> execute(KEY, request));
+        assertThat(actionCalls.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("A transactional request completes its key in its own transaction")
+    void executeInTransaction_KeyClaimed_CompletesInsideTransaction() {
+        // Given: The key is free, or its earlier claim lapsed
+        when(idempotencyKeyRepository.claim(eq(USER_ID), eq(OPERATION), eq(KEY), anyString(),
+                eq(NOW), any(), eq(true))).thenReturn(1);
+        whenCompleted().thenReturn(1);
+        runTransactionsInline();
+
+        // When: The booking is created
+        BookingResponseDto actual = executeInTransaction();
+
+        // Then: The action and the key completion ran in one transaction
+        assertThat(actual).isEqualTo(response);
+        verify(transactionTemplate).execute(any());
+        verify(idempotencyKeyRepository).complete(eq(USER_ID), eq(OPERATION), eq(KEY),
+                eq(NOW), eq(IdempotencyKey.KeyStatus.COMPLETED), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("A transactional request whose claim was taken over is rolled back")
+    void executeInTransaction_ClaimTakenOver_ThrowsConflict() {
+        // Given: A retry took the key over while this request was running
+        when(idempotencyKeyRepository.claim(any(), any(), any(), any(), any(), any(),
+                anyBoolean())).thenReturn(1);
+        whenCompleted().thenReturn(0);
+        runTransactionsInline();
+
+        // When/Then: Completing the key fails, which rolls the booking back
+        assertThrows(IdempotencyConflictException.class, this::executeInTransaction);
+        verify(idempotencyKeyRepository).release(
+                USER_ID, OPERATION, KEY, NOW, IdempotencyKey.KeyStatus.IN_PROGRESS);
+    }
+
+    private BookingResponseDto execute(String key, BookingRequestDto body) {
+        return idempotencyService.execute(key, OPERATION, USER_ID, body,
+                BookingResponseDto.class, () -> {
+                    actionCalls.incrementAndGet();
+                    return response;
+                });
+    }
+
+    private BookingResponseDto executeInTransaction() {
+        return idempotencyService.executeInTransaction(KEY, OPERATION, USER_ID, request,
+                BookingResponseDto.class, () -> {
+                    actionCalls.incrementAndGet();
+                    return response;
+                });
+    }
+
+    private OngoingStubbing<Integer> whenCompleted() {
+        return when(idempotencyKeyRepository.complete(
+                any(), any(), any(), any(), any(), any(), any()));
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private String hashOf(Object body) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(objectMapper.writeValueAsBytes(body)));
+    }
+
+    private static IdempotencyKey storedKey(IdempotencyKey.KeyStatus status,
+                                            String requestHash, String responseBody) {
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setUserId(USER_ID);
+        stored.setOperation(OPERATION);
+        stored.setKey(KEY);
+        stored.setStatus(status);
+        stored.setRequestHash(requestHash);
+        stored.setResponseBody(responseBody);
+        stored.setExpiresAt(NOW.plusSeconds(3600));
+        return stored;
+    }
+}
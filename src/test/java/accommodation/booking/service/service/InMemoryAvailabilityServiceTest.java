@@ -0,0 +1,236 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.repository.AccommodationRepository;
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.service.availability.BookingSpan;
+import accommodation.booking.service.service.availability.DailyOccupancyLedger;
+import accommodation.booking.service.service.availability.InMemoryAvailabilityService;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryAvailabilityServiceTest {
+    private static final Long ACCOMMODATION_ID = 15L;
+    private static final Instant NOW = Instant.parse("2026-05-01T08:00:00Z");
+    private static final LocalDate MAY_1 = LocalDate.of(2026, 5, 1);
+    private static final LocalDate MAY_5 = LocalDate.of(2026, 5, 5);
+    private static final LocalDate MAY_8 = LocalDate.of(2026, 5, 8);
+    private static final LocalDate MAY_10 = LocalDate.of(2026, 5, 10);
+    private static final LocalDate MAY_15 = LocalDate.of(2026, 5, 15);
+    private BookingSpan first;
+    private BookingSpan second;
+    private BookingSpan third;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private AccommodationRepository accommodationRepository;
+
+    @Mock
+    private DailyOccupancyLedger dailyOccupancyLedger;
+
+    private InMemoryAvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        availabilityService = new InMemoryAvailabilityService(bookingRepository,
+                accommodationRepository, dailyOccupancyLedger, Clock.fixed(NOW, ZoneOffset.UTC));
+        first = new BookingSpan(1L, ACCOMMODATION_ID, MAY_1, MAY_8);
+        second = new BookingSpan(2L, ACCOMMODATION_ID, MAY_5, MAY_10);
+        third = new BookingSpan(3L, ACCOMMODATION_ID, MAY_8, MAY_15);
+    }
+
+    @Test
+    @DisplayName("Find max occupancy loads bookings once and counts overlapping days")
+    void findMaxOccupancy_OverlappingBookings_ReturnsMaxOccupancy() {
+        // Given: Three bookings that all overlap on May 8
+        when(bookingRepository.findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any()))
+                .thenReturn(List.of(first, second, third));
+
+        // When: Query several ranges
+        int wholeRange = availabilityService.findIndexedMaxOccupancy(
+                ACCOMMODATION_ID, MAY_1, MAY_15, null);
+        int singleDay = availabilityService.findIndexedMaxOccupancy(
+                ACCOMMODATION_ID, MAY_8, MAY_8, null);
+        int tail = availabilityService.findIndexedMaxOccupancy(
+                ACCOMMODATION_ID, MAY_10.plusDays(1), MAY_15, null);
+
+        // Then: Results mirror inclusive check-in/check-out semantics
+        assertThat(wholeRange).isEqualTo(3);
+        assertThat(singleDay).isEqualTo(3);
+        assertThat(tail).isEqualTo(1);
+        verify(bookingRepository, times(1))
+                .findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), eq(MAY_1));
+    }
+
+    @Test
+    @DisplayName("Find max occupancy ignores the excluded booking")
+    void findMaxOccupancy_ExcludeBooking_ReducesOccupancy() {
+        // Given: Three overlapping bookings
+        when(bookingRepository.findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any()))
+                .thenReturn(List.of(first, second, third));
+
+        // When: Exclude the booking that spans the peak
+        int actual = availabilityService.findIndexedMaxOccupancy(
+                ACCOMMODATION_ID, MAY_1, MAY_15, 2L);
+
+        // Then: Peak drops by one
+        assertThat(actual).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Recorded changes update a loaded index without reloading")
+    void recordChange_LoadedIndex_AppliesCreateMoveAndRelease() {
+        // Given: A loaded index with a single booking, and versions only this node moves
+        final AtomicLong version = trackVersion();
+        when(bookingRepository.findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any()))
+                .thenReturn(List.of(first));
+        availabilityService.findMaxOccupancy(ACCOMMODATION_ID, MAY_1, MAY_15, null);
+
+        // When: A booking is created, then moved, then the first one is canceled
+        availabilityService.recordChange(null, second);
+        int afterCreate = availabilityService.findMaxOccupancy(
+                ACCOMMODATION_ID, MAY_1, MAY_15, null);
+        BookingSpan moved = new BookingSpan(2L, ACCOMMODATION_ID, MAY_10, MAY_15);
+        availabilityService.recordChange(second, moved);
+        int afterMove = availabilityService.findMaxOccupancy(
+                ACCOMMODATION_ID, MAY_1, MAY_15, null);
+        availabilityService.recordChange(first, null);
+        int afterRelease = availabilityService.findMaxOccupancy(
+                ACCOMMODATION_ID, MAY_1, MAY_8, null);
+
+        // Then: Counts follow every change, each change moved the version, and the persisted
+        // ledger sees each of them
+        assertThat(afterCreate).isEqualTo(2);
+        assertThat(afterMove).isEqualTo(1);
+        assertThat(afterRelease).isZero();
+        assertThat(version.get()).isEqualTo(4);
+        verify(dailyOccupancyLedger).apply(null, second);
+        verify(dailyOccupancyLedger).apply(second, moved);
+        verify(dailyOccupancyLedger).apply(first, null);
+        verify(bookingRepository, times(1))
+                .findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Find daily occupancy returns one count per day of the range")
+    void findDailyOccupancy_OverlappingBookings_ReturnsCountPerDay() {
+        // Given: Two bookings overlapping from May 5 to May 8
+        when(bookingRepository.findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any()))
+                .thenReturn(List.of(first, second));
+        LocalDate may4 = MAY_5.minusDays(1);
+
+        // When: Query the daily profile twice
+        availabilityService.findDailyOccupancy(ACCOMMODATION_ID, may4, MAY_10);
+        int[] actual = availabilityService.findDailyOccupancy(ACCOMMODATION_ID, may4, MAY_10);
+
+        // Then: Counts follow the inclusive booking ranges, and the index is kept
+        assertThat(actual).containsExactly(1, 2, 2, 2, 2, 1, 1);
+        verify(bookingRepository, times(1))
+                .findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("An accommodation changed on another node is reloaded before it is checked")
+    void findMaxOccupancy_VersionMovedElsewhere_ReloadsIndex() {
+        // Given: This node loaded one booking, then another node added a second
+        AtomicLong version = trackVersion();
+        when(bookingRepository.findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any()))
+                .thenReturn(List.of(first), List.of(first, second));
+        int before = availabilityService.findMaxOccupancy(ACCOMMODATION_ID, MAY_1, MAY_15, null);
+        version.incrementAndGet();
+
+        // When: The same range is checked again
+        int after = availabilityService.findMaxOccupancy(ACCOMMODATION_ID, MAY_1, MAY_15, null);
+
+        // Then: The index is rebuilt from the database and counts the new booking
+        assertThat(before).isEqualTo(1);
+        assertThat(after).isEqualTo(2);
+        verify(bookingRepository, times(2))
+                .findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("A local change is not applied over a change made on another node")
+    void recordChange_VersionMovedElsewhere_ReloadsInsteadOfApplying() {
+        // Given: A loaded index, and another node commits a booking before this one does
+        AtomicLong version = trackVersion();
+        when(bookingRepository.findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any()))
+                .thenReturn(List.of(first), List.of(first, second, third));
+        availabilityService.findMaxOccupancy(ACCOMMODATION_ID, MAY_1, MAY_15, null);
+        version.incrementAndGet();
+
+        // When: This node records its own booking
+        availabilityService.recordChange(null, third);
+        int actual = availabilityService.findMaxOccupancy(ACCOMMODATION_ID, MAY_1, MAY_15, null);
+
+        // Then: The index is reloaded with both bookings rather than patched
+        assertThat(actual).isEqualTo(3);
+        verify(bookingRepository, times(2))
+                .findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Inside a transaction the version moves as it commits and the index after")
+    void recordChange_InTransaction_IncrementsVersionAtCommit() {
+        // Given: A loaded index and an open transaction
+        AtomicLong version = trackVersion();
+        when(bookingRepository.findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any()))
+                .thenReturn(List.of(first));
+        availabilityService.findMaxOccupancy(ACCOMMODATION_ID, MAY_1, MAY_15, null);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When: A booking is recorded and the transaction commits
+            availabilityService.recordChange(null, second);
+            long versionBeforeCommit = version.get();
+            List<TransactionSynchronization> synchronizations =
+                    TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+            // Then: Nothing moved before the commit, and the index took the change after it
+            assertThat(versionBeforeCommit).isZero();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(version.get()).isEqualTo(1);
+        assertThat(availabilityService.findMaxOccupancy(ACCOMMODATION_ID, MAY_1, MAY_15, null))
+                .isEqualTo(2);
+        verify(bookingRepository, times(1))
+                .findActiveSpans(eq(ACCOMMODATION_ID), anyCollection(), any());
+    }
+
+    private AtomicLong trackVersion() {
+        AtomicLong version = new AtomicLong();
+        when(accommodationRepository.findOccupancyVersion(ACCOMMODATION_ID))
+                .thenAnswer(invocation -> version.get());
+        lenient().when(accommodationRepository.incrementOccupancyVersion(ACCOMMODATION_ID))
+                .thenAnswer(invocation -> {
+                    version.incrementAndGet();
+                    return 1;
+                });
+        return version;
+    }
+}
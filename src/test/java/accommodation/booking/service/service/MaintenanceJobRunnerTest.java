@@ -0,0 +1,169 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.repository.ScheduledJobLockRepository;
+import accommodation.booking.service.service.job.IdRange;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MaintenanceJobRunnerTest {
+    private static final String JOB = "test-job";
+    private static final int PARALLELISM = 3;
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledJobLockRepository jobLockRepository;
+    private MaintenanceJobRunner jobRunner;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+        jobLockRepository = mock(ScheduledJobLockRepository.class);
+        jobRunner = new MaintenanceJobRunner(
+                executor, meterRegistry, jobLockRepository, PARALLELISM, 10, 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("A run is skipped while the previous run of the same job is in progress")
+    void launch_PreviousRunInProgress_SkipsRun() throws InterruptedException {
+        // Given: A run that blocks until released
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        jobRunner.launch(JOB, () -> {
+            awaitQuietly(release);
+            finished.countDown();
+            return 5;
+        });
+
+        // When: The scheduler fires again before it finishes
+        boolean launched = jobRunner.launch(JOB, () -> 1);
+        release.countDown();
+        finished.await(5, TimeUnit.SECONDS);
+
+        // Then: The second run is skipped and the first one is measured
+        assertThat(launched).isFalse();
+        assertThat(meterRegistry.counter(
+                "maintenance.job.skipped", "job", JOB, "reason", "running").count())
+                .isEqualTo(1);
+        awaitCondition(() -> meterRegistry.find("maintenance.job.duration").timer() != null);
+        assertThat(meterRegistry.counter("maintenance.job.items", "job", JOB).count())
+                .isEqualTo(5);
+        assertThat(jobRunner.launch(JOB, () -> 0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("An exclusive job runs only on the replica that wins the lease")
+    void launchExclusive_LeaseHeldElsewhere_SkipsRun() {
+        // Given: The first lease is taken by this replica, the second by another one
+        when(jobLockRepository.tryAcquire(eq(JOB), anyString(), anyDouble()))
+                .thenReturn(1, 0);
+        AtomicInteger runs = new AtomicInteger();
+
+        // When: The job fires twice
+        jobRunner.launchExclusive(JOB, Duration.ofMinutes(1), runs::incrementAndGet);
+        verify(jobLockRepository, timeout(5000)).release(eq(JOB), anyString(), eq(60.0));
+        jobRunner.launchExclusive(JOB, Duration.ofMinutes(1), runs::incrementAndGet);
+
+        // Then: The lease is held for the TTL, and the second run is skipped
+        awaitCondition(() -> meterRegistry.find("maintenance.job.skipped")
+                .tag("reason", "lease").counter() != null);
+        verify(jobLockRepository, timeout(5000).times(2))
+                .tryAcquire(eq(JOB), anyString(), eq(1800.0));
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter(
+                "maintenance.job.skipped", "job", JOB, "reason", "lease").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Chunks run in parallel, never above the configured parallelism")
+    void runChunks_ManyChunks_BoundsParallelism() {
+        // Given: 95 items, i.e. 10 chunks of up to 10 items
+        List<Integer> items = IntStream.range(0, 95).boxed().toList();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+
+        // When: Each chunk is processed
+        int processed = jobRunner.runChunks(JOB, items, chunk -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            sleepQuietly();
+            active.decrementAndGet();
+            return chunk.size();
+        });
+
+        // Then: Every item is counted and at most PARALLELISM chunks overlapped
+        assertThat(processed).isEqualTo(95);
+        assertThat(maxActive.get()).isBetween(2, PARALLELISM);
+    }
+
+    @Test
+    @DisplayName("A failed partition is counted while the others still complete")
+    void runPartitions_PartitionFails_CompletesOthers() {
+        // Given: Three id ranges, the second of which fails
+        List<IdRange> partitions = new IdRange(1, 30).split(3);
+
+        // When: The partitions are processed
+        int processed = jobRunner.runPartitions(JOB, partitions, partition -> {
+            if (partition.fromId() == 11) {
+                throw new IllegalStateException("Down");
+            }
+            return (int) (partition.toId() - partition.fromId() + 1);
+        });
+
+        // Then: Only the failed partition is missing
+        assertThat(partitions).containsExactly(
+                new IdRange(1, 10), new IdRange(11, 20), new IdRange(21, 30));
+        assertThat(processed).isEqualTo(20);
+        assertThat(meterRegistry.counter("maintenance.job.partition.failures", "job", JOB)
+                .count()).isEqualTo(1);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
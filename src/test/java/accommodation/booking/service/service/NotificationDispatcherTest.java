@@ -0,0 +1,231 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import accommodation.booking.service.exceptions.NotificationDeliveryException;
+import accommodation.booking.service.service.notification.Notification;
+import accommodation.booking.service.service.notification.NotificationChannel;
+import accommodation.booking.service.service.notification.NotificationDispatcher;
+import accommodation.booking.service.service.notification.NotificationEvent;
+import accommodation.booking.service.service.notification.NotificationTemplates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NotificationDispatcherTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final List<Long> delivered = new CopyOnWriteArrayList<>();
+    private final List<Long> failed = new CopyOnWriteArrayList<>();
+    private final CountDownLatch senderStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseSender = new CountDownLatch(1);
+    private final NotificationDispatcher.DeliveryListener listener =
+            new NotificationDispatcher.DeliveryListener() {
+                @Override
+                public void delivered(List<Long> ids) {
+                    delivered.addAll(ids);
+                }
+
+                @Override
+                public void failed(List<Long> ids) {
+                    failed.addAll(ids);
+                }
+            };
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseSender.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Offering returns at once while the sender is still busy")
+    void offer_SlowSender_DoesNotBlockCaller() throws Exception {
+        // Given: A sender stuck on a slow request
+        dispatcher = dispatcher(blockingSender(), 10, 1);
+        offer(1L, "first");
+        assertThat(senderStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When: Another message is offered
+        offer(2L, "second");
+
+        // Then: It is queued, and delivered once the sender is free
+        assertThat(meterRegistry.get("notification.queue.depth").gauge().value()).isEqualTo(1);
+        releaseSender.countDown();
+        dispatcher.shutdown();
+        assertThat(sent).containsExactly("first", "second");
+        assertThat(delivered).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Messages queued behind a busy sender go out together as one batch")
+    void offer_BacklogBehindSender_SendsOneBatch() throws Exception {
+        // Given: A busy sender
+        dispatcher = dispatcher(blockingSender(), 10, 5);
+        offer(1L, "first");
+        assertThat(senderStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When: Three more messages queue up
+        offer(2L, "second");
+        offer(3L, "third");
+        offer(4L, "fourth");
+
+        // Then: The backlog is handed over in a single call
+        releaseSender.countDown();
+        dispatcher.shutdown();
+        assertThat(sent).containsExactly("first", "second", "third", "fourth");
+        assertThat(batchSizes).containsExactly(1, 3);
+        assertThat(delivered).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("A full queue refuses new messages instead of dropping queued ones")
+    void offer_QueueFull_RefusesMessage() throws Exception {
+        // Given: A busy sender and a queue of two
+        dispatcher = dispatcher(blockingSender(), 2, 1);
+        offer(1L, "first");
+        assertThat(senderStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When: Three more messages are offered
+        boolean secondAccepted = offer(2L, "second");
+        boolean thirdAccepted = offer(3L, "third");
+        boolean fourthAccepted = offer(4L, "fourth");
+
+        // Then: Only the message that found no room is refused, and every accepted one is sent
+        assertThat(List.of(secondAccepted, thirdAccepted, fourthAccepted))
+                .containsExactly(true, true, false);
+        releaseSender.countDown();
+        dispatcher.shutdown();
+        assertThat(sent).containsExactly("first", "second", "third");
+        assertThat(delivered).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("A failed send is reported for retry and does not stop later messages")
+    void offer_SenderFails_ReportsFailure() throws Exception {
+        // Given: A sender that fails on the first message
+        dispatcher = dispatcher(text -> {
+            if (text.equals("first")) {
+                throw new IllegalStateException("Telegram is down");
+            }
+            sent.add(text);
+        }, 10, 1);
+
+        // When: Two messages are offered
+        offer(1L, "first");
+        offer(2L, "second");
+        dispatcher.shutdown();
+
+        // Then: The failure is reported and timed separately, and the second message went out
+        assertThat(failed).containsExactly(1L);
+        assertThat(delivered).containsExactly(2L);
+        assertThat(meterRegistry.get("notification.send.duration").tag("outcome", "failure")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("notification.send.duration").tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Only the messages of a batch the channel could not send are retried")
+    void offer_PartOfBatchFails_ReportsOnlyFailedMessages() throws Exception {
+        // Given: A busy sender that will reject one message of the next batch
+        Consumer<String> blocking = blockingSender();
+        dispatcher = dispatcher(text -> {
+            if (text.equals("rejected")) {
+                throw new IllegalStateException("Message rejected");
+            }
+            blocking.accept(text);
+        }, 10, 5);
+        offer(1L, "first");
+        assertThat(senderStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When: Three messages queue up and are sent as one batch
+        offer(2L, "second");
+        offer(3L, "rejected");
+        offer(4L, "fourth");
+        releaseSender.countDown();
+        dispatcher.shutdown();
+
+        // Then: The messages that went out are delivered, and only the rejected one is retried
+        assertThat(batchSizes).containsExactly(1, 3);
+        assertThat(sent).containsExactly("first", "second", "fourth");
+        assertThat(delivered).containsExactly(1L, 2L, 4L);
+        assertThat(failed).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Messages still queued at shutdown are reported for retry")
+    void shutdown_MessagesQueued_ReportsThemFailed() throws Exception {
+        // Given: A sender stuck on the first message and one message queued behind it
+        dispatcher = dispatcher(blockingSender(), 10, 1);
+        offer(1L, "first");
+        assertThat(senderStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        offer(2L, "second");
+
+        // When: The dispatcher shuts down before the sender is free
+        dispatcher.shutdown();
+
+        // Then: The queued message is handed back and no more are accepted
+        assertThat(failed).containsExactly(2L);
+        assertThat(offer(3L, "third")).isFalse();
+        assertThat(sent).isEmpty();
+    }
+
+    private boolean offer(long id, String text) {
+        return dispatcher.offer(null, new NotificationEvent.PlainText(text), id, listener);
+    }
+
+    private NotificationDispatcher dispatcher(Consumer<String> sender, int queueCapacity,
+                                              int batchSize) {
+        NotificationChannel channel = new NotificationChannel() {
+            @Override
+            public String name() {
+                return "test";
+            }
+
+            @Override
+            public void send(List<Notification> batch) {
+                batchSizes.add(batch.size());
+                Set<Integer> failedPositions = new TreeSet<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        sender.accept(batch.get(i).text());
+                    } catch (RuntimeException e) {
+                        failedPositions.add(i);
+                    }
+                }
+                if (!failedPositions.isEmpty()) {
+                    throw new NotificationDeliveryException(
+                            "Send failed", failedPositions, null);
+                }
+            }
+        };
+        return new NotificationDispatcher(channel,
+                new NotificationTemplates("notifications/templates", Locale.ENGLISH),
+                meterRegistry, 1, queueCapacity, batchSize, Duration.ofSeconds(1));
+    }
+
+    private Consumer<String> blockingSender() {
+        return text -> {
+            senderStarted.countDown();
+            try {
+                releaseSender.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(text);
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.model.OutboxNotification;
+import accommodation.booking.service.repository.OutboxNotificationRepository;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import accommodation.booking.service.service.notification.NotificationEvent;
+import accommodation.booking.service.service.notification.NotificationOutboxRelay;
+import accommodation.booking.service.service.notification.NotificationRouter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationOutboxRelayTest {
+    private static final Instant NOW = Instant.parse("2025-05-01T12:00:00Z");
+    private static final int BATCH_SIZE = 2;
+    private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(5);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+    private static final int MAX_ATTEMPTS = 10;
+    private static final String GUEST = "guest@example.com";
+    private static final NotificationEvent.PaymentCreated PAYMENT_CREATED =
+            new NotificationEvent.PaymentCreated(2L, new BigDecimal("200.00"), "http://pay");
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private NotificationOutboxRelay relay;
+
+    @Mock
+    private OutboxNotificationRepository outboxRepository;
+
+    @Mock
+    private NotificationRouter notificationRouter;
+
+    @Mock
+    private MaintenanceJobRunner maintenanceJobRunner;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        relay = new NotificationOutboxRelay(outboxRepository, notificationRouter, objectMapper,
+                maintenanceJobRunner, transactionTemplate, Clock.fixed(NOW, ZoneOffset.UTC),
+                BATCH_SIZE, 24, CLAIM_TIMEOUT.toMillis(), RETRY_DELAY.toMillis(), MAX_ATTEMPTS);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Pending notifications are claimed and routed in order, but not marked delivered")
+    void relayPending_PendingRows_ClaimsAndRoutes() throws JsonProcessingException {
+        // Given: Three pending notifications, more than one batch
+        when(outboxRepository.lockUnclaimed(NOW, BATCH_SIZE)).thenReturn(
+                List.of(notification(1L, "first"),
+                        event(2L, "PaymentCreated", objectMapper.writeValueAsString(
+                                PAYMENT_CREATED))),
+                List.of(notification(3L, "third")));
+        when(notificationRouter.route(any(), any(), any(), anyLong(), any()))
+                .thenReturn(NotificationRouter.RouteResult.QUEUED);
+
+        // When: The relay runs
+        int relayedCount = relay.relayPending();
+
+        // Then: Each batch is claimed, then routed, and delivery is left to the channels
+        assertThat(relayedCount).isEqualTo(3);
+        InOrder inOrder = inOrder(notificationRouter, outboxRepository);
+        inOrder.verify(outboxRepository).claim(List.of(1L, 2L), NOW.plus(CLAIM_TIMEOUT));
+        inOrder.verify(notificationRouter).route(
+                "telegram", null, new NotificationEvent.PlainText("first"), 1L, relay);
+        inOrder.verify(notificationRouter).route("email", GUEST, PAYMENT_CREATED, 2L, relay);
+        inOrder.verify(outboxRepository).claim(List.of(3L), NOW.plus(CLAIM_TIMEOUT));
+        inOrder.verify(notificationRouter).route(
+                "telegram", null, new NotificationEvent.PlainText("third"), 3L, relay);
+        verify(outboxRepository, never()).markDelivered(any(), any());
+        verify(outboxRepository).deleteDelivered(NOW.minus(Duration.ofHours(24)), 1000);
+    }
+
+    @Test
+    @DisplayName("A full channel queue releases the rest of the batch and stops the relay")
+    void relayPending_QueueFull_ReleasesRestAndStops() {
+        // Given: A full batch whose second row finds its channel's queue full
+        when(outboxRepository.lockUnclaimed(NOW, BATCH_SIZE)).thenReturn(
+                List.of(notification(1L, "first"), notification(2L, "second")));
+        when(notificationRouter.route(any(), any(), any(), anyLong(), any())).thenReturn(
+                NotificationRouter.RouteResult.QUEUED,
+                NotificationRouter.RouteResult.QUEUE_FULL);
+
+        // When: The relay runs
+        int relayedCount = relay.relayPending();
+
+        // Then: The refused row is released at once and no further batch is claimed
+        assertThat(relayedCount).isEqualTo(1);
+        verify(outboxRepository).release(List.of(2L), NOW);
+        verify(outboxRepository, times(1)).lockUnclaimed(any(), anyInt());
+        verify(outboxRepository, never()).markDelivered(any(), any());
+    }
+
+    @Test
+    @DisplayName("Sent rows are marked delivered and failed rows are released for a retry")
+    void deliveryOutcome_SentAndFailed_MarksDeliveredOrReleases() {
+        // When: A channel reports one batch sent and another failed
+        relay.delivered(List.of(1L, 2L));
+        relay.failed(List.of(3L));
+
+        // Then: Only the sent rows are delivered; the failed one waits for the retry delay
+        verify(outboxRepository).markDelivered(List.of(1L, 2L), NOW);
+        verify(outboxRepository).retry(List.of(3L), NOW.plus(RETRY_DELAY));
+    }
+
+    @Test
+    @DisplayName("A failed row is counted, and given up on once it used its attempts")
+    void failed_AttemptsUsedUp_ParksRows() {
+        // Given: One of the failed rows has now failed for the last time
+        when(outboxRepository.park(List.of(3L, 4L), MAX_ATTEMPTS, NOW)).thenReturn(1);
+
+        // When: The channel reports the rows failed
+        relay.failed(List.of(3L, 4L));
+
+        // Then: Both attempts are counted before the exhausted row is parked
+        InOrder inOrder = inOrder(outboxRepository);
+        inOrder.verify(outboxRepository).retry(List.of(3L, 4L), NOW.plus(RETRY_DELAY));
+        inOrder.verify(outboxRepository).park(List.of(3L, 4L), MAX_ATTEMPTS, NOW);
+    }
+
+    @Test
+    @DisplayName("A relay that fails mid-batch leaves its rows undelivered")
+    void relayPending_RouteFails_DoesNotMarkDelivered() {
+        // Given: The router throws on the message
+        when(outboxRepository.lockUnclaimed(NOW, BATCH_SIZE))
+                .thenReturn(List.of(notification(1L, "first")));
+        doThrow(new IllegalStateException("Down")).when(notificationRouter).route(
+                "telegram", null, new NotificationEvent.PlainText("first"), 1L, relay);
+
+        // When: The relay runs
+        assertThrows(IllegalStateException.class, () -> relay.relayPending());
+
+        // Then: The row stays pending and is retried once its claim lapses
+        verify(outboxRepository, never()).markDelivered(any(), any());
+        verify(outboxRepository, never()).deleteDelivered(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Unreadable and unrouted rows are skipped without holding up their batch")
+    void relayPending_UnreadableOrUnroutedRows_SkipsThem() {
+        // Given: A row of an unknown type, a row with a broken payload and a row for a
+        // channel that is not routed
+        OutboxNotification sms = notification(3L, "sms", "sms", null);
+        when(outboxRepository.lockUnclaimed(NOW, BATCH_SIZE)).thenReturn(
+                List.of(event(1L, "SmsSent", "{}"), event(2L, "PaymentCreated", "{")),
+                List.of(sms, notification(4L, "fourth")), List.of());
+        when(notificationRouter.route(any(), any(), any(), anyLong(), any())).thenReturn(
+                NotificationRouter.RouteResult.UNROUTED, NotificationRouter.RouteResult.QUEUED);
+
+        // When: The relay runs
+        relay.relayPending();
+
+        // Then: The skipped rows are marked delivered so they are not retried, and the
+        // next row goes out
+        verify(outboxRepository).markDelivered(List.of(1L, 2L), NOW);
+        verify(outboxRepository).markDelivered(List.of(3L), NOW);
+        verify(notificationRouter).route(
+                "telegram", null, new NotificationEvent.PlainText("fourth"), 4L, relay);
+    }
+
+    private static OutboxNotification event(Long id, String eventType, String payload) {
+        OutboxNotification notification = notification(id, null, "email", GUEST);
+        notification.setEventType(eventType);
+        notification.setPayload(payload);
+        return notification;
+    }
+
+    private static OutboxNotification notification(Long id, String message) {
+        return notification(id, message, "telegram", null);
+    }
+
+    private static OutboxNotification notification(Long id, String message, String channel,
+                                                   String recipient) {
+        OutboxNotification notification = new OutboxNotification();
+        notification.setId(id);
+        notification.setChannel(channel);
+        notification.setRecipient(recipient);
+        notification.setMessage(message);
+        notification.setCreatedAt(NOW);
+        return notification;
+    }
+}
@@ -0,0 +1,131 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import accommodation.booking.service.service.notification.Notification;
+import accommodation.booking.service.service.notification.NotificationChannel;
+import accommodation.booking.service.service.notification.NotificationDispatcher;
+import accommodation.booking.service.service.notification.NotificationEvent;
+import accommodation.booking.service.service.notification.NotificationRouter;
+import accommodation.booking.service.service.notification.NotificationTemplates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NotificationRouterTest {
+    private final CountDownLatch releaseEmail = new CountDownLatch(1);
+    private final CountDownLatch telegramSent = new CountDownLatch(1);
+    private final CountDownLatch emailStarted = new CountDownLatch(1);
+    private final List<Notification> emailed = new CopyOnWriteArrayList<>();
+    private final List<Notification> telegrammed = new CopyOnWriteArrayList<>();
+    private final NotificationDispatcher.DeliveryListener listener =
+            mock(NotificationDispatcher.DeliveryListener.class);
+    private NotificationRouter router;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseEmail.countDown();
+        if (router != null) {
+            router.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A stalled channel does not hold up the others")
+    void route_SlowEmail_TelegramStillDelivers() throws Exception {
+        // Given: An SMTP server that hangs
+        router = router(List.of(channel("telegram", telegrammed, null),
+                channel("email", emailed, releaseEmail)), List.of("email"));
+
+        // When: A guest notification is routed to email, then a manager one to Telegram
+        NotificationEvent event = new NotificationEvent.PlainText("Booking created");
+        router.route("email", "guest@example.com", event, 1L, listener);
+        router.route("telegram", null, event, 2L, listener);
+
+        // Then: Telegram delivers while email is still stuck
+        assertThat(telegramSent.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(telegrammed).containsExactly(new Notification(null, "Booking created"));
+        assertThat(emailed).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Routing reports a full queue and a channel that is not routed")
+    void route_FullQueueOrUnroutedChannel_ReportsResult() throws Exception {
+        // Given: An SMTP server that hangs, with one email in flight and a queue of one
+        router = router(List.of(channel("telegram", telegrammed, null),
+                channel("email", emailed, releaseEmail)), List.of("email"), 1);
+        NotificationEvent event = new NotificationEvent.PlainText("Booking created");
+        router.route("email", "guest@example.com", event, 1L, listener);
+        assertThat(emailStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When: Two more emails and one SMS are routed
+        NotificationRouter.RouteResult second =
+                router.route("email", "guest@example.com", event, 2L, listener);
+        NotificationRouter.RouteResult third =
+                router.route("email", "guest@example.com", event, 3L, listener);
+        NotificationRouter.RouteResult sms = router.route("sms", null, event, 4L, listener);
+
+        // Then: The second email is queued, the third is refused and the SMS is unrouted
+        assertThat(List.of(second, third, sms)).containsExactly(
+                NotificationRouter.RouteResult.QUEUED,
+                NotificationRouter.RouteResult.QUEUE_FULL,
+                NotificationRouter.RouteResult.UNROUTED);
+    }
+
+    @Test
+    @DisplayName("Routing to a channel that does not exist fails at startup")
+    void constructor_UnknownChannel_ThrowsIllegalStateException() {
+        // When/Then: Guests are routed to a channel nobody provides
+        assertThrows(IllegalStateException.class, () -> router(
+                List.of(channel("telegram", telegrammed, null)), List.of("sms")));
+    }
+
+    private NotificationRouter router(List<NotificationChannel> channels,
+                                      List<String> guestChannels) {
+        return router(channels, guestChannels, 10);
+    }
+
+    private NotificationRouter router(List<NotificationChannel> channels,
+                                      List<String> guestChannels, int queueCapacity) {
+        return new NotificationRouter(channels,
+                new NotificationTemplates("notifications/templates", Locale.ENGLISH),
+                new SimpleMeterRegistry(), List.of("telegram"), guestChannels, 1,
+                queueCapacity, 10, 5_000);
+    }
+
+    private NotificationChannel channel(String name, List<Notification> sink,
+                                        CountDownLatch gate) {
+        return new NotificationChannel() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void send(List<Notification> batch) {
+                if (name.equals("email")) {
+                    emailStarted.countDown();
+                }
+                try {
+                    if (gate != null) {
+                        gate.await();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                sink.addAll(batch);
+                if (name.equals("telegram")) {
+                    telegramSent.countDown();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import accommodation.booking.service.service.notification.NotificationEvent;
+import accommodation.booking.service.service.notification.NotificationTemplates;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NotificationTemplatesTest {
+    private static final LocalDate IN_DATE = LocalDate.of(2025, 1, 1);
+    private static final LocalDate OUT_DATE = LocalDate.of(2025, 1, 10);
+    private static final NotificationEvent.PaymentCreated PAYMENT_CREATED =
+            new NotificationEvent.PaymentCreated(1L, BigDecimal.valueOf(200), "http://pay");
+    private final NotificationTemplates templates =
+            new NotificationTemplates("notifications/templates", Locale.ENGLISH);
+
+    @Test
+    @DisplayName("Manager messages read the same as before templates were introduced")
+    void render_Telegram_MatchesLegacyFormat() {
+        // When: Events are rendered for Telegram
+        String payment = templates.render(PAYMENT_CREATED, "telegram");
+        String bookings = templates.render(new NotificationEvent.BookingsCreated(List.of(
+                new NotificationEvent.BookingLine(1L, 2L, IN_DATE, OUT_DATE),
+                new NotificationEvent.BookingLine(3L, 4L, IN_DATE, OUT_DATE))), "telegram");
+
+        // Then: The text matches the old String.format output
+        assertThat(payment).isEqualTo(String.format(
+                "Payment initiated for Booking ID=%d: Amount=$%.2f, URL=%s",
+                1L, BigDecimal.valueOf(200), "http://pay"));
+        assertThat(bookings).isEqualTo("2 new bookings created:\n"
+                + "ID=1, Accommodation=2, Dates=2025-01-01 to 2025-01-10\n"
+                + "ID=3, Accommodation=4, Dates=2025-01-01 to 2025-01-10");
+    }
+
+    @Test
+    @DisplayName("A channel template overrides the default, which covers the rest")
+    void render_Email_UsesChannelTemplateWhenPresent() {
+        // When: Events with and without an email template are rendered for email
+        String payment = templates.render(PAYMENT_CREATED, "email");
+        String cancelled = templates.render(
+                new NotificationEvent.PaymentCancelled(1L, new BigDecimal("99.999")), "email");
+
+        // Then: The guest wording is used where it exists
+        assertThat(payment).isEqualTo("Please pay $200.00 for booking 1 here: http://pay");
+        assertThat(cancelled).isEqualTo("Payment canceled for Booking ID=1: Amount=$100.00");
+    }
+
+    @Test
+    @DisplayName("A localized template is preferred, falling back to the base bundle")
+    void render_Locale_UsesLocalizedTemplate() {
+        // When: Events are rendered in German
+        String payment = templates.render(PAYMENT_CREATED, "telegram", Locale.GERMAN);
+        String cancelled = templates.render(new NotificationEvent.PaymentCancelled(
+                1L, BigDecimal.TEN), "telegram", Locale.GERMAN);
+
+        // Then: Only the translated event reads differently
+        assertThat(payment)
+                .isEqualTo("Zahlung gestartet für Buchung 1: Betrag=200.00 $, URL=http://pay");
+        assertThat(cancelled).isEqualTo("Payment canceled for Booking ID=1: Amount=$10.00");
+    }
+}
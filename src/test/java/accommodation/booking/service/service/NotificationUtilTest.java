@@ -8,6 +8,7 @@ import accommodation.booking.service.model.Accommodation;
 import accommodation.booking.service.model.Booking;
 import accommodation.booking.service.service.notification.AccommodationNotificationUtil;
 import accommodation.booking.service.service.notification.BookingNotificationUtil;
+import accommodation.booking.service.service.notification.NotificationEvent;
 import accommodation.booking.service.service.notification.NotificationService;
 import accommodation.booking.service.service.notification.PaymentNotificationUtil;
 import ch.qos.logback.classic.Logger;
@@ -33,6 +34,7 @@ public class NotificationUtilTest {
     private static final Accommodation.AccommodationType ACCOMMODATION_TYPE =
             Accommodation.AccommodationType.HOUSE;
     private static final String LOCATION = "City";
+    private static final String GUEST_EMAIL = "guest@example.com";
     private static final LocalDate IN_DATE = LocalDate.of(2025, 1, 1);
     private static final LocalDate OUT_DATE = LocalDate.of(2025, 1, 10);
     private Accommodation accommodation;
@@ -72,14 +74,13 @@ public class NotificationUtilTest {
     @DisplayName("Notify payment created. Sends notification successfully")
     void notifyPaymentCreated_ValidInput_SendsNotification() {
         // Given: Valid input for notification
-        String expectedMessage = String.format(
-                "Payment initiated for Booking ID=%d: Amount=$%.2f, URL=%s",
-                VALID_ID, AMOUNT_TO_PAY, URL);
+        NotificationEvent expectedEvent =
+                new NotificationEvent.PaymentCreated(VALID_ID, AMOUNT_TO_PAY, URL);
         // When: Notify payment created
-        paymentNotificationUtil.notifyPaymentCreated(VALID_ID, AMOUNT_TO_PAY, URL);
+        paymentNotificationUtil.notifyPaymentCreated(VALID_ID, AMOUNT_TO_PAY, URL, GUEST_EMAIL);
 
         // Then: Verify the notification was sent
-        verify(notificationService).sendNotification(expectedMessage);
+        verify(notificationService).sendNotification(expectedEvent, GUEST_EMAIL);
         assertThat(logAppender.list).isEmpty(); // No error logs
     }
 
@@ -87,17 +88,17 @@ public class NotificationUtilTest {
     @DisplayName("Notify payment created with notification error.")
     void notifyPaymentCreated_NotificationError_LogsError() {
         // Given: Notification service throws an exception
-        String expectedMessage = String.format(
-                "Payment initiated for Booking ID=%d: Amount=$%.2f, URL=%s",
-                VALID_ID, AMOUNT_TO_PAY, URL);
+        NotificationEvent expectedEvent =
+                new NotificationEvent.PaymentCreated(VALID_ID, AMOUNT_TO_PAY, URL);
         RuntimeException exception = new RuntimeException("Notification failed");
-        doThrow(exception).when(notificationService).sendNotification(expectedMessage);
+        doThrow(exception).when(notificationService)
+                .sendNotification(expectedEvent, GUEST_EMAIL);
 
         // When: Notify payment created
-        paymentNotificationUtil.notifyPaymentCreated(VALID_ID, AMOUNT_TO_PAY, URL);
+        paymentNotificationUtil.notifyPaymentCreated(VALID_ID, AMOUNT_TO_PAY, URL, GUEST_EMAIL);
 
         // Then: Verify the notification was attempted and error was logged
-        verify(notificationService).sendNotification(expectedMessage);
+        verify(notificationService).sendNotification(expectedEvent, GUEST_EMAIL);
         assertThat(logAppender.list).hasSize(1);
         ILoggingEvent logEvent = logAppender.list.getFirst();
         assertThat(logEvent.getFormattedMessage()).contains(
@@ -111,14 +112,13 @@ public class NotificationUtilTest {
         // Given: Valid input for notification
         accommodation.setType(ACCOMMODATION_TYPE);
         accommodation.setLocation(LOCATION);
-        String expectedMessage = String.format(
-                "Accommodation released: ID=%d, Type=%s, Location=%s",
-                VALID_ID, ACCOMMODATION_TYPE, LOCATION);
+        NotificationEvent expectedEvent = new NotificationEvent.AccommodationReleased(
+                VALID_ID, ACCOMMODATION_TYPE.toString(), LOCATION);
         // When: Notify accommodation released
         accommodationNotificationUtil.notifyAccommodationReleased(accommodation);
 
         // Then: Verify the notification was sent
-        verify(notificationService).sendNotification(expectedMessage);
+        verify(notificationService).sendNotification(expectedEvent);
         assertThat(logAppender.list).isEmpty(); // No error logs
     }
 
@@ -129,14 +129,13 @@ public class NotificationUtilTest {
         booking.setId(VALID_ID);
         booking.setCheckInDate(IN_DATE);
         booking.setCheckOutDate(OUT_DATE);
-        String expectedMessage = String.format(
-                "Booking canceled: ID=%d, Accommodation=%s, Dates=%s to %s",
-                VALID_ID, VALID_ID, IN_DATE, OUT_DATE);
+        NotificationEvent expectedEvent =
+                new NotificationEvent.BookingCancelled(VALID_ID, VALID_ID, IN_DATE, OUT_DATE);
         // When: Notify booking released
-        bookingNotificationUtil.notifyBookingCancelled(booking, accommodation);
+        bookingNotificationUtil.notifyBookingCancelled(booking, accommodation, GUEST_EMAIL);
 
         // Then: Verify the notification was sent
-        verify(notificationService).sendNotification(expectedMessage);
+        verify(notificationService).sendNotification(expectedEvent, GUEST_EMAIL);
         assertThat(logAppender.list).isEmpty(); // No error logs
     }
 }
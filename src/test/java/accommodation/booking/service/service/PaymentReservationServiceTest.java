@@ -0,0 +1,194 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.model.Booking;
+import accommodation.booking.service.model.Payment;
+import accommodation.booking.service.model.User;
+import accommodation.booking.service.repository.BookingRepository;
+import accommodation.booking.service.repository.PaymentRepository;
+import accommodation.booking.service.service.booking.BookingHoldService;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import accommodation.booking.service.service.payment.PaymentReservationService;
+import accommodation.booking.service.service.payment.util.PaymentServiceImplUtil;
+import accommodation.booking.service.util.PaymentServiceTestUtil;
+import com.stripe.model.checkout.Session;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentReservationServiceTest {
+    private static final Long VALID_ID = 1L;
+    private static final Instant NOW = Instant.parse("2025-05-01T12:00:00Z");
+    private static final Duration RESERVATION_TIMEOUT = Duration.ofMinutes(2);
+    private static final long SESSION_EXPIRES_AT = 1746100800L;
+    private PaymentReservationService reservationService;
+    private User currentUser;
+    private Booking booking;
+    private Payment payment;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingHoldService bookingHoldService;
+
+    @Mock
+    private MaintenanceJobRunner maintenanceJobRunner;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new PaymentReservationService(paymentRepository, bookingRepository,
+                bookingHoldService, maintenanceJobRunner, Clock.fixed(NOW, ZoneOffset.UTC),
+                RESERVATION_TIMEOUT.toMillis(), 60_000);
+        currentUser = PaymentServiceTestUtil.initializeUser(
+                PaymentServiceTestUtil.initializeRole());
+        booking = PaymentServiceTestUtil.initializeBooking(currentUser);
+        payment = PaymentServiceTestUtil.initializePayment(booking);
+    }
+
+    @Test
+    @DisplayName("Reserving a new payment stores it as INITIATING without a session")
+    void reserveNew_ValidBooking_SavesInitiatingPayment() {
+        // Given: A booking of the user with no payment yet
+        when(bookingRepository.findBookingByIdAndUserId(VALID_ID, VALID_ID))
+                .thenReturn(Optional.of(booking));
+        when(paymentRepository.findByBooking(booking)).thenReturn(Optional.empty());
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenReturn(payment);
+
+        // When: The payment is reserved
+        PaymentReservationService.Reservation reservation =
+                reservationService.reserveNew(VALID_ID, currentUser);
+
+        // Then: The hold lasts at least as long as the reservation, which lapses after the timeout
+        ArgumentCaptor<Payment> saved = ArgumentCaptor.forClass(Payment.class);
+        verify(paymentRepository).saveAndFlush(saved.capture());
+        assertThat(saved.getValue().getStatus()).isEqualTo(Payment.PaymentStatus.INITIATING);
+        assertThat(saved.getValue().getSessionId()).isNull();
+        assertThat(saved.getValue().getExpiresAt()).isEqualTo(NOW.plus(RESERVATION_TIMEOUT));
+        assertThat(reservation.paymentId()).isEqualTo(VALID_ID);
+        assertThat(reservation.amountToPay())
+                .isEqualTo(PaymentServiceImplUtil.calculateAmountToPay(booking));
+        verify(bookingHoldService).extendHold(booking, NOW.plus(RESERVATION_TIMEOUT));
+    }
+
+    @Test
+    @DisplayName("Reserving a payment for a booking whose hold lapsed is refused")
+    void reserveNew_LapsedHold_ThrowsIllegalStateException() {
+        // Given: A booking whose hold can no longer be extended
+        when(bookingRepository.findBookingByIdAndUserId(VALID_ID, VALID_ID))
+                .thenReturn(Optional.of(booking));
+        when(paymentRepository.findByBooking(booking)).thenReturn(Optional.empty());
+        doThrow(IllegalStateException.class)
+                .when(bookingHoldService).extendHold(booking, NOW.plus(RESERVATION_TIMEOUT));
+
+        // When/Then: The payment is not reserved
+        assertThrows(IllegalStateException.class,
+                () -> reservationService.reserveNew(VALID_ID, currentUser));
+        verify(paymentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Reserving a payment for a booking that already has one is refused")
+    void reserveNew_ExistingPayment_ThrowsIllegalStateException() {
+        // Given: Booking has an existing payment
+        when(bookingRepository.findBookingByIdAndUserId(VALID_ID, VALID_ID))
+                .thenReturn(Optional.of(booking));
+        when(paymentRepository.findByBooking(booking)).thenReturn(Optional.of(payment));
+
+        // When/Then: Verify that an exception is thrown
+        assertThrows(IllegalStateException.class,
+                () -> reservationService.reserveNew(VALID_ID, currentUser));
+
+        // Verify: Nothing is stored
+        verify(paymentRepository, never()).saveAndFlush(any());
+        verify(bookingHoldService, never()).extendHold(any(), any());
+    }
+
+    @Test
+    @DisplayName("A renewal already in progress cannot be reserved twice")
+    void reserveRenewal_ConcurrentRenewal_ThrowsIllegalStateException() {
+        // Given: An expired payment that another request moves out of EXPIRED first
+        payment.setStatus(Payment.PaymentStatus.EXPIRED);
+        when(paymentRepository.findByIdAndUserIdAndStatus(
+                VALID_ID, VALID_ID, Payment.PaymentStatus.EXPIRED))
+                .thenReturn(Optional.of(payment));
+        when(bookingRepository.findById(VALID_ID)).thenReturn(Optional.of(booking));
+        when(paymentRepository.updateStatus(VALID_ID,
+                Payment.PaymentStatus.EXPIRED, Payment.PaymentStatus.INITIATING)).thenReturn(0);
+
+        // When/Then: The second renewal is refused
+        assertThrows(IllegalStateException.class,
+                () -> reservationService.reserveRenewal(VALID_ID, currentUser));
+        verify(paymentRepository, never()).updateExpiresAt(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Attaching a session moves the reservation to PENDING with the session expiry")
+    void attachSession_Reserved_StoresSession() {
+        // Given: A session created for a reserved payment
+        Session session = PaymentServiceTestUtil.initializeStripeSession();
+        session.setExpiresAt(SESSION_EXPIRES_AT);
+        when(paymentRepository.updateSession(VALID_ID, Payment.PaymentStatus.INITIATING,
+                Payment.PaymentStatus.PENDING, session.getId(), session.getUrl(),
+                Instant.ofEpochSecond(SESSION_EXPIRES_AT))).thenReturn(1);
+        when(paymentRepository.findById(VALID_ID)).thenReturn(Optional.of(payment));
+
+        // When: The session is attached
+        Payment attached = reservationService.attachSession(VALID_ID, session);
+
+        // Then: The stored payment is returned and its booking is held as long as the session
+        assertThat(attached).isEqualTo(payment);
+        verify(bookingHoldService).extendHold(booking, Instant.ofEpochSecond(SESSION_EXPIRES_AT));
+    }
+
+    @Test
+    @DisplayName("A session arriving after its reservation was given up is not attached")
+    void attachSession_ReservationGone_ThrowsIllegalStateException() {
+        // Given: The recovery job already expired the reservation
+        Session session = PaymentServiceTestUtil.initializeStripeSession();
+        when(paymentRepository.updateSession(any(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+
+        // When/Then: The caller is told to renew
+        assertThrows(IllegalStateException.class,
+                () -> reservationService.attachSession(VALID_ID, session));
+        verify(paymentRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Reservations past their deadline are expired so they can be renewed")
+    void expireStaleReservations_StaleReservation_MarksExpired() {
+        // Given: One reservation whose instance died before the session was attached
+        payment.setStatus(Payment.PaymentStatus.INITIATING);
+        when(paymentRepository.findStaleInitiating(NOW)).thenReturn(List.of(payment));
+        when(paymentRepository.updateStatus(VALID_ID,
+                Payment.PaymentStatus.INITIATING, Payment.PaymentStatus.EXPIRED)).thenReturn(1);
+
+        // When: The recovery job runs
+        int expiredCount = reservationService.expireStaleReservations();
+
+        // Then: The reservation is expired
+        assertThat(expiredCount).isEqualTo(1);
+    }
+}
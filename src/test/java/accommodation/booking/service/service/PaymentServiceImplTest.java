@@ -3,6 +3,7 @@ package accommodation.booking.service.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -13,17 +14,23 @@ import accommodation.booking.service.model.Booking;
 import accommodation.booking.service.model.Payment;
 import accommodation.booking.service.model.Role;
 import accommodation.booking.service.model.User;
-import accommodation.booking.service.repository.BookingRepository;
 import accommodation.booking.service.repository.PaymentRepository;
+import accommodation.booking.service.service.booking.BookingHoldService;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
 import accommodation.booking.service.service.notification.PaymentNotificationUtil;
+import accommodation.booking.service.service.payment.PaymentReservationService;
 import accommodation.booking.service.service.payment.StripeService;
 import accommodation.booking.service.service.payment.impl.PaymentServiceImpl;
 import accommodation.booking.service.service.payment.util.PaymentServiceImplUtil;
 import accommodation.booking.service.util.PaymentServiceTestUtil;
 import com.stripe.model.checkout.Session;
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.ToIntFunction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -36,6 +43,8 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @ExtendWith(MockitoExtension.class)
 public class PaymentServiceImplTest {
@@ -59,9 +68,6 @@ public class PaymentServiceImplTest {
     @Mock
     private PaymentRepository paymentRepository;
 
-    @Mock
-    private BookingRepository bookingRepository;
-
     @Mock
     private StripeService stripeService;
 
@@ -71,6 +77,21 @@ public class PaymentServiceImplTest {
     @Mock
     private PaymentNotificationUtil paymentNotificationUtil;
 
+    @Mock
+    private PaymentReservationService paymentReservationService;
+
+    @Mock
+    private BookingHoldService bookingHoldService;
+
+    @Mock
+    private MaintenanceJobRunner maintenanceJobRunner;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private Clock clock;
+
     @BeforeEach
     void setUp() {
         role = PaymentServiceTestUtil.initializeRole();
@@ -86,45 +107,78 @@ public class PaymentServiceImplTest {
     @Test
     @DisplayName("Initiate payment for valid booking creates payment and returns response DTO")
     void initiatePayment_ValidBooking_ReturnsPaymentResponseDto() {
-        // Given: Valid booking with no existing payment
-        when(bookingRepository.findBookingByIdAndUserId(VALID_ID, VALID_ID))
-                .thenReturn(Optional.of(booking));
-        when(paymentRepository.findByBooking(booking)).thenReturn(Optional.empty());
-        when(stripeService.createSession(booking, amount)).thenReturn(stripeSession);
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        // Given: A reserved payment whose Stripe session is created and attached
+        when(paymentReservationService.reserveNew(VALID_ID, currentUser))
+                .thenReturn(new PaymentReservationService.Reservation(VALID_ID, booking, amount));
+        when(stripeService.createSession(booking, amount, null)).thenReturn(stripeSession);
+        when(paymentReservationService.attachSession(VALID_ID, stripeSession))
+                .thenReturn(payment);
         when(paymentMapper.intoDto(payment)).thenReturn(responseDto);
 
         // When: Call the service method
-        PaymentResponseDto actual = paymentService.initiatePayment(VALID_ID, currentUser);
+        PaymentResponseDto actual = paymentService.initiatePayment(VALID_ID, currentUser, null);
 
         // Then: Verify the result and interactions
         assertThat(actual).isEqualTo(responseDto);
         assertThat(actual.getStatus()).isEqualTo(Payment.PaymentStatus.PENDING);
         assertThat(actual.getAmountToPay()).isEqualTo(amount);
-        verify(bookingRepository).findBookingByIdAndUserId(VALID_ID, VALID_ID);
-        verify(paymentRepository).findByBooking(booking);
-        verify(stripeService).createSession(booking, amount);
+        verify(stripeService).createSession(booking, amount, null);
+        verify(paymentNotificationUtil).notifyPaymentCreated(
+                VALID_ID, amount, payment.getSessionUrl(), currentUser.getEmail());
         verify(paymentMapper).intoDto(payment);
     }
 
+    @Test
+    @DisplayName("Initiate payment scopes the client's idempotency key to the user for Stripe")
+    void initiatePayment_IdempotencyKey_PassesScopedKeyToStripe() {
+        // Given: A request retried by the client under its own key
+        when(paymentReservationService.reserveNew(VALID_ID, currentUser))
+                .thenReturn(new PaymentReservationService.Reservation(VALID_ID, booking, amount));
+        when(stripeService.createSession(booking, amount, "payment:1:key-1"))
+                .thenReturn(stripeSession);
+        when(paymentReservationService.attachSession(VALID_ID, stripeSession))
+                .thenReturn(payment);
+
+        // When: Call the service method
+        paymentService.initiatePayment(VALID_ID, currentUser, "key-1");
+
+        // Then: Stripe receives the key prefixed with the user ID
+        verify(stripeService).createSession(booking, amount, "payment:1:key-1");
+    }
+
     @Test
     @DisplayName("Initiate payment for booking with existing payment.")
     void initiatePayment_ExistingPayment_ThrowsIllegalStateException() {
-        // Given: Booking has an existing payment
-        when(bookingRepository.findBookingByIdAndUserId(VALID_ID, VALID_ID))
-                .thenReturn(Optional.of(booking));
-        when(paymentRepository.findByBooking(booking)).thenReturn(Optional.of(payment));
+        // Given: The reservation is refused because the booking already has a payment
+        when(paymentReservationService.reserveNew(VALID_ID, currentUser))
+                .thenThrow(new IllegalStateException("Payment already exists for this booking."));
 
         // When/Then: Verify that an exception is thrown
         assertThrows(IllegalStateException.class,
-                () -> paymentService.initiatePayment(VALID_ID, currentUser));
+                () -> paymentService.initiatePayment(VALID_ID, currentUser, null));
 
-        // Verify: No further interactions occur after the exception
-        verify(bookingRepository).findBookingByIdAndUserId(VALID_ID, VALID_ID);
-        verify(paymentRepository).findByBooking(booking);
-        verify(stripeService, never()).createSession(booking, amount);
-        verify(paymentRepository, never()).save(payment);
-        verify(paymentMapper, never()).intoDto(payment);
+        // Verify: Stripe is never called
+        verify(stripeService, never()).createSession(any(), any(), any());
+        verify(paymentMapper, never()).intoDto(any());
+    }
+
+    @Test
+    @DisplayName("Initiate payment gives up the reservation when Stripe fails.")
+    void initiatePayment_StripeFailure_AbandonsReservation() {
+        // Given: A reserved payment, and Stripe failing to create the session
+        when(paymentReservationService.reserveNew(VALID_ID, currentUser))
+                .thenReturn(new PaymentReservationService.Reservation(VALID_ID, booking, amount));
+        when(stripeService.createSession(booking, amount, null))
+                .thenThrow(new RuntimeException("Stripe is down"));
+
+        // When/Then: The failure reaches the caller
+        assertThrows(RuntimeException.class,
+                () -> paymentService.initiatePayment(VALID_ID, currentUser, null));
+
+        // Verify: The reservation is released and nothing is attached or notified
+        verify(paymentReservationService).abandon(VALID_ID);
+        verify(paymentReservationService, never()).attachSession(any(), any());
+        verify(paymentNotificationUtil, never()).notifyPaymentCreated(any(), any(), any(), any());
     }
 
     @Test
@@ -161,23 +215,65 @@ public class PaymentServiceImplTest {
     }
 
     @Test
-    @DisplayName("Check expired Stripe sessions marks expired payment and sends notification.")
-    void checkExpiredStripeSessions_ExpiredSession_MarksExpiredAndNotifies() {
-        // Given: One pending payment with an expired session
-        when(paymentRepository.findAllByStatus(Payment.PaymentStatus.PENDING))
-                .thenReturn(List.of(payment));
-        when(stripeService.isSessionExpired(payment)).thenReturn(true);
-        when(paymentRepository.save(payment)).thenReturn(payment);
+    @DisplayName("Expire Stripe sessions marks expired payment and sends notification.")
+    void expireStripeSessions_ExpiredSession_MarksExpiredAndNotifies() {
+        // Given: One pending payment whose stored session expiry has passed
+        Instant now = Instant.parse("2025-05-01T12:00:00Z");
+        when(clock.instant()).thenReturn(now);
+        when(paymentRepository.findExpiredPending(now)).thenReturn(List.of(payment));
+        when(maintenanceJobRunner.runChunks(any(), any(), any())).thenAnswer(invocation ->
+                invocation.<ToIntFunction<List<Payment>>>getArgument(2)
+                        .applyAsInt(invocation.getArgument(1)));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(paymentRepository.updateStatus(VALID_ID,
+                Payment.PaymentStatus.PENDING, EXPIRED_STATUS)).thenReturn(1);
 
         // When: Call the service method
-        paymentService.checkExpiredStripeSessions();
+        int expiredCount = paymentService.expireStripeSessions();
 
-        // Then: Verify the payment is marked EXPIRED and notification is sent
+        // Then: The payment is marked EXPIRED without asking Stripe, and notification is sent
+        assertThat(expiredCount).isEqualTo(1);
         assertThat(payment.getStatus()).isEqualTo(Payment.PaymentStatus.EXPIRED);
-        verify(paymentRepository).findAllByStatus(Payment.PaymentStatus.PENDING);
-        verify(stripeService).isSessionExpired(payment);
-        verify(paymentRepository).save(payment);
+        verify(paymentRepository).updateStatus(
+                VALID_ID, Payment.PaymentStatus.PENDING, EXPIRED_STATUS);
         verify(paymentNotificationUtil).notifyOfExpiredSession(payment);
+        verify(stripeService, never()).retrieveSession(any());
+    }
+
+    @Test
+    @DisplayName("Expire Stripe sessions skips a payment that was paid in the meantime.")
+    void expireStripeSessions_PaidMeanwhile_DoesNotNotify() {
+        // Given: The payment leaves PENDING between the query and the update
+        Instant now = Instant.parse("2025-05-01T12:00:00Z");
+        when(clock.instant()).thenReturn(now);
+        when(paymentRepository.findExpiredPending(now)).thenReturn(List.of(payment));
+        when(maintenanceJobRunner.runChunks(any(), any(), any())).thenAnswer(invocation ->
+                invocation.<ToIntFunction<List<Payment>>>getArgument(2)
+                        .applyAsInt(invocation.getArgument(1)));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(paymentRepository.updateStatus(VALID_ID,
+                Payment.PaymentStatus.PENDING, EXPIRED_STATUS)).thenReturn(0);
+
+        // When: Call the service method
+        int expiredCount = paymentService.expireStripeSessions();
+
+        // Then: Nothing is expired or notified
+        assertThat(expiredCount).isZero();
+        verify(paymentNotificationUtil, never()).notifyOfExpiredSession(any());
+    }
+
+    @Test
+    @DisplayName("Check expired Stripe sessions hands the run to the maintenance job runner.")
+    void checkExpiredStripeSessions_Scheduled_LaunchesMaintenanceJob() {
+        // When: The scheduler fires
+        paymentService.checkExpiredStripeSessions();
+
+        // Then: The run is launched on the maintenance pool instead of the scheduler thread
+        verify(maintenanceJobRunner).launchExclusive(
+                eq("payment-session-expiration"), eq(Duration.ofMinutes(1)), any());
+        verify(paymentRepository, never()).findExpiredPending(any());
     }
 
     @Test
@@ -187,13 +283,11 @@ public class PaymentServiceImplTest {
     )
     void renewPaymentSession_ExpiredPayment_ReturnsPaymentResponseDto() {
         //Given:
-        PaymentResponseDto expected = responseDto;
-        when(paymentRepository.findByIdAndUserIdAndStatus(VALID_ID, VALID_ID, EXPIRED_STATUS))
-                .thenReturn(Optional.of(payment));
-        payment.setStatus(Payment.PaymentStatus.EXPIRED);
-        when(bookingRepository.findById(VALID_ID)).thenReturn(Optional.of(booking));
-        when(stripeService.createSession(booking, amount)).thenReturn(stripeSession);
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentReservationService.reserveRenewal(VALID_ID, currentUser))
+                .thenReturn(new PaymentReservationService.Reservation(VALID_ID, booking, amount));
+        when(stripeService.createSession(booking, amount, null)).thenReturn(stripeSession);
+        when(paymentReservationService.attachSession(VALID_ID, stripeSession))
+                .thenReturn(payment);
         when(paymentMapper.intoDto(payment)).thenReturn(responseDto);
 
         //When:
@@ -202,9 +296,9 @@ public class PaymentServiceImplTest {
         assertThat(actual).isEqualTo(responseDto);
         assertThat(actual.getStatus()).isEqualTo(Payment.PaymentStatus.PENDING);
         assertThat(actual.getAmountToPay()).isEqualTo(amount);
-        verify(bookingRepository).findById(VALID_ID);
-        verify(paymentRepository).findByIdAndUserIdAndStatus(VALID_ID, VALID_ID, EXPIRED_STATUS);
-        verify(stripeService).createSession(booking, amount);
+        verify(stripeService).createSession(booking, amount, null);
+        verify(paymentNotificationUtil).notifyOfSessionRenewed(
+                VALID_ID, amount, payment.getSessionUrl(), currentUser.getEmail());
         verify(paymentMapper).intoDto(payment);
     }
 
@@ -217,7 +311,11 @@ public class PaymentServiceImplTest {
         stripeSession.setPaymentStatus(PAID_PAYMENT_STATUS);
         when(stripeService.retrieveSession(SESSION_ID)).thenReturn(stripeSession);
         when(paymentRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(paymentRepository.updateStatus(
+                VALID_ID, Payment.PaymentStatus.PENDING, Payment.PaymentStatus.PAID))
+                .thenReturn(1);
         // When: Call the service method
         String result = paymentService.handlePaymentSuccess(SESSION_ID);
 
@@ -225,7 +323,58 @@ public class PaymentServiceImplTest {
         assertThat(result).isEqualTo("Payment successful! Booking confirmed.");
         assertThat(payment.getStatus()).isEqualTo(Payment.PaymentStatus.PAID);
         verify(stripeService).retrieveSession(SESSION_ID);
-        verify(paymentRepository).save(payment);
         verify(paymentNotificationUtil).notifyOfSuccessfulPayment(payment, SESSION_ID);
     }
+
+    @Test
+    @DisplayName("Handle payment success for an already paid payment skips the Stripe lookup.")
+    void handlePaymentSuccess_AlreadyPaid_DoesNotCallStripe() {
+        // Given: The payment was marked PAID by the webhook
+        payment.setStatus(Payment.PaymentStatus.PAID);
+        when(paymentRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.of(payment));
+
+        // When: The browser lands on the success page
+        String result = paymentService.handlePaymentSuccess(SESSION_ID);
+
+        // Then: The stored status answers without a remote call or a second notification
+        assertThat(result).isEqualTo("Payment successful! Booking confirmed.");
+        verify(stripeService, never()).retrieveSession(any());
+        verify(paymentNotificationUtil, never()).notifyOfSuccessfulPayment(any(), any());
+    }
+
+    @Test
+    @DisplayName("Complete session marks an expired payment as paid and notifies once.")
+    void completeSession_ExpiredPayment_MarksPaid() {
+        // Given: The session was paid just as the payment expired locally
+        payment.setStatus(EXPIRED_STATUS);
+        when(paymentRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.of(payment));
+        when(paymentRepository.updateStatus(
+                VALID_ID, EXPIRED_STATUS, Payment.PaymentStatus.PAID)).thenReturn(1);
+
+        // When: The completion event is applied
+        boolean completed = paymentService.completeSession(SESSION_ID);
+
+        // Then: The payment is PAID, its booking no longer held, and the success is notified
+        assertThat(completed).isTrue();
+        assertThat(payment.getStatus()).isEqualTo(Payment.PaymentStatus.PAID);
+        verify(bookingHoldService).clearHold(booking);
+        verify(paymentNotificationUtil).notifyOfSuccessfulPayment(payment, SESSION_ID);
+    }
+
+    @Test
+    @DisplayName("Expire session leaves a paid payment untouched.")
+    void expireSession_PaidPayment_DoesNothing() {
+        // Given: A payment that is already PAID
+        payment.setStatus(Payment.PaymentStatus.PAID);
+        when(paymentRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.of(payment));
+
+        // When: A late expiry event is applied
+        boolean expired = paymentService.expireSession(SESSION_ID);
+
+        // Then: Nothing changes
+        assertThat(expired).isFalse();
+        assertThat(payment.getStatus()).isEqualTo(Payment.PaymentStatus.PAID);
+        verify(paymentRepository, never()).updateStatus(any(), any(), any());
+        verify(paymentNotificationUtil, never()).notifyOfExpiredSession(any());
+    }
 }
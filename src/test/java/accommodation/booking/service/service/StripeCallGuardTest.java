@@ -0,0 +1,172 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import accommodation.booking.service.exceptions.PaymentProviderUnavailableException;
+import accommodation.booking.service.service.payment.StripeCallGuard;
+import accommodation.booking.service.service.payment.impl.StripeServiceImpl;
+import accommodation.booking.service.util.CircuitBreaker;
+import com.stripe.Stripe;
+import com.stripe.model.checkout.Session;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Runs the real {@link StripeServiceImpl} against a local HTTP server standing in for Stripe.
+ */
+public class StripeCallGuardTest {
+    private static final int READ_TIMEOUT_MS = 200;
+    private static final int FAILURE_THRESHOLD = 2;
+    private static final long OPEN_MS = 300;
+    private static final String SESSION_JSON = """
+            {"id": "cs_1", "object": "checkout.session", "status": "open",
+             "payment_status": "unpaid"}""";
+    private static final String ERROR_JSON = """
+            {"error": {"type": "invalid_request_error", "message": "No such session"}}""";
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final CountDownLatch requestReceived = new CountDownLatch(1);
+    private volatile int responseStatus = 200;
+    private volatile long responseDelayMillis;
+    private HttpServer fakeStripe;
+    private SimpleMeterRegistry meterRegistry;
+    private StripeCallGuard stripeCallGuard;
+    private StripeServiceImpl stripeService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fakeStripe = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        fakeStripe.createContext("/v1/checkout/sessions", this::respond);
+        fakeStripe.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        fakeStripe.start();
+        Stripe.overrideApiBase("http://localhost:" + fakeStripe.getAddress().getPort());
+        meterRegistry = new SimpleMeterRegistry();
+        stripeCallGuard = new StripeCallGuard(
+                meterRegistry, Clock.systemUTC(), FAILURE_THRESHOLD, OPEN_MS, 1, 1, 0);
+        stripeService = new StripeServiceImpl(stripeCallGuard);
+        ReflectionTestUtils.setField(stripeService, "secretKey", "sk_test_fake");
+        ReflectionTestUtils.setField(stripeService, "connectTimeoutMillis", 1000);
+        ReflectionTestUtils.setField(stripeService, "readTimeoutMillis", READ_TIMEOUT_MS);
+        ReflectionTestUtils.setField(stripeService, "maxNetworkRetries", 0);
+        stripeService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fakeStripe.stop(0);
+        Stripe.overrideApiBase(Stripe.LIVE_API_BASE);
+        Stripe.setConnectTimeout(Stripe.DEFAULT_CONNECT_TIMEOUT);
+        Stripe.setReadTimeout(Stripe.DEFAULT_READ_TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Timeouts open the circuit, after which calls fail fast without reaching Stripe")
+    void retrieveSession_RepeatedTimeouts_OpensCircuit() {
+        // Given: Stripe answers slower than the read timeout
+        responseDelayMillis = READ_TIMEOUT_MS * 3;
+
+        // When: Calls are made until the threshold is reached, and once more
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThrows(RuntimeException.class, () -> stripeService.retrieveSession("cs_1"));
+        }
+        assertThrows(PaymentProviderUnavailableException.class,
+                () -> stripeService.retrieveSession("cs_1"));
+
+        // Then: The last call was rejected locally and the circuit is open
+        assertThat(requestCount.get()).isEqualTo(FAILURE_THRESHOLD);
+        assertThat(stripeCallGuard.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.counter("stripe.request.rejected",
+                "operation", "retrieveSession", "reason", "circuit_open").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("stripe.request.duration")
+                .tags("operation", "retrieveSession", "outcome", "failure")
+                .timer().count()).isEqualTo(FAILURE_THRESHOLD);
+    }
+
+    @Test
+    @DisplayName("After the cool-down a successful probe closes the circuit")
+    void retrieveSession_RecoveredAfterCoolDown_ClosesCircuit() throws InterruptedException {
+        // Given: An open circuit, and Stripe back to normal
+        responseStatus = 503;
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThrows(RuntimeException.class, () -> stripeService.retrieveSession("cs_1"));
+        }
+        assertThat(stripeCallGuard.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        responseStatus = 200;
+        Thread.sleep(OPEN_MS + 50);
+
+        // When: The next call is made
+        Session session = stripeService.retrieveSession("cs_1");
+
+        // Then: The probe went through and the circuit is closed again
+        assertThat(session.getId()).isEqualTo("cs_1");
+        assertThat(stripeCallGuard.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Requests Stripe rejects do not count against the circuit")
+    void retrieveSession_InvalidRequests_KeepsCircuitClosed() {
+        // Given: Stripe rejects the request itself
+        responseStatus = 404;
+
+        // When: More calls than the threshold fail
+        for (int i = 0; i < FAILURE_THRESHOLD * 2; i++) {
+            assertThrows(RuntimeException.class, () -> stripeService.retrieveSession("cs_x"));
+        }
+
+        // Then: Every call reached Stripe and the circuit stays closed
+        assertThat(requestCount.get()).isEqualTo(FAILURE_THRESHOLD * 2);
+        assertThat(stripeCallGuard.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("A call beyond the concurrency limit is rejected while the slot is taken")
+    void retrieveSession_BulkheadFull_RejectsCall() throws InterruptedException {
+        // Given: The only slot is held by a call Stripe is slow to answer
+        responseDelayMillis = READ_TIMEOUT_MS / 2;
+        Thread inFlight = Thread.ofVirtual().start(() -> stripeService.retrieveSession("cs_1"));
+        assertThat(requestReceived.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When: Another call is made meanwhile
+        assertThrows(PaymentProviderUnavailableException.class,
+                () -> stripeService.retrieveSession("cs_1"));
+        inFlight.join();
+
+        // Then: It never reached Stripe
+        assertThat(requestCount.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("stripe.request.rejected",
+                "operation", "retrieveSession", "reason", "bulkhead_full").count()).isEqualTo(1);
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        requestReceived.countDown();
+        try {
+            Thread.sleep(responseDelayMillis);
+            byte[] body = (responseStatus == 200 ? SESSION_JSON : ERROR_JSON)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(responseStatus, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The client gave up waiting
+        } finally {
+            exchange.close();
+        }
+    }
+}
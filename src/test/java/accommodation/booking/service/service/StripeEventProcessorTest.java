@@ -0,0 +1,159 @@
+package accommodation.booking.service.service;
+
+import static accommodation.booking.service.util.StripeWebhookTestUtil.sessionEvent;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.model.StripeEvent;
+import accommodation.booking.service.repository.StripeEventRepository;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import accommodation.booking.service.service.payment.PaymentService;
+import accommodation.booking.service.service.payment.StripeEventProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class StripeEventProcessorTest {
+    private static final Instant NOW = Instant.parse("2025-05-01T12:00:00Z");
+    private static final String EVENT_ID = "evt_1";
+    private static final String SESSION_ID = "cs_test_1";
+    private static final int MAX_ATTEMPTS = 3;
+    private StripeEventProcessor eventProcessor;
+
+    @Mock
+    private StripeEventRepository stripeEventRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private MaintenanceJobRunner maintenanceJobRunner;
+
+    @BeforeEach
+    void setUp() {
+        eventProcessor = new StripeEventProcessor(stripeEventRepository, paymentService,
+                maintenanceJobRunner, new ObjectMapper(), Clock.fixed(NOW, ZoneOffset.UTC),
+                10, 60_000, MAX_ATTEMPTS);
+    }
+
+    @Test
+    @DisplayName("A paid checkout.session.completed event marks the payment as paid")
+    void process_SessionCompletedPaid_CompletesSession() {
+        // Given: A claimed, paid session completion
+        storedEvent(StripeEventProcessor.SESSION_COMPLETED, "paid", 1);
+
+        // When: The event is processed
+        boolean processed = eventProcessor.process(EVENT_ID);
+
+        // Then: The payment is completed and the event is marked processed
+        assertThat(processed).isTrue();
+        verify(paymentService).completeSession(SESSION_ID);
+        verify(stripeEventRepository)
+                .updateStatus(EVENT_ID, StripeEvent.EventStatus.PROCESSED, NOW);
+    }
+
+    @Test
+    @DisplayName("A completed session still awaiting an async payment is not marked as paid")
+    void process_SessionCompletedUnpaid_DoesNotComplete() {
+        // Given: A session completed with a delayed payment method
+        storedEvent(StripeEventProcessor.SESSION_COMPLETED, "unpaid", 1);
+
+        // When: The event is processed
+        eventProcessor.process(EVENT_ID);
+
+        // Then: The payment stays pending until async_payment_succeeded arrives
+        verify(paymentService, never()).completeSession(any());
+        verify(stripeEventRepository)
+                .updateStatus(EVENT_ID, StripeEvent.EventStatus.PROCESSED, NOW);
+    }
+
+    @Test
+    @DisplayName("A checkout.session.expired event expires the payment")
+    void process_SessionExpired_ExpiresSession() {
+        // Given: A claimed session expiry
+        storedEvent(StripeEventProcessor.SESSION_EXPIRED, "unpaid", 1);
+
+        // When: The event is processed
+        eventProcessor.process(EVENT_ID);
+
+        // Then: The payment is expired
+        verify(paymentService).expireSession(SESSION_ID);
+    }
+
+    @Test
+    @DisplayName("An event claimed elsewhere or already processed is skipped")
+    void process_NotClaimed_Skips() {
+        // Given: The claim does not succeed
+        when(stripeEventRepository.claim(EVENT_ID, 60.0)).thenReturn(0);
+
+        // When: The event is processed
+        boolean processed = eventProcessor.process(EVENT_ID);
+
+        // Then: Nothing is applied
+        assertThat(processed).isFalse();
+        verify(stripeEventRepository, never()).findById(any());
+        verify(paymentService, never()).completeSession(any());
+    }
+
+    @Test
+    @DisplayName("A failing event is retried until its attempts run out, then marked failed")
+    void process_ApplyFails_RetriesThenFails() {
+        // Given: Applying the event fails on its second and on its last attempt
+        storedEvent(StripeEventProcessor.SESSION_EXPIRED, "unpaid", 2);
+        when(paymentService.expireSession(SESSION_ID))
+                .thenThrow(new IllegalStateException("Database is down"));
+
+        // When: The event is processed twice
+        eventProcessor.process(EVENT_ID);
+        storedEvent(StripeEventProcessor.SESSION_EXPIRED, "unpaid", MAX_ATTEMPTS);
+        eventProcessor.process(EVENT_ID);
+
+        // Then: It goes back for redelivery first, and is given up on at the last attempt
+        verify(stripeEventRepository)
+                .updateStatus(EVENT_ID, StripeEvent.EventStatus.RECEIVED, NOW);
+        verify(stripeEventRepository)
+                .updateStatus(EVENT_ID, StripeEvent.EventStatus.FAILED, NOW);
+    }
+
+    @Test
+    @DisplayName("Redelivery processes events left unprocessed")
+    void redeliver_PendingEvents_ProcessesEach() {
+        // Given: One event waiting for redelivery
+        when(stripeEventRepository.findRedeliverable(anyDouble(), anyInt()))
+                .thenReturn(List.of(EVENT_ID));
+        storedEvent(StripeEventProcessor.SESSION_COMPLETED, "paid", 2);
+
+        // When: The redelivery job runs
+        int processedCount = eventProcessor.redeliver();
+
+        // Then: The event is applied
+        assertThat(processedCount).isEqualTo(1);
+        verify(paymentService).completeSession(SESSION_ID);
+    }
+
+    private void storedEvent(String type, String paymentStatus, int attempts) {
+        StripeEvent event = new StripeEvent();
+        event.setId(EVENT_ID);
+        event.setType(type);
+        event.setPayload(sessionEvent(EVENT_ID, type, SESSION_ID, paymentStatus));
+        event.setStatus(StripeEvent.EventStatus.PROCESSING);
+        event.setAttempts(attempts);
+        when(stripeEventRepository.claim(EVENT_ID, 60.0)).thenReturn(1);
+        when(stripeEventRepository.findById(EVENT_ID)).thenReturn(Optional.of(event));
+    }
+}
@@ -3,15 +3,20 @@ package accommodation.booking.service.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
 
 import accommodation.booking.service.model.Accommodation;
 import accommodation.booking.service.model.Booking;
 import accommodation.booking.service.model.User;
+import accommodation.booking.service.service.payment.StripeCallGuard;
 import accommodation.booking.service.service.payment.impl.StripeServiceImpl;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.checkout.SessionCreateParams;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -30,6 +35,7 @@ public class StripeServiceImplTest {
     private static final Long PROPER_ID = 1L;
     private static final BigDecimal AMOUNT_TO_PAY = BigDecimal.valueOf(200.00);
     private static final String SESSION_ID = "session_123";
+    private static final String IDEMPOTENCY_KEY = "payment:1:key-1";
     private static final String SESSION_URL = "http://localhost:8081/payments/success?session_id={CHECKOUT_SESSION_ID}";
     private Booking booking;
     @InjectMocks
@@ -38,10 +44,15 @@ public class StripeServiceImplTest {
     @Mock
     private Session session;
 
+    @Mock
+    private StripeCallGuard stripeCallGuard;
+
     @BeforeEach
-    void setUp() {
+    void setUp() throws StripeException {
         booking = initializeBooking();
         ReflectionTestUtils.setField(stripeService, "secretKey", "test_secret_key");
+        lenient().when(stripeCallGuard.call(anyString(), any())).thenAnswer(invocation ->
+                invocation.<StripeCallGuard.StripeCall<?>>getArgument(1).execute());
     }
 
     @Test
@@ -52,10 +63,11 @@ public class StripeServiceImplTest {
         when(session.getUrl()).thenReturn(SESSION_URL);
 
         try (MockedStatic<Session> sessionMockedStatic = mockStatic(Session.class)) {
-            sessionMockedStatic.when(() -> Session.create(any(SessionCreateParams.class)))
+            sessionMockedStatic.when(() -> Session.create(
+                            any(SessionCreateParams.class), any(RequestOptions.class)))
                     .thenReturn(session);
             // When: Call the service method
-            Session actual = stripeService.createSession(booking, AMOUNT_TO_PAY);
+            Session actual = stripeService.createSession(booking, AMOUNT_TO_PAY, null);
 
             // Then: Verify the result
             assertThat(actual).isEqualTo(session);
@@ -64,6 +76,24 @@ public class StripeServiceImplTest {
         }
     }
 
+    @Test
+    @DisplayName("Create session sends the idempotency key to Stripe.")
+    void createSession_IdempotencyKey_SetsRequestOption() {
+        // Given: A key under which Stripe should deduplicate the session
+        try (MockedStatic<Session> sessionMockedStatic = mockStatic(Session.class)) {
+            sessionMockedStatic.when(() -> Session.create(
+                            any(SessionCreateParams.class), any(RequestOptions.class)))
+                    .thenReturn(session);
+            // When: Call the service method
+            stripeService.createSession(booking, AMOUNT_TO_PAY, IDEMPOTENCY_KEY);
+
+            // Then: The key is sent in the request options
+            sessionMockedStatic.verify(() -> Session.create(any(SessionCreateParams.class),
+                    argThat((RequestOptions options) ->
+                            IDEMPOTENCY_KEY.equals(options.getIdempotencyKey()))));
+        }
+    }
+
     @Test
     @DisplayName("Create session with Stripe API error.")
     void createSession_StripeApiError_ThrowsRuntimeException() {
@@ -71,11 +101,12 @@ public class StripeServiceImplTest {
         StripeException stripeException = new StripeException(
                 "API error", "request_123", "account_number_invalid", 400) {};
         try (MockedStatic<Session> sessionMockedStatic = mockStatic(Session.class)) {
-            sessionMockedStatic.when(() -> Session.create(any(SessionCreateParams.class)))
+            sessionMockedStatic.when(() -> Session.create(
+                            any(SessionCreateParams.class), any(RequestOptions.class)))
                     .thenThrow(stripeException);
             // When/Then: Verify that an exception is thrown
             RuntimeException thrown = assertThrows(RuntimeException.class,
-                    () -> stripeService.createSession(booking, AMOUNT_TO_PAY));
+                    () -> stripeService.createSession(booking, AMOUNT_TO_PAY, null));
 
             // Then: Verify the exception message
             assertThat(thrown.getMessage()).contains(
@@ -0,0 +1,167 @@
+package accommodation.booking.service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.model.Payment;
+import accommodation.booking.service.repository.PaymentRepository;
+import accommodation.booking.service.service.job.MaintenanceJobRunner;
+import accommodation.booking.service.service.payment.PaymentService;
+import accommodation.booking.service.service.payment.StripeService;
+import accommodation.booking.service.service.payment.StripeSessionReconciler;
+import com.stripe.model.checkout.Session;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class StripeSessionReconcilerTest {
+    private static final Instant NOW = Instant.parse("2025-05-01T12:00:00Z");
+    private static final Instant STORED_EXPIRY = NOW.plusSeconds(3600);
+    private static final int SAMPLE_SIZE = 12;
+    private static final int BATCH_SIZE = 5;
+    private static final int CONCURRENCY = 3;
+    private StripeSessionReconciler reconciler;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private StripeService stripeService;
+
+    @Mock
+    private MaintenanceJobRunner maintenanceJobRunner;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new StripeSessionReconciler(paymentRepository, paymentService,
+                stripeService, maintenanceJobRunner, transactionTemplate,
+                Clock.fixed(NOW, ZoneOffset.UTC), SAMPLE_SIZE, BATCH_SIZE, CONCURRENCY,
+                1000, 600_000);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Sessions expired on Stripe ahead of time are due for local expiration")
+    void reconcileSample_ExpiredOnStripe_MovesExpiryToNow() {
+        // Given: A sampled payment whose session was expired from the Stripe dashboard
+        when(paymentRepository.findPendingSample(SAMPLE_SIZE))
+                .thenReturn(List.of(pendingPayment(1L)));
+        when(stripeService.retrieveSession("cs_1"))
+                .thenReturn(session("expired", "unpaid", STORED_EXPIRY));
+        when(paymentRepository.updateExpiresAt(1L, Payment.PaymentStatus.PENDING, NOW))
+                .thenReturn(1);
+
+        // When: The sample is reconciled
+        int changedCount = reconciler.reconcileSample();
+
+        // Then: The stored expiry is pulled in to now
+        assertThat(changedCount).isEqualTo(1);
+        verify(paymentRepository).updateExpiresAt(1L, Payment.PaymentStatus.PENDING, NOW);
+    }
+
+    @Test
+    @DisplayName("A paid session whose webhook was missed completes the payment")
+    void reconcileSample_PaidOnStripe_CompletesPayment() {
+        // Given: A sampled payment that was paid, though no webhook arrived
+        when(paymentRepository.findPendingSample(SAMPLE_SIZE))
+                .thenReturn(List.of(pendingPayment(1L)));
+        when(stripeService.retrieveSession("cs_1"))
+                .thenReturn(session("complete", "paid", STORED_EXPIRY));
+        when(paymentService.completeSession("cs_1")).thenReturn(true);
+
+        // When: The sample is reconciled
+        int changedCount = reconciler.reconcileSample();
+
+        // Then: The payment is completed
+        assertThat(changedCount).isEqualTo(1);
+        verify(paymentService).completeSession("cs_1");
+    }
+
+    @Test
+    @DisplayName("Open sessions matching the stored expiry are left alone")
+    void reconcileSample_NoDrift_UpdatesNothing() {
+        // Given: A sampled payment whose session agrees with the stored expiry, and one
+        // whose lookup fails
+        when(paymentRepository.findPendingSample(SAMPLE_SIZE))
+                .thenReturn(List.of(pendingPayment(2L), pendingPayment(1L)));
+        when(stripeService.retrieveSession("cs_2"))
+                .thenThrow(new RuntimeException("Stripe is down"));
+        when(stripeService.retrieveSession("cs_1"))
+                .thenReturn(session("open", "unpaid", STORED_EXPIRY));
+
+        // When: The sample is reconciled
+        int changedCount = reconciler.reconcileSample();
+
+        // Then: Nothing is corrected and the failure does not stop the sample
+        assertThat(changedCount).isZero();
+        verify(stripeService).retrieveSession("cs_1");
+        verify(paymentRepository, never()).updateExpiresAt(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Stripe is queried concurrently within the limit, and changes are batched")
+    void reconcileSample_LargeSample_BoundsConcurrencyAndBatchesWrites() {
+        // Given: A full sample whose lookups take a while, each with a drifted expiry
+        when(paymentRepository.findPendingSample(SAMPLE_SIZE)).thenReturn(
+                LongStream.rangeClosed(1, SAMPLE_SIZE).mapToObj(this::pendingPayment).toList());
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        when(stripeService.retrieveSession(anyString())).thenAnswer(invocation -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            return session("open", "unpaid", STORED_EXPIRY.plusSeconds(60));
+        });
+        when(paymentRepository.updateExpiresAt(any(), any(), any())).thenReturn(1);
+
+        // When: The sample is reconciled
+        int changedCount = reconciler.reconcileSample();
+
+        // Then: Lookups overlapped without exceeding the limit, and 12 changes took 3 batches
+        assertThat(changedCount).isEqualTo(SAMPLE_SIZE);
+        assertThat(maxActive.get()).isBetween(2, CONCURRENCY);
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    private Payment pendingPayment(long id) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setSessionId("cs_" + id);
+        payment.setStatus(Payment.PaymentStatus.PENDING);
+        payment.setExpiresAt(STORED_EXPIRY);
+        return payment;
+    }
+
+    private static Session session(String status, String paymentStatus, Instant expiresAt) {
+        Session session = new Session();
+        session.setStatus(status);
+        session.setPaymentStatus(paymentStatus);
+        session.setExpiresAt(expiresAt.getEpochSecond());
+        return session;
+    }
+}
@@ -0,0 +1,115 @@
+package accommodation.booking.service.service;
+
+import static accommodation.booking.service.util.StripeWebhookTestUtil.WEBHOOK_SECRET;
+import static accommodation.booking.service.util.StripeWebhookTestUtil.sessionEvent;
+import static accommodation.booking.service.util.StripeWebhookTestUtil.signatureHeader;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import accommodation.booking.service.repository.StripeEventRepository;
+import accommodation.booking.service.service.payment.StripeEventProcessor;
+import accommodation.booking.service.service.payment.StripeWebhookService;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class StripeWebhookServiceTest {
+    private static final String EVENT_ID = "evt_1";
+    private static final String SESSION_ID = "cs_test_1";
+    private StripeWebhookService webhookService;
+
+    @Mock
+    private StripeEventRepository stripeEventRepository;
+
+    @Mock
+    private StripeEventProcessor stripeEventProcessor;
+
+    @BeforeEach
+    void setUp() {
+        webhookService = new StripeWebhookService(
+                stripeEventRepository, stripeEventProcessor, WEBHOOK_SECRET);
+    }
+
+    @Test
+    @DisplayName("A signed event is stored once and queued for processing")
+    void receiveEvent_ValidSignature_StoresAndSubmits() {
+        // Given: A signed checkout.session.completed event seen for the first time
+        String payload = sessionEvent(
+                EVENT_ID, StripeEventProcessor.SESSION_COMPLETED, SESSION_ID, "paid");
+        when(stripeEventProcessor.handles(StripeEventProcessor.SESSION_COMPLETED))
+                .thenReturn(true);
+        when(stripeEventRepository.insertIfAbsent(
+                EVENT_ID, StripeEventProcessor.SESSION_COMPLETED, payload)).thenReturn(1);
+
+        // When: The webhook receives it
+        boolean accepted = webhookService.receiveEvent(
+                payload, signatureHeader(payload, WEBHOOK_SECRET));
+
+        // Then: The event is queued for processing
+        assertThat(accepted).isTrue();
+        verify(stripeEventProcessor).submit(EVENT_ID);
+    }
+
+    @Test
+    @DisplayName("A redelivered event is acknowledged without being processed again")
+    void receiveEvent_Duplicate_DoesNotSubmit() {
+        // Given: An event whose ID is already stored
+        String payload = sessionEvent(
+                EVENT_ID, StripeEventProcessor.SESSION_EXPIRED, SESSION_ID, "unpaid");
+        when(stripeEventProcessor.handles(StripeEventProcessor.SESSION_EXPIRED)).thenReturn(true);
+        when(stripeEventRepository.insertIfAbsent(
+                EVENT_ID, StripeEventProcessor.SESSION_EXPIRED, payload)).thenReturn(0);
+
+        // When: Stripe delivers it again
+        boolean accepted = webhookService.receiveEvent(
+                payload, signatureHeader(payload, WEBHOOK_SECRET));
+
+        // Then: It is not queued a second time
+        assertThat(accepted).isFalse();
+        verify(stripeEventProcessor, never()).submit(any());
+    }
+
+    @Test
+    @DisplayName("Events signed with another secret or too long ago are rejected")
+    void receiveEvent_InvalidSignature_ThrowsIllegalArgumentException() {
+        // Given: One payload signed with a foreign secret and one with a stale timestamp
+        String payload = sessionEvent(
+                EVENT_ID, StripeEventProcessor.SESSION_COMPLETED, SESSION_ID, "paid");
+        String foreignSignature = signatureHeader(payload, "whsec_other");
+        String staleSignature = signatureHeader(
+                payload, WEBHOOK_SECRET, Instant.now().minusSeconds(3600));
+
+        // When/Then: Both are rejected before anything is stored
+        assertThrows(IllegalArgumentException.class,
+                () -> webhookService.receiveEvent(payload, foreignSignature));
+        assertThrows(IllegalArgumentException.class,
+                () -> webhookService.receiveEvent(payload, staleSignature));
+        verifyNoInteractions(stripeEventRepository);
+    }
+
+    @Test
+    @DisplayName("Event types the service does not handle are acknowledged and dropped")
+    void receiveEvent_UnhandledType_IsNotStored() {
+        // Given: A signed event of an unrelated type
+        String payload = sessionEvent(EVENT_ID, "customer.created", SESSION_ID, "paid");
+
+        // When: The webhook receives it
+        boolean accepted = webhookService.receiveEvent(
+                payload, signatureHeader(payload, WEBHOOK_SECRET));
+
+        // Then: Nothing is stored or queued
+        assertThat(accepted).isFalse();
+        verifyNoInteractions(stripeEventRepository);
+        verify(stripeEventProcessor, never()).submit(any());
+    }
+}
@@ -0,0 +1,73 @@
+package accommodation.booking.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+    private static final Instant START = Instant.parse("2026-05-01T10:00:00Z");
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new CircuitBreaker(3, OPEN_DURATION, 1);
+    }
+
+    @Test
+    @DisplayName("A success between failures resets the count")
+    void onFailure_InterruptedStreak_StaysClosed() {
+        // When: Two failures, a success, then two more failures
+        breaker.onFailure(START);
+        breaker.onFailure(START);
+        breaker.onSuccess();
+        breaker.onFailure(START);
+        breaker.onFailure(START);
+
+        // Then: The circuit never opened
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire(START)).isTrue();
+    }
+
+    @Test
+    @DisplayName("An open circuit rejects calls until the cool-down, then allows one probe")
+    void tryAcquire_AfterCoolDown_AllowsSingleProbe() {
+        // Given: Three failures in a row
+        openBreaker();
+
+        // When & Then: Rejected while open, then a single probe at a time
+        assertThat(breaker.tryAcquire(START.plus(OPEN_DURATION).minusMillis(1))).isFalse();
+        Instant coolDownOver = START.plus(OPEN_DURATION);
+        assertThat(breaker.tryAcquire(coolDownOver)).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire(coolDownOver)).isFalse();
+    }
+
+    @Test
+    @DisplayName("A failed probe reopens the circuit for another cool-down")
+    void onFailure_HalfOpen_Reopens() {
+        // Given: A probe let through after the cool-down
+        openBreaker();
+        Instant probeTime = START.plus(OPEN_DURATION);
+        breaker.tryAcquire(probeTime);
+
+        // When: The probe fails
+        breaker.onFailure(probeTime);
+
+        // Then: Calls are rejected until the next cool-down has passed
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(probeTime.plusSeconds(1))).isFalse();
+        assertThat(breaker.tryAcquire(probeTime.plus(OPEN_DURATION))).isTrue();
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(START);
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,54 @@
+package accommodation.booking.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MessageCoalescerTest {
+
+    @Test
+    @DisplayName("Messages within the length limit are joined into one")
+    void poll_SmallMessages_JoinsThem() {
+        // Given: Two short messages
+        MessageCoalescer coalescer = new MessageCoalescer(100);
+        coalescer.add("Accommodation released: ID=1");
+        coalescer.add("Accommodation released: ID=2");
+
+        // When: The buffer is polled
+        MessageCoalescer.Message message = coalescer.poll();
+
+        // Then: They go out as one message carrying both, and nothing is left
+        assertThat(message.text())
+                .isEqualTo("Accommodation released: ID=1\nAccommodation released: ID=2");
+        assertThat(message.sources()).containsExactly(0, 1);
+        assertThat(coalescer.poll()).isNull();
+    }
+
+    @Test
+    @DisplayName("A list longer than the limit is split on line boundaries")
+    void poll_LongList_SplitsOnLines() {
+        // Given: A multi-line message that does not fit in one
+        MessageCoalescer coalescer = new MessageCoalescer(41);
+        coalescer.add("3 bookings expired:\nID=1, Accommodation=1\nID=2, Accommodation=1\n"
+                + "ID=3, Accommodation=2");
+
+        // When & Then: Each message stays within the limit and no line is cut
+        assertThat(coalescer.poll().text())
+                .isEqualTo("3 bookings expired:\nID=1, Accommodation=1");
+        assertThat(coalescer.poll().text()).isEqualTo("ID=2, Accommodation=1");
+        assertThat(coalescer.poll().text()).isEqualTo("ID=3, Accommodation=2");
+        assertThat(coalescer.pendingLines()).isZero();
+    }
+
+    @Test
+    @DisplayName("A single line longer than the limit is truncated")
+    void poll_OversizedLine_Truncates() {
+        // Given: One line twice the limit
+        MessageCoalescer coalescer = new MessageCoalescer(10);
+        coalescer.add("x".repeat(20));
+
+        // When & Then: It is cut to the limit
+        assertThat(coalescer.poll().text()).isEqualTo("x".repeat(9) + "…");
+    }
+}
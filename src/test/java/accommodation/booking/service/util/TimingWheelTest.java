@@ -0,0 +1,61 @@
+package accommodation.booking.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+    private static final Instant START = Instant.parse("2026-05-01T10:00:00Z");
+    private TimingWheel<String> wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel<>(Duration.ofSeconds(1), 8, START);
+    }
+
+    @Test
+    @DisplayName("Items fire on the first tick at or after their deadline, never earlier")
+    void advance_DeadlineReached_ReturnsDueItems() {
+        // Given: Two items due 1.5s and 3s from start
+        wheel.schedule("first", START.plusMillis(1500));
+        wheel.schedule("second", START.plusSeconds(3));
+
+        // When & Then: Each item fires once its deadline has passed
+        assertThat(wheel.advance(START.plusSeconds(1))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(2))).containsExactly("first");
+        assertThat(wheel.advance(START.plusSeconds(3))).containsExactly("second");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deadlines beyond one rotation wait for their round")
+    void advance_DeadlineBeyondRotation_FiresInLaterRound() {
+        // Given: An item due after more than one rotation of the 8-slot wheel
+        wheel.schedule("late", START.plusSeconds(10));
+
+        // When & Then: It is skipped when its slot first comes round
+        assertThat(wheel.advance(START.plusSeconds(2))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(9))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(10))).containsExactly("late");
+    }
+
+    @Test
+    @DisplayName("A long pause fires everything that became due in between")
+    void advance_LongPause_FiresAllDueItems() {
+        // Given: Items spread across several rotations and one past deadline
+        wheel.schedule("past", START.minusSeconds(5));
+        wheel.schedule("soon", START.plusSeconds(4));
+        wheel.schedule("later", START.plusSeconds(30));
+        wheel.schedule("future", START.plusSeconds(120));
+
+        // When: The wheel is advanced a minute later
+        // Then: Only the item still in the future remains
+        assertThat(wheel.advance(START.plusSeconds(60)))
+                .containsExactlyInAnyOrder("past", "soon", "later");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,58 @@
+package accommodation.booking.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+    private static final Instant START = Instant.parse("2026-05-01T10:00:00Z");
+    private TokenBucket bucket;
+
+    @BeforeEach
+    void setUp() {
+        bucket = new TokenBucket(10, 2, START);
+    }
+
+    @Test
+    @DisplayName("A full bucket allows a burst up to its capacity, then refills at its rate")
+    void tryAcquire_BurstThenRefill_LimitsRate() {
+        // When & Then: Two permits at once, then one per 100ms
+        assertThat(bucket.tryAcquire(START)).isTrue();
+        assertThat(bucket.tryAcquire(START)).isTrue();
+        assertThat(bucket.tryAcquire(START)).isFalse();
+        assertThat(bucket.tryAcquire(START.plusMillis(99))).isFalse();
+        assertThat(bucket.tryAcquire(START.plusMillis(100))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Reservations beyond the burst wait in line, one refill interval apart")
+    void reserve_Exhausted_ReturnsIncreasingWaits() {
+        // When: Four permits are reserved at the same instant
+        bucket.reserve(START);
+        bucket.reserve(START);
+        Duration thirdWait = bucket.reserve(START);
+        Duration fourthWait = bucket.reserve(START);
+
+        // Then: The third waits one interval, the fourth two
+        assertThat(thirdWait).isEqualTo(Duration.ofMillis(100));
+        assertThat(fourthWait).isEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    @DisplayName("A long pause refills no more than the capacity")
+    void tryAcquire_LongPause_CapsAtCapacity() {
+        // Given: An empty bucket left alone for a minute
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+        Instant later = START.plusSeconds(60);
+
+        // When & Then: Only the capacity is available at once
+        assertThat(bucket.tryAcquire(later)).isTrue();
+        assertThat(bucket.tryAcquire(later)).isTrue();
+        assertThat(bucket.tryAcquire(later)).isFalse();
+    }
+}
@@ -1,6 +1,6 @@
-INSERT INTO bookings (id, check_in_date, check_out_date, accommodation_id, user_id, is_deleted, status)
-VALUES  (56, '2026-05-05', '2026-05-08', 15, 3, false, 'EXPIRED'),
-        (58, '2026-05-01', '2026-05-08', 15, 3, false, 'PENDING'),  --
-        (59, '2026-05-08', '2026-05-15', 15, 4, false, 'PENDING'),  --
-        (61, '2026-05-10', '2026-05-20', 15, 4, false, 'PENDING'),  --
-        (67, '2026-05-08', '2026-05-08', 15, 5, false, 'PENDING');  --
\ No newline at end of file
+INSERT INTO bookings (id, check_in_date, check_out_date, accommodation_id, user_id, is_deleted, status, version)
+VALUES  (56, '2026-05-05', '2026-05-08', 15, 3, false, 'EXPIRED', 0),
+        (58, '2026-05-01', '2026-05-08', 15, 3, false, 'PENDING', 0),  --
+        (59, '2026-05-08', '2026-05-15', 15, 4, false, 'PENDING', 0),  --
+        (61, '2026-05-10', '2026-05-20', 15, 4, false, 'PENDING', 0),  --
+        (67, '2026-05-08', '2026-05-08', 15, 5, false, 'PENDING', 0);  --
\ No newline at end of file
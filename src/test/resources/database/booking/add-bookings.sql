@@ -1,6 +1,6 @@
-INSERT INTO bookings (id, check_in_date, check_out_date, accommodation_id, user_id, is_deleted, status)
-VALUES (36, '2026-05-01', '2026-05-10', 15, 2, false, 'PENDING'),  --
-       (41, '2026-05-11', '2026-05-15', 15, 2, false, 'CANCELED'),
-       (55, '2026-05-05', '2026-05-08', 18, 2, false, 'PENDING');
+INSERT INTO bookings (id, check_in_date, check_out_date, accommodation_id, user_id, is_deleted, status, version)
+VALUES (36, '2026-05-01', '2026-05-10', 15, 2, false, 'PENDING', 0),  --
+       (41, '2026-05-11', '2026-05-15', 15, 2, false, 'CANCELED', 0),
+       (55, '2026-05-05', '2026-05-08', 18, 2, false, 'PENDING', 0);
 
 
@@ -0,0 +1,10 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS stay daterange
+    GENERATED ALWAYS AS (daterange(check_in_date, check_out_date, '[]')) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_active_stay ON bookings
+    USING gist (accommodation_id, stay)
+    WHERE status NOT IN ('CANCELED', 'EXPIRED') AND is_deleted = false;
+
+ANALYZE bookings;
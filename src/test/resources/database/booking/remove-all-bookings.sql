@@ -1 +1,4 @@
-DELETE FROM bookings;
\ No newline at end of file
+DELETE FROM idempotency_keys;
+DELETE FROM bookings;
+DELETE FROM notification_outbox;
+DELETE FROM accommodation_daily_occupancy;